@@ -0,0 +1,97 @@
+package searchengine;
+
+// JMH Imports.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Other Imports.
+import java.util.concurrent.TimeUnit;
+import java.util.List;
+
+/**
+ * The postings codec benchmark. It builds the inverted index once per
+ * codec, and measures how fast queries that read and intersect the
+ * (compressed) postings lists are answered.
+ *
+ * @author CodeUnicorns
+ * @see IndexBenchmark
+ */
+public class PostingsCodecBenchmark {
+
+    /**
+     * The state shared by the runs of the benchmark, one per codec.
+     */
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+        /**
+         * The codec of the postings lists: "none" keeps them as arrays.
+         */
+        @Param({"none", "vbyte", "simple8b"})
+        public String codec;
+
+        public QueryHandler queryHandler;
+
+        @Setup
+        public void setUp() {
+            List<Website> sites = FileHelper.parseFile("data/enwiki-medium.txt");
+            InvertedIndex index = new InvertedIndexHashMap();
+            if (codec.equals("none")) {
+                index.setPostingsCodec(null);
+            } else if (codec.equals("vbyte")) {
+                index.setPostingsCodec(new VByteCodec());
+            } else {
+                index.setPostingsCodec(new Simple8bCodec());
+            }
+            index.build(sites);
+            queryHandler = new QueryHandler(index, new TFIDFScore());
+        }
+    }
+
+    /**
+     * Measures the average time of single word queries, which read whole postings lists.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureSingleWords(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.queryHandler.getMatchingWebsites("the", 10, 0));
+        blackhole.consume(state.queryHandler.getMatchingWebsites("denmark", 10, 0));
+        blackhole.consume(state.queryHandler.getMatchingWebsites("population", 10, 0));
+    }
+
+    /**
+     * Measures the average time of multi word queries, which skip through postings lists.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureIntersections(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.queryHandler.getMatchingWebsites("the city OR the river", 10, 0));
+        blackhole.consume(state.queryHandler.getMatchingWebsites("the of copenhagen", 10, 0));
+        blackhole.consume(state.queryHandler.getMatchingWebsites("nordic sea climate", 10, 0));
+    }
+
+    /**
+     * JMH-magic, see {@link IndexBenchmark#main(String[])}.
+     */
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PostingsCodecBenchmark.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,233 @@
+package searchengine;
+
+import java.util.Arrays;
+
+/**
+ * A postings list backed by a growable int array of sorted document IDs and
+ * a parallel int array of frequencies, so no objects are allocated per posting.
+ * This is the list the index is built with.
+ *
+ * @author CodeUnicorns
+ */
+public class ArrayPostingsList extends PostingsList {
+
+    /**
+     * The initial capacity of the array.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The sorted document IDs.
+     */
+    private int[] docIds;
+
+    /**
+     * The term frequencies, parallel to the document IDs.
+     */
+    private int[] frequencies;
+
+    /**
+     * The number of document IDs stored in the array.
+     */
+    private int size;
+
+    /**
+     * The highest term frequency in the list, used for upper bounds of scores.
+     */
+    private int maxFrequency;
+
+    /**
+     * Creates an empty postings list.
+     */
+    public ArrayPostingsList() {
+        this.docIds = new int[INITIAL_CAPACITY];
+        this.frequencies = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds one occurrence of the word on a website. The IDs have to be added
+     * in increasing order; adding the last ID again only increments its
+     * frequency, so a word occurring multiple times on a website is only stored once.
+     *
+     * @param docId the document ID
+     */
+    public void add(int docId) {
+        // The website is already stored, so this is just another occurrence.
+        if (this.size > 0 && this.docIds[this.size - 1] == docId) {
+            this.frequencies[this.size - 1]++;
+            this.maxFrequency = Math.max(this.maxFrequency, this.frequencies[this.size - 1]);
+            return;
+        }
+
+        add(docId, 1);
+    }
+
+    /**
+     * Adds a document ID with a known frequency to the end of the list.
+     * The IDs have to be added in strictly increasing order.
+     *
+     * @param docId the document ID
+     * @param frequency the number of occurrences on the website
+     */
+    public void add(int docId, int frequency) {
+        if (this.size == this.docIds.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, this.size * 2);
+            this.docIds = Arrays.copyOf(this.docIds, capacity);
+            this.frequencies = Arrays.copyOf(this.frequencies, capacity);
+        }
+
+        this.docIds[this.size] = docId;
+        this.frequencies[this.size] = frequency;
+        this.maxFrequency = Math.max(this.maxFrequency, frequency);
+        this.size++;
+    }
+
+    /**
+     * Appends all postings of another list to the end of this list. The first
+     * ID of the other list has to be greater than the last ID of this list,
+     * like when appending the lists built for consecutive ranges of documents.
+     *
+     * @param other the postings list to append
+     */
+    public void addAll(ArrayPostingsList other) {
+        int size = this.size + other.size;
+        if (size > this.docIds.length) {
+            int capacity = Math.max(size, this.size * 2);
+            this.docIds = Arrays.copyOf(this.docIds, capacity);
+            this.frequencies = Arrays.copyOf(this.frequencies, capacity);
+        }
+
+        System.arraycopy(other.docIds, 0, this.docIds, this.size, other.size);
+        System.arraycopy(other.frequencies, 0, this.frequencies, this.size, other.size);
+        this.maxFrequency = Math.max(this.maxFrequency, other.maxFrequency);
+        this.size = size;
+    }
+
+    /**
+     * Gets the document ID at the given position.
+     *
+     * @param position the position in the list
+     * @return the document ID
+     */
+    @Override
+    public int getDocId(int position) {
+        return this.docIds[position];
+    }
+
+    /**
+     * Gets the term frequency at the given position.
+     *
+     * @param position the position in the list
+     * @return the number of occurrences of the word on the website
+     */
+    @Override
+    public int getFrequency(int position) {
+        return this.frequencies[position];
+    }
+
+    /**
+     * Gets the highest term frequency in the list.
+     *
+     * @return the maximum number of occurrences of the word on a website
+     */
+    @Override
+    public int getMaxFrequency() {
+        return this.maxFrequency;
+    }
+
+    /**
+     * Gets the number of document IDs in the list.
+     *
+     * @return the size of the list
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Shrinks the array to the number of stored IDs. Called when the build is done.
+     */
+    public void trimToSize() {
+        if (this.docIds.length != this.size) {
+            this.docIds = Arrays.copyOf(this.docIds, this.size);
+            this.frequencies = Arrays.copyOf(this.frequencies, this.size);
+        }
+    }
+
+    /**
+     * Gets an iterator over the postings.
+     *
+     * @return the iterator, positioned before the first posting
+     */
+    @Override
+    public PostingsIterator iterator() {
+        return new PostingsIterator() {
+            /**
+             * The current position in the arrays.
+             */
+            private int position = -1;
+
+            @Override
+            public int docId() {
+                if (position < 0) {
+                    return -1;
+                }
+
+                return position < size ? docIds[position] : NO_MORE_DOCS;
+            }
+
+            @Override
+            public int nextDoc() {
+                if (position < size) {
+                    position++;
+                }
+
+                return docId();
+            }
+
+            @Override
+            public int advance(int target) {
+                int low = Math.max(position, 0);
+                if (low >= size || docIds[low] >= target) {
+                    position = low;
+                    return docId();
+                }
+
+                // Galloping search: double the step until we pass the target...
+                int bound = 1;
+                while (low + bound < size && docIds[low + bound] < target) {
+                    bound *= 2;
+                }
+
+                // ...then binary search for the first ID that is at least the target.
+                int high = Math.min(low + bound, size);
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (docIds[middle] < target) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+
+                position = low;
+                return docId();
+            }
+
+            @Override
+            public int frequency() {
+                return frequencies[position];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayPostingsList{" +
+                "docIds=" + Arrays.toString(Arrays.copyOf(docIds, size)) +
+                ", frequencies=" + Arrays.toString(Arrays.copyOf(frequencies, size)) +
+                '}';
+    }
+}
@@ -0,0 +1,198 @@
+package searchengine;
+
+/**
+ * This is the implementation of the BM25F score, which is BM25 over two fields
+ * of a website: its title and its body. The frequency of the word in each field
+ * is normalized by the field's own length, weighted (a word in the title counts
+ * more than a word in the body), and the sum is saturated like in BM25.
+ *
+ * The frequencies in the titles come from the {@link TitleIndex} of the index.
+ * Only the websites matching the query in their body are scored, so a word that
+ * is only in the title raises the score of a website, but doesn't make it match.
+ *
+ * @author CodeUnicorns
+ */
+public class BM25FScore extends BM25Score {
+
+    /**
+     * The default weight of a word in the title, compared to a word in the body.
+     */
+    public static final double DEFAULT_TITLE_WEIGHT = 2.0;
+
+    /**
+     * The weight of a word in the title.
+     */
+    private final double titleWeight;
+
+    /**
+     * The strength of the length normalization of the titles.
+     */
+    private final double titleB;
+
+    /**
+     * The strength of the length normalization of the bodies.
+     */
+    private final double bodyB;
+
+    /**
+     * Creates the BM25F score with the usual parameters.
+     */
+    public BM25FScore() {
+        this(DEFAULT_K1, DEFAULT_TITLE_WEIGHT, DEFAULT_B, DEFAULT_B);
+    }
+
+    /**
+     * Creates the BM25F score.
+     *
+     * @param k1 the saturation of the term frequency, at least 0
+     * @param titleWeight the weight of a word in the title, where a word in the body weighs 1
+     * @param titleB the strength of the length normalization of the titles, from 0 to 1
+     * @param bodyB the strength of the length normalization of the bodies, from 0 to 1
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public BM25FScore(double k1, double titleWeight, double titleB, double bodyB) {
+        super(k1, bodyB);
+        if (titleWeight < 0 || titleB < 0 || titleB > 1) {
+            throw new IllegalArgumentException("Invalid BM25F parameters: titleWeight=" + titleWeight + ", titleB=" + titleB);
+        }
+        this.titleWeight = titleWeight;
+        this.titleB = titleB;
+        this.bodyB = bodyB;
+    }
+
+    /**
+     * Calculates the BM25F score of a word on a website, scanning the title and
+     * the words of the website.
+     *
+     * @param word the word we are calculated the score for
+     * @param website the website we are calculated the score for
+     * @param index the index used for lookups
+     * @return the score of the word on the website
+     */
+    @Override
+    public double getScore(String word, Website website, Index index) {
+        int titleFrequency = 0;
+        int titleLength = 0;
+        for (String titleWord: TitleIndex.split(website.getTitle())) {
+            if (titleWord.equals(word)) {
+                titleFrequency++;
+            }
+            titleLength++;
+        }
+
+        return score(idf(word, index), index,
+                tf(word, website), LengthNorms.encode(website.getTermIds().length),
+                titleFrequency, LengthNorms.encode(titleLength));
+    }
+
+    /**
+     * Creates a scorer for a word. The idf of the word and the normalized weight
+     * of every norm of both fields are computed once. The postings of the word
+     * in the titles are stepped through along with the websites being scored.
+     *
+     * @param word the word we are calculating the scores for
+     * @param documentFrequency the number of websites the word occurs on
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, int documentFrequency, Index index) {
+        final double idf = idf(documentFrequency, index) * (this.k1 + 1);
+        final double k1 = this.k1;
+        final LengthNorms bodyNorms = index.getLengthNorms();
+        final double[] bodyWeights = getFieldWeights(bodyNorms, 1, this.bodyB);
+        TitleIndex titleIndex = index.getTitleIndex();
+        final LengthNorms titleNorms = titleIndex.getNorms();
+        final double[] titleWeights = getFieldWeights(titleNorms, this.titleWeight, this.titleB);
+        final PostingsList titlePostings = titleIndex.getPostings(word);
+        return new TermScorer() {
+            /**
+             * The postings of the word in the titles, at or after the last scored website.
+             */
+            private PostingsIterator titles = titlePostings.iterator();
+
+            /**
+             * The last scored website.
+             */
+            private int lastDocId = -1;
+
+            @Override
+            public double score(int docId, int frequency) {
+                double x = frequency * bodyWeights[bodyNorms.getNorm(docId)];
+                x += getTitleFrequency(docId) * titleWeights[titleNorms.getNorm(docId)];
+                return idf * x / (k1 + x);
+            }
+
+            @Override
+            public void addScores(int[] docIds, int[] frequencies, int count, double[] scores) {
+                for (int i = 0; i < count; i++) {
+                    double x = frequencies[i] * bodyWeights[bodyNorms.getNorm(docIds[i])];
+                    x += getTitleFrequency(docIds[i]) * titleWeights[titleNorms.getNorm(docIds[i])];
+                    scores[i] += idf * x / (k1 + x);
+                }
+            }
+
+            @Override
+            public double getMaxScore(int maxFrequency) {
+                // The shortest body and the shortest title have the highest weights.
+                double x = maxFrequency * bodyWeights[bodyNorms.getMinNorm()]
+                        + titlePostings.getMaxFrequency() * titleWeights[titleNorms.getMinNorm()];
+                return idf * x / (k1 + x);
+            }
+
+            /**
+             * Gets the frequency of the word in the title of a website. The websites
+             * are usually scored in increasing order, so the title postings only
+             * have to be restarted if a website comes before the last one.
+             *
+             * @param docId the document ID of the website
+             * @return the number of times the word occurs in the title
+             */
+            private int getTitleFrequency(int docId) {
+                if (docId < this.lastDocId) {
+                    this.titles = titlePostings.iterator();
+                }
+                this.lastDocId = docId;
+                return this.titles.advance(docId) == docId ? this.titles.frequency() : 0;
+            }
+        };
+    }
+
+    /**
+     * Calculates the BM25F score from its parts.
+     *
+     * @param idf the idf of the word
+     * @param index the index used for lookups
+     * @param frequency the word count in the body
+     * @param bodyNorm the norm of the body's length
+     * @param titleFrequency the word count in the title
+     * @param titleNorm the norm of the title's length
+     * @return the score
+     */
+    private double score(double idf, Index index, double frequency, int bodyNorm, int titleFrequency, int titleNorm) {
+        if (frequency == 0 && titleFrequency == 0) {
+            return 0;
+        }
+        double x = frequency * getFieldWeights(index.getLengthNorms(), 1, this.bodyB)[bodyNorm]
+                + titleFrequency * getFieldWeights(index.getTitleIndex().getNorms(), this.titleWeight, this.titleB)[titleNorm];
+        return idf * (this.k1 + 1) * x / (this.k1 + x);
+    }
+
+    /**
+     * Calculates the weight of a word in a field for every norm: the weight of
+     * the field, divided by its length normalization.
+     *
+     * @param norms the lengths of the field
+     * @param weight the weight of the field
+     * @param b the strength of the length normalization of the field
+     * @return the weight, by norm
+     */
+    private static double[] getFieldWeights(LengthNorms norms, double weight, double b) {
+        double[] result = getLengthFactors(norms, b, 1);
+        for (int norm = 0; norm < result.length; norm++) {
+            // With full normalization, an empty field has no words to weigh.
+            result[norm] = result[norm] == 0 ? 0 : weight / result[norm];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,189 @@
+package searchengine;
+
+/**
+ * This is the implementation of the Okapi BM25 score. Like TFIDF, it multiplies
+ * a term frequency part with idf, but the term frequency saturates: a word
+ * occurring ten times scores less than ten times a word occurring once. It also
+ * prefers short websites, by comparing their length with the average length,
+ * as stored in the {@link LengthNorms} of the index.
+ *
+ * The length part only depends on the norm of a website, which is a byte, so
+ * it is computed once per query word for all 256 norms. Scoring a website then
+ * takes reading its norm and the precomputed value.
+ *
+ * @author CodeUnicorns
+ */
+public class BM25Score extends TFScore {
+
+    /**
+     * The default saturation of the term frequency.
+     */
+    public static final double DEFAULT_K1 = 1.2;
+
+    /**
+     * The default strength of the length normalization.
+     */
+    public static final double DEFAULT_B = 0.75;
+
+    /**
+     * The saturation of the term frequency: the higher, the more a repeated word counts.
+     */
+    protected final double k1;
+
+    /**
+     * The strength of the length normalization, from 0 (none) to 1 (full).
+     */
+    private final double b;
+
+    /**
+     * Creates the BM25 score with the usual parameters.
+     */
+    public BM25Score() {
+        this(DEFAULT_K1, DEFAULT_B);
+    }
+
+    /**
+     * Creates the BM25 score.
+     *
+     * @param k1 the saturation of the term frequency, at least 0
+     * @param b the strength of the length normalization, from 0 to 1
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public BM25Score(double k1, double b) {
+        if (k1 < 0 || b < 0 || b > 1) {
+            throw new IllegalArgumentException("Invalid BM25 parameters: k1=" + k1 + ", b=" + b);
+        }
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Calculates the BM25 score of a word on a website, scanning the website
+     * for the word count and its length.
+     *
+     * @param word the word we are calculated the score for
+     * @param website the website we are calculated the score for
+     * @param index the index used for lookups
+     * @return the score of the word on the website
+     */
+    @Override
+    public double getScore(String word, Website website, Index index) {
+        double frequency = tf(word, website);
+        // The website's length is rounded like the stored norms, so both scores agree.
+        int norm = LengthNorms.encode(website.getTermIds().length);
+        return score(frequency, norm, index.getLengthNorms(), idf(word, index));
+    }
+
+    /**
+     * Creates a scorer for a word, looking up its document frequency.
+     *
+     * @param word the word we are calculating the scores for
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, Index index) {
+        return getTermScorer(word, index.getDocumentFrequency(word), index);
+    }
+
+    /**
+     * Creates a scorer for a word. The idf of the word and the length part of
+     * every norm are computed once, so scoring a website only takes two array
+     * reads and a few multiplications.
+     *
+     * @param word the word we are calculating the scores for
+     * @param documentFrequency the number of websites the word occurs on
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, int documentFrequency, Index index) {
+        final double idf = idf(documentFrequency, index) * (this.k1 + 1);
+        final LengthNorms norms = index.getLengthNorms();
+        final double[] lengthParts = getLengthFactors(norms, this.b, this.k1);
+        return new TermScorer() {
+            @Override
+            public double score(int docId, int frequency) {
+                return idf * frequency / (frequency + lengthParts[norms.getNorm(docId)]);
+            }
+
+            @Override
+            public void addScores(int[] docIds, int[] frequencies, int count, double[] scores) {
+                for (int i = 0; i < count; i++) {
+                    scores[i] += idf * frequencies[i] / (frequencies[i] + lengthParts[norms.getNorm(docIds[i])]);
+                }
+            }
+
+            @Override
+            public double getMaxScore(int maxFrequency) {
+                // The shortest website has the smallest length part.
+                return idf * maxFrequency / (maxFrequency + lengthParts[norms.getMinNorm()]);
+            }
+        };
+    }
+
+    /**
+     * Calculates the BM25 score from its parts.
+     *
+     * @param frequency the word count
+     * @param norm the norm of the website's length
+     * @param norms the lengths of all websites
+     * @param idf the idf of the word
+     * @return the score
+     */
+    private double score(double frequency, int norm, LengthNorms norms, double idf) {
+        if (frequency == 0) {
+            return 0;
+        }
+        double lengthPart = getLengthFactors(norms, this.b, this.k1)[norm];
+        return idf * (this.k1 + 1) * frequency / (frequency + lengthPart);
+    }
+
+    /**
+     * Calculates the length normalization of every norm: 1 - b + b * length / average
+     * length, multiplied with a factor.
+     *
+     * @param norms the lengths of the websites
+     * @param b the strength of the length normalization
+     * @param factor the factor
+     * @return the normalization, by norm
+     */
+    protected static double[] getLengthFactors(LengthNorms norms, double b, double factor) {
+        double[] result = new double[256];
+        double averageLength = norms.getAverageLength();
+        for (int norm = 0; norm < result.length; norm++) {
+            // If all websites are empty, no length is longer than average.
+            double relativeLength = averageLength == 0 ? 1 : LengthNorms.decode(norm) / averageLength;
+            result[norm] = factor * (1 - b + b * relativeLength);
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the BM25 idf: the natural logarithm of 1 plus the number of
+     * websites without the word divided by the number of websites with the word,
+     * smoothed by a half. Unlike the idf of TFIDF, it is never 0 or negative.
+     *
+     * @param word the word
+     * @param index the index used for lookups
+     * @return idf, or 0 if the word is on no website
+     */
+    protected double idf(String word, Index index) {
+        return idf(index.getDocumentFrequency(word), index);
+    }
+
+    /**
+     * Calculates the BM25 idf from the number of websites with the word.
+     *
+     * @param n the number of websites the word occurs on
+     * @param index the index used for lookups
+     * @return idf, or 0 if the word is on no website
+     */
+    protected double idf(int n, Index index) {
+        int d = index.getDatabaseSize();
+        if (n == 0) {
+            return 0;
+        }
+        return Math.log(1 + (d - n + 0.5) / (n + 0.5));
+    }
+}
@@ -0,0 +1,417 @@
+package searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compressed postings list. The postings are split into blocks of
+ * {@link #BLOCK_SIZE} documents; each block stores the gaps between its
+ * document IDs and its frequencies, encoded with a {@link PostingsCodec}.
+ * The last document ID and the byte offset of every block are kept
+ * uncompressed as skip pointers, so skipping ahead only decodes the
+ * block that may contain the target. The encoded blocks are kept in a
+ * {@link ByteBuffer}, so a list can also be read straight from an
+ * index segment file.
+ *
+ * @author CodeUnicorns
+ */
+public class BlockPostingsList extends PostingsList {
+
+    /**
+     * The number of postings in a block.
+     */
+    public static final int BLOCK_SIZE = 128;
+
+    /**
+     * The codec used for the last, partial block. Small blocks compress
+     * better byte by byte than with a block codec.
+     */
+    private static final PostingsCodec TAIL_CODEC = new VByteCodec();
+
+    /**
+     * The codec used for full blocks.
+     */
+    private PostingsCodec codec;
+
+    /**
+     * The encoded blocks.
+     */
+    private ByteBuffer data;
+
+    /**
+     * The last document ID of each block.
+     */
+    private int[] blockLastDocIds;
+
+    /**
+     * The position in the data where each block starts.
+     */
+    private int[] blockOffsets;
+
+    /**
+     * The number of postings in the list.
+     */
+    private int size;
+
+    /**
+     * The highest term frequency in the list.
+     */
+    private int maxFrequency;
+
+    /**
+     * Compresses a postings list.
+     *
+     * @param postings the postings list to compress
+     * @param codec the codec used for full blocks
+     */
+    public BlockPostingsList(PostingsList postings, PostingsCodec codec) {
+        this.codec = codec;
+        this.size = postings.size();
+        this.maxFrequency = postings.getMaxFrequency();
+
+        int blockCount = (this.size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.blockLastDocIds = new int[blockCount];
+        this.blockOffsets = new int[blockCount];
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] gaps = new int[BLOCK_SIZE];
+        int[] frequencies = new int[BLOCK_SIZE];
+        PostingsIterator iterator = postings.iterator();
+        int previousDocId = 0;
+        for (int block = 0; block < blockCount; block++) {
+            int count = getBlockLength(block);
+            for (int i = 0; i < count; i++) {
+                int docId = iterator.nextDoc();
+                gaps[i] = docId - previousDocId;
+                frequencies[i] = iterator.frequency();
+                previousDocId = docId;
+            }
+
+            this.blockLastDocIds[block] = previousDocId;
+            this.blockOffsets[block] = out.size();
+            PostingsCodec blockCodec = getCodec(count);
+            blockCodec.encode(gaps, count, out);
+            blockCodec.encode(frequencies, count, out);
+        }
+
+        this.data = ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Creates a postings list from already encoded blocks.
+     *
+     * @param codec the codec used for full blocks
+     * @param data the encoded blocks
+     * @param blockLastDocIds the last document ID of each block
+     * @param blockOffsets the position in the data where each block starts
+     * @param size the number of postings
+     * @param maxFrequency the highest term frequency
+     */
+    private BlockPostingsList(PostingsCodec codec, ByteBuffer data, int[] blockLastDocIds, int[] blockOffsets, int size, int maxFrequency) {
+        this.codec = codec;
+        this.data = data;
+        this.blockLastDocIds = blockLastDocIds;
+        this.blockOffsets = blockOffsets;
+        this.size = size;
+        this.maxFrequency = maxFrequency;
+    }
+
+    /**
+     * Reads the number of websites of a postings list written by
+     * {@link #write(DataOutput)}, which is the first number of its header.
+     *
+     * @param buffer the buffer, for example a memory-mapped index segment
+     * @param position the position where the list starts
+     * @return the size of the list
+     */
+    public static int readSize(ByteBuffer buffer, int position) {
+        int[] size = new int[1];
+        TAIL_CODEC.decode(buffer, position, size, 1);
+        return size[0];
+    }
+
+    /**
+     * Reads a postings list written by {@link #write(DataOutput)}. The encoded
+     * blocks are not copied, the list reads them from the buffer.
+     *
+     * @param buffer the buffer, for example a memory-mapped index segment
+     * @param position the position where the list starts
+     * @param codec the codec the full blocks were encoded with
+     * @return the postings list
+     */
+    public static BlockPostingsList read(ByteBuffer buffer, int position, PostingsCodec codec) {
+        // Most lists are tiny, so the header is variable-byte encoded.
+        int[] header = new int[3];
+        position = TAIL_CODEC.decode(buffer, position, header, header.length);
+        int size = header[0];
+        int maxFrequency = header[1];
+        int dataLength = header[2];
+        int blockCount = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        int[] blockLastDocIds = new int[blockCount];
+        int[] blockOffsets = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            blockLastDocIds[block] = buffer.getInt(position);
+            blockOffsets[block] = buffer.getInt(position + 4);
+            position += 8;
+        }
+
+        // A view of the encoded blocks, sharing the buffer's content.
+        ByteBuffer data = buffer.duplicate();
+        data.position(position);
+        data.limit(position + dataLength);
+
+        return new BlockPostingsList(codec, data.slice(), blockLastDocIds, blockOffsets, size, maxFrequency);
+    }
+
+    /**
+     * Writes the postings list, so it can be read again with
+     * {@link #read(ByteBuffer, int, PostingsCodec)}.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        TAIL_CODEC.encode(new int[] {this.size, this.maxFrequency, this.data.limit()}, 3, header);
+        out.write(header.toByteArray());
+        for (int block = 0; block < this.blockLastDocIds.length; block++) {
+            out.writeInt(this.blockLastDocIds[block]);
+            out.writeInt(this.blockOffsets[block]);
+        }
+        byte[] bytes = new byte[this.data.limit()];
+        ByteBuffer copy = this.data.duplicate();
+        copy.position(0);
+        copy.get(bytes);
+        out.write(bytes);
+    }
+
+    /**
+     * Gets the document ID at the given position. This decodes the whole block.
+     *
+     * @param position the position in the list
+     * @return the document ID
+     */
+    @Override
+    public int getDocId(int position) {
+        int[] docIds = new int[BLOCK_SIZE];
+        decodeBlock(position / BLOCK_SIZE, docIds, new int[BLOCK_SIZE]);
+        return docIds[position % BLOCK_SIZE];
+    }
+
+    /**
+     * Gets the term frequency at the given position. This decodes the whole block.
+     *
+     * @param position the position in the list
+     * @return the number of occurrences of the word on the website
+     */
+    @Override
+    public int getFrequency(int position) {
+        int[] frequencies = new int[BLOCK_SIZE];
+        decodeBlock(position / BLOCK_SIZE, new int[BLOCK_SIZE], frequencies);
+        return frequencies[position % BLOCK_SIZE];
+    }
+
+    /**
+     * Gets the highest term frequency in the list.
+     *
+     * @return the maximum number of occurrences of the word on a website
+     */
+    @Override
+    public int getMaxFrequency() {
+        return this.maxFrequency;
+    }
+
+    /**
+     * Gets the number of document IDs in the list.
+     *
+     * @return the size of the list
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of bytes used by the encoded postings and the skip pointers.
+     *
+     * @return the size of the compressed list in bytes
+     */
+    public long getSizeInBytes() {
+        return this.data.limit() + 8L * this.blockLastDocIds.length;
+    }
+
+    /**
+     * Gets an iterator over the postings. The iterator decodes one block at a
+     * time, and uses the skip pointers to jump over blocks when skipping ahead.
+     *
+     * @return the iterator, positioned before the first posting
+     */
+    @Override
+    public PostingsIterator iterator() {
+        return new PostingsIterator() {
+            /**
+             * The decoded document IDs of the current block.
+             */
+            private int[] docIds = new int[BLOCK_SIZE];
+
+            /**
+             * The decoded frequencies of the current block.
+             */
+            private int[] frequencies = new int[BLOCK_SIZE];
+
+            /**
+             * The current block, -1 before the first one is decoded.
+             */
+            private int block = -1;
+
+            /**
+             * The number of postings in the current block.
+             */
+            private int blockLength = 0;
+
+            /**
+             * The position in the current block.
+             */
+            private int position = -1;
+
+            /**
+             * The current document ID.
+             */
+            private int docId = -1;
+
+            @Override
+            public int docId() {
+                return docId;
+            }
+
+            @Override
+            public int nextDoc() {
+                if (docId == NO_MORE_DOCS) {
+                    return docId;
+                }
+
+                position++;
+                if (position >= blockLength && ! loadBlock(block + 1)) {
+                    return docId = NO_MORE_DOCS;
+                }
+
+                return docId = docIds[position];
+            }
+
+            @Override
+            public int advance(int target) {
+                if (docId >= target) {
+                    return docId;
+                }
+
+                if (block < 0 || blockLastDocIds[block] < target) {
+                    // Use the skip pointers to find the first block that may contain the target.
+                    int low = block + 1;
+                    int high = blockLastDocIds.length;
+                    while (low < high) {
+                        int middle = (low + high) >>> 1;
+                        if (blockLastDocIds[middle] < target) {
+                            low = middle + 1;
+                        } else {
+                            high = middle;
+                        }
+                    }
+
+                    if (! loadBlock(low)) {
+                        return docId = NO_MORE_DOCS;
+                    }
+                }
+
+                // The target is in this block, as its last ID is at least the target.
+                if (position < 0) {
+                    position = 0;
+                }
+                while (docIds[position] < target) {
+                    position++;
+                }
+
+                return docId = docIds[position];
+            }
+
+            @Override
+            public int frequency() {
+                return frequencies[position];
+            }
+
+            /**
+             * Decodes a block.
+             *
+             * @param newBlock the block
+             * @return false if there is no such block
+             */
+            private boolean loadBlock(int newBlock) {
+                if (newBlock >= blockLastDocIds.length) {
+                    block = blockLastDocIds.length;
+                    return false;
+                }
+
+                block = newBlock;
+                blockLength = decodeBlock(block, docIds, frequencies);
+                position = 0;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Decodes a block.
+     *
+     * @param block the block
+     * @param docIds the array the document IDs are written to
+     * @param frequencies the array the frequencies are written to
+     * @return the number of postings in the block
+     */
+    private int decodeBlock(int block, int[] docIds, int[] frequencies) {
+        int count = getBlockLength(block);
+        PostingsCodec blockCodec = getCodec(count);
+        int offset = blockCodec.decode(this.data, this.blockOffsets[block], docIds, count);
+        blockCodec.decode(this.data, offset, frequencies, count);
+
+        // The gaps are relative to the last document ID of the previous block.
+        int docId = block == 0 ? 0 : this.blockLastDocIds[block - 1];
+        for (int i = 0; i < count; i++) {
+            docId += docIds[i];
+            docIds[i] = docId;
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the number of postings in a block. Only the last block may be partial.
+     *
+     * @param block the block
+     * @return the number of postings in the block
+     */
+    private int getBlockLength(int block) {
+        return Math.min(BLOCK_SIZE, this.size - block * BLOCK_SIZE);
+    }
+
+    /**
+     * Gets the codec used for a block.
+     *
+     * @param count the number of postings in the block
+     * @return the codec
+     */
+    private PostingsCodec getCodec(int count) {
+        return count == BLOCK_SIZE ? this.codec : TAIL_CODEC;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockPostingsList{" +
+                "codec=" + codec +
+                ", size=" + size +
+                ", blocks=" + blockLastDocIds.length +
+                ", bytes=" + data.limit() +
+                '}';
+    }
+}
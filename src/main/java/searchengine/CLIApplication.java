@@ -26,11 +26,7 @@ public class CLIApplication {
     public static void main(String[] args) {
         System.out.println("Welcome to the SearchEngine!");
 
-        System.out.println("Reading database...");
-        List<Website> sites = FileHelper.parseFile(args);
-
-        System.out.println("Building the search engine...");
-        searchengine = new SearchEngine(sites);
+        searchengine = FileHelper.loadSearchEngine(args);
 
         System.out.println("Search engine is ready to receive queries.");
         System.out.println("Starting command-line interface:");
@@ -46,8 +42,12 @@ public class CLIApplication {
                 break;
             }
             System.out.println();
-            List<ScoredWebsite> scoredWebsites = searchengine.search(query);
+            SearchResult result = searchengine.search(query, Integer.MAX_VALUE, 0);
+            List<ScoredWebsite> scoredWebsites = result.getWebsites();
             System.out.println("Found " + scoredWebsites.size() + " websites matching the query.");
+            if (! result.isPhraseMatchExact()) {
+                System.out.println("The index has no word positions, so phrases and NEARs only required their words.");
+            }
             for (ScoredWebsite w: scoredWebsites) {
                 System.out.println(w.getTitle() + " -- score: " + w.getScore() + "\n");
             }
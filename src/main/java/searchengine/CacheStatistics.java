@@ -0,0 +1,135 @@
+package searchengine;
+
+/**
+ * A snapshot of the statistics of a {@link WeightedCache}.
+ *
+ * @author CodeUnicorns
+ */
+public class CacheStatistics {
+
+    /**
+     * The number of lookups that found an entry.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups that found no entry.
+     */
+    private final long missCount;
+
+    /**
+     * The number of entries removed to make room for new ones.
+     */
+    private final long evictionCount;
+
+    /**
+     * The number of new entries that were not admitted, because they were seen
+     * less often than the entry they would have replaced, or were too heavy.
+     */
+    private final long rejectionCount;
+
+    /**
+     * The number of entries.
+     */
+    private final int size;
+
+    /**
+     * The total weight of the entries.
+     */
+    private final long weight;
+
+    /**
+     * Creates a snapshot of the statistics.
+     *
+     * @param hitCount the number of hits
+     * @param missCount the number of misses
+     * @param evictionCount the number of evictions
+     * @param rejectionCount the number of rejected entries
+     * @param size the number of entries
+     * @param weight the total weight of the entries
+     */
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, long rejectionCount, int size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.rejectionCount = rejectionCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the number of lookups that found an entry.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that found no entry.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Gets the share of lookups that found an entry.
+     *
+     * @return the hit rate between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = this.hitCount + this.missCount;
+        return lookups == 0 ? 0 : (double) this.hitCount / lookups;
+    }
+
+    /**
+     * Gets the number of entries removed to make room for new ones.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Gets the number of new entries that were not admitted.
+     *
+     * @return the number of rejected entries
+     */
+    public long getRejectionCount() {
+        return this.rejectionCount;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the size of the cache
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets the total weight of the entries.
+     *
+     * @return the weight of the cache
+     */
+    public long getWeight() {
+        return this.weight;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", rejections=" + rejectionCount +
+                ", size=" + size +
+                ", weight=" + weight +
+                '}';
+    }
+}
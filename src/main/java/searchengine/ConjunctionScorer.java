@@ -0,0 +1,199 @@
+package searchengine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Iterates over the websites containing all words of a subquery, and scores
+ * them by the sum of the words' scores. The postings lists are intersected
+ * starting from the rarest word: each of its documents is looked up in the
+ * other lists by skipping ahead, and a miss lets the rarest list skip ahead in turn.
+ *
+ * @author CodeUnicorns
+ */
+public class ConjunctionScorer {
+
+    /**
+     * The iterators over the postings lists, the rarest word first.
+     */
+    private PostingsIterator[] iterators;
+
+    /**
+     * The scorers of the words, parallel to the iterators.
+     */
+    private TermScorer[] scorers;
+
+    /**
+     * The upper bound for the score of any website matching the subquery.
+     */
+    private double maxScore;
+
+    /**
+     * The current document ID.
+     */
+    private int docId;
+
+    /**
+     * The filter of the websites containing all words, or null if there is none.
+     */
+    private DocumentFilter filter;
+
+    /**
+     * The frequencies of each word on the websites of the current block,
+     * parallel to the iterators, or null before the first block.
+     */
+    private int[][] blockFrequencies;
+
+    /**
+     * Creates a scorer for a subquery.
+     *
+     * @param postings the postings lists of the words
+     * @param scorers the scorers of the words, parallel to the postings lists
+     */
+    public ConjunctionScorer(final PostingsList[] postings, TermScorer[] scorers) {
+        // Sort the words by the size of their postings lists, so the rarest word leads.
+        Integer[] order = new Integer[postings.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Integer.compare(postings[o1].size(), postings[o2].size());
+            }
+        });
+
+        this.iterators = new PostingsIterator[postings.length];
+        this.scorers = new TermScorer[postings.length];
+        this.maxScore = 0;
+        for (int i = 0; i < order.length; i++) {
+            this.iterators[i] = postings[order[i]].iterator();
+            this.scorers[i] = scorers[order[i]];
+            this.maxScore += this.scorers[i].getMaxScore(postings[order[i]].getMaxFrequency());
+        }
+        this.docId = -1;
+    }
+
+    /**
+     * Sets a filter the websites containing all words have to pass, for
+     * example to check the positions of the words of a phrase. The filter is
+     * only asked about websites containing all words.
+     *
+     * @param filter the filter, or null for none
+     */
+    public void setFilter(DocumentFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Gets the current document ID.
+     *
+     * @return the current document ID, -1 before the first call to
+     * {@link #nextDoc()}, or {@link PostingsIterator#NO_MORE_DOCS}
+     */
+    public int docId() {
+        return this.docId;
+    }
+
+    /**
+     * Moves to the next website containing all words.
+     *
+     * @return the new document ID, or {@link PostingsIterator#NO_MORE_DOCS}
+     */
+    public int nextDoc() {
+        if (this.iterators.length == 0) {
+            return this.docId = PostingsIterator.NO_MORE_DOCS;
+        }
+
+        return this.docId = findMatch(this.iterators[0].nextDoc());
+    }
+
+    /**
+     * Moves through the next block of websites containing all words, and
+     * scores them. The matches are collected first, then each word scores
+     * the whole block in one call, instead of once per website.
+     *
+     * @param docIds the array the document IDs of the websites are put in
+     * @param scores the array the scores of the websites are put in, as long as the document IDs
+     * @return the number of websites in the block, less than the length of
+     * the arrays only if there are no more websites, and 0 if there are none
+     */
+    public int nextBlock(int[] docIds, double[] scores) {
+        if (this.blockFrequencies == null
+                || this.blockFrequencies.length > 0 && this.blockFrequencies[0].length < docIds.length) {
+            this.blockFrequencies = new int[this.iterators.length][docIds.length];
+        }
+
+        int count = 0;
+        while (count < docIds.length && nextDoc() != PostingsIterator.NO_MORE_DOCS) {
+            docIds[count] = this.docId;
+            for (int i = 0; i < this.iterators.length; i++) {
+                this.blockFrequencies[i][count] = this.iterators[i].frequency();
+            }
+            count++;
+        }
+
+        Arrays.fill(scores, 0, count, 0);
+        for (int i = 0; i < this.iterators.length; i++) {
+            this.scorers[i].addScores(docIds, this.blockFrequencies[i], count, scores);
+        }
+
+        return count;
+    }
+
+    /**
+     * Calculates the score of the current website.
+     *
+     * @return the sum of the words' scores
+     */
+    public double score() {
+        double totalScore = 0;
+        for (int i = 0; i < this.iterators.length; i++) {
+            totalScore += this.scorers[i].score(this.docId, this.iterators[i].frequency());
+        }
+
+        return totalScore;
+    }
+
+    /**
+     * Gets an upper bound for the score of any website matching the subquery.
+     *
+     * @return the sum of the words' highest possible scores
+     */
+    public double getMaxScore() {
+        return this.maxScore;
+    }
+
+    /**
+     * Finds the first website containing all words that passes the filter,
+     * starting from a candidate of the rarest word.
+     *
+     * @param docId the candidate document ID
+     * @return the document ID of the match, or {@link PostingsIterator#NO_MORE_DOCS}
+     */
+    private int findMatch(int docId) {
+        PostingsIterator lead = this.iterators[0];
+        while (docId != PostingsIterator.NO_MORE_DOCS) {
+            int nextDocId = docId;
+            for (int i = 1; i < this.iterators.length; i++) {
+                nextDocId = this.iterators[i].advance(docId);
+                if (nextDocId != docId) {
+                    break;
+                }
+            }
+
+            if (nextDocId == docId) {
+                // All words occur on the website.
+                if (this.filter == null || this.filter.accept(docId)) {
+                    return docId;
+                }
+                docId = lead.nextDoc();
+            } else {
+                // The document is missing from another list, skip to where that list continues.
+                docId = lead.advance(nextDocId);
+            }
+        }
+
+        return docId;
+    }
+}
@@ -0,0 +1,19 @@
+package searchengine;
+
+/**
+ * Decides whether a website matching the words of a subquery really matches
+ * it, for conditions the postings lists can't check, like the positions of
+ * the words in a phrase.
+ *
+ * @author CodeUnicorns
+ */
+public interface DocumentFilter {
+
+    /**
+     * Checks whether a website matches.
+     *
+     * @param docId the document ID of the website, which contains all words
+     * @return true if the website matches
+     */
+    boolean accept(int docId);
+}
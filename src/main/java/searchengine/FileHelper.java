@@ -1,11 +1,9 @@
 package searchengine;
 
 // For reading database file.
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 // For reading configuration file.
 import java.io.InputStream;
@@ -32,6 +30,9 @@ public class FileHelper {
      * website in natural language.  This line is followed by a list
      * of words that occur on the page.
      *
+     * The whole file ends up in the returned list. To index a large file,
+     * read it with a {@link WebsiteReader} instead.
+     *
      * @param filename The filename of the file that we want to
      * load. Needs to include the directory path as well.
      * @return The list of websites that contain all websites that
@@ -41,63 +42,13 @@ public class FileHelper {
         // Will contain all the websites that we have found in the file.
         List<Website> sites = new ArrayList<>();
 
-        // We use these variables to store the url, title, and the
-        // words that we find for a website in the file.
-        String url = null, title = null;
-        List<String> listOfWords = null;
-
-        // foundFirstPage is true as soon as we found the first "*PAGE:" line
-        // and is used to skip any erroneous lines at the beginning of the file.
-        boolean foundFirstPage = false;
-        // Idea: isNextLineTitle distinguishes if the line is the title or if the line is a word
-        // set it to true after reading a line starting with *PAGE:, set it to false in the next line.
-        boolean isNextLineTitle = false;
-
-        try {
-            // Load the file, will throw a FileNotFoundException if the
-            // filename doesn't point to an existing file.
-            Scanner sc = new Scanner(new File(filename), "UTF-8");
-            // As long as we are not done with reading the file.
-            while (sc.hasNext()) {
-                // Get the next line from the file.
-                String line = sc.nextLine();
-
-                // Check status and the content of the line to figure out if this line is
-                // the url, the title, or a word.
-                if (line.startsWith("*PAGE:")) {
-                    // New website entry starts, so create previous website from data gathered
-                    // (if data is correct)
-                    if (url != null && title != null && listOfWords != null) {
-                        sites.add(new Website(url, title, listOfWords));
-                    }
-
-                    // Clear all variables to start new website entry.
-                    // 6 is length of "*PAGE:"; get rest of line to capture url.
-                    url = line.substring(6);
-                    // The title and the list of words should be null.
-                    title = null;
-                    listOfWords = null;
-
-                    foundFirstPage = true;
-                    isNextLineTitle = true;
-                } else if (foundFirstPage && isNextLineTitle) {
-                    // This is the title of the website.
-                    title = line;
-                    // The subsequent lines are the words of the website.
-                    isNextLineTitle = false;
-                } else if (foundFirstPage) {
-                    // If this is the first word on the website, we have to initialize listOfWords.
-                    if (listOfWords == null) {
-                        listOfWords = new ArrayList<>();
-                    }
-                    listOfWords.add(line);
-                }
+        // The reader skips any erroneous lines at the beginning of the file,
+        // and websites without a title or without words.
+        try (WebsiteReader reader = new WebsiteReader(filename)) {
+            while (reader.hasNext()) {
+                sites.add(reader.next());
             }
-            // When we have read the whole file, we have to create the very last website manually.
-            if (url != null && title != null && listOfWords != null) {
-                sites.add(new Website(url, title, listOfWords));
-            }
-        } catch (FileNotFoundException e) {
+        } catch (IOException | UncheckedIOException e) {
             System.out.println("error while reading file: " + e.getMessage());
         }
 
@@ -135,6 +86,46 @@ public class FileHelper {
      * were found in the file.
      */
     public static List<Website> parseFile(String[] args) {
+        return parseFile(getDatabasePath(args));
+    }
+
+    /**
+     * Creates the search engine of the applications from the database file,
+     * given as the first argument or in {@code config.properties}. An index
+     * segment was indexed before, so it is only mapped into memory; any
+     * other file is read and indexed. Exits if the file can't be read.
+     *
+     * @param args The arguments receied by the entry point.
+     * @return The search engine.
+     */
+    public static SearchEngine loadSearchEngine(String[] args) {
+        String database = getDatabasePath(args);
+        try {
+            if (SegmentIndex.isSegment(database)) {
+                System.out.println("Opening index segment...");
+                return new SearchEngine(SegmentIndex.open(database));
+            }
+
+            // The websites are indexed while the file is read.
+            System.out.println("Reading database and building the search engine...");
+            try (WebsiteReader reader = new WebsiteReader(database)) {
+                return new SearchEngine(reader);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("error while reading file: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the path of the database file, either from the first argument
+     * or from {@code config.properties}. Exits if neither is given.
+     *
+     * @param args The arguments receied by the entry point.
+     * @return The path of the database file.
+     */
+    public static String getDatabasePath(String[] args) {
         String database;
 
         if (args.length < 1) {
@@ -150,6 +141,6 @@ public class FileHelper {
             System.out.println("Path \"" + database + "\" as program argument.");
         }
 
-        return parseFile(database);
+        return database;
     }
 }
@@ -0,0 +1,119 @@
+package searchengine;
+
+/**
+ * Estimates how often keys were seen recently, in a fixed amount of memory:
+ * a count-min sketch with four rows of small counters. Every key increments a
+ * counter in each row, and its estimate is the smallest of its counters, which
+ * may be too high because of collisions but is never too low. The counters are
+ * halved regularly, so old popularity fades away.
+ *
+ * It is the admission filter of {@link WeightedCache}, as in TinyLFU: a new
+ * entry only replaces the least recently used one if it is seen more often.
+ *
+ * @author CodeUnicorns
+ */
+public class FrequencySketch {
+
+    /**
+     * The highest value of a counter.
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * The number of rows.
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * The counters of all rows.
+     */
+    private byte[] counters;
+
+    /**
+     * The number of counters per row minus one; the width is a power of two.
+     */
+    private int mask;
+
+    /**
+     * The number of increments after which all counters are halved.
+     */
+    private int sampleSize;
+
+    /**
+     * The number of increments since the last halving.
+     */
+    private int increments;
+
+    /**
+     * Creates a sketch for a cache of the given number of entries.
+     *
+     * @param maxEntries the maximum number of entries of the cache
+     */
+    public FrequencySketch(int maxEntries) {
+        int width = Integer.highestOneBit(Math.max(16, maxEntries - 1)) * 2;
+        this.counters = new byte[DEPTH * width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * Math.max(16, maxEntries);
+    }
+
+    /**
+     * Records that a key was seen.
+     *
+     * @param key the key
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            int counter = index(hash, row);
+            if (this.counters[counter] < MAX_COUNT) {
+                this.counters[counter]++;
+            }
+        }
+
+        if (++this.increments == this.sampleSize) {
+            for (int counter = 0; counter < this.counters.length; counter++) {
+                this.counters[counter] >>= 1;
+            }
+            this.increments /= 2;
+        }
+    }
+
+    /**
+     * Estimates how often a key was seen recently.
+     *
+     * @param key the key
+     * @return the estimated count, at most 15
+     */
+    public int estimate(Object key) {
+        int hash = spread(key.hashCode());
+        int estimate = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, this.counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Gets the position of the counter of a hash in a row.
+     *
+     * @param hash the spread hash
+     * @param row the row
+     * @return the position in the counters
+     */
+    private int index(int hash, int row) {
+        // Each row uses differently rotated and mixed bits of the hash.
+        int rowHash = Integer.rotateLeft(hash, 8 * row) * 0x9E3779B9;
+        return row * (this.mask + 1) + ((rowHash >>> 16) & this.mask);
+    }
+
+    /**
+     * Mixes the bits of a hash code.
+     *
+     * @param hashCode the hash code
+     * @return the mixed hash
+     */
+    private static int spread(int hashCode) {
+        int hash = hashCode * 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+}
@@ -25,6 +25,88 @@ public interface Index {
      */
     List<Website> lookup(String query);
 
+    /**
+     * Given a query string, returns the postings list of the websites that contain
+     * the query, including the number of times the query occurs on each website.
+     *
+     * @param query The query
+     * @return the postings list of the query word, never null.
+     */
+    PostingsList getPostings(String query);
+
+    /**
+     * Gets the number of websites that contain the query.
+     *
+     * @param query The query
+     * @return the document frequency of the query word.
+     */
+    int getDocumentFrequency(String query);
+
+    /**
+     * Given a url filter, returns the postings list of the websites whose url
+     * contains the filter, so "site:" queries only score those websites.
+     *
+     * @param urlFilter The text the url has to contain
+     * @return the postings list of the websites, with a frequency of 1, never null.
+     */
+    PostingsList getUrlPostings(String urlFilter);
+
+    /**
+     * Gets the positions of a word on a website, for phrase and NEAR queries.
+     * The position of a word is its position in the website's list of words.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @return the positions of the word, in increasing order, never null.
+     */
+    int[] getPositions(String word, int docId);
+
+    /**
+     * Gets the positions of a word on a website into an array owned by the
+     * caller, so checking many websites doesn't allocate an array for each.
+     * The positions are read until the array is full.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @param positions the array the positions are put in, in increasing order
+     * @return the number of positions put in the array, which is the length
+     * of the array if the word may occur more often.
+     */
+    int getPositions(String word, int docId, int[] positions);
+
+    /**
+     * Checks whether the index stores the positions of the words. An index
+     * without positions returns no positions for any word. Phrase and NEAR
+     * queries then only require all of their words, and the search result
+     * tells so, see {@link SearchResult#isPhraseMatchExact()}.
+     *
+     * @return true if the index has the positions of the words
+     */
+    boolean hasPositions();
+
+    /**
+     * Gets the lengths of the websites in words, for scores that prefer short websites.
+     *
+     * @return the length norms, by document ID
+     */
+    LengthNorms getLengthNorms();
+
+    /**
+     * Gets the index of the words in the titles of the websites, for scores
+     * that weigh the title and the body differently.
+     *
+     * @return the title index
+     */
+    TitleIndex getTitleIndex();
+
+    /**
+     * Gets the website with the given document ID.
+     *
+     * @param docId the document ID, as used in the postings lists
+     * @return the website
+     */
+    Website getWebsite(int docId);
+
     /**
      * Gets the database size.
      *
@@ -1,6 +1,9 @@
 package searchengine;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * The inverted index provides better performance of the lookup method.
@@ -10,19 +13,115 @@ import java.util.*;
 abstract public class InvertedIndex implements Index {
 
     /**
-     * The map used for solving the queries.
+     * The map used while building. Maps each word to the postings list of the
+     * websites it occurs on. After the build, the words are in the automaton,
+     * and the map is cleared.
      */
-    protected Map<String, List<Website>> map;
+    protected Map<String, PostingsList> map;
 
     /**
-     * The number of the websites provided in the build method.
+     * The websites provided in the build method. The position of
+     * a website in this array is its document ID.
      */
-    private int databaseSize;
+    private Website[] websites = new Website[0];
 
     /**
-     * The trie structure for the fast prefix search.
+     * The term dictionary, used for both exact and prefix search.
      */
-    private UnicornTrie trie;
+    private TermAutomaton terms = TermAutomaton.build(Collections.<String>emptyList());
+
+    /**
+     * The postings lists indexed by the term IDs of the automaton.
+     */
+    private PostingsList[] postingsByTermId = new PostingsList[0];
+
+    /**
+     * The index of the urls of the websites, for the "site:" filter.
+     */
+    private UrlIndex urlIndex = new UrlIndex(Collections.<String>emptyList());
+
+    /**
+     * The lengths of the websites.
+     */
+    private LengthNorms lengthNorms = new LengthNorms(new int[0]);
+
+    /**
+     * The index of the titles of the websites.
+     */
+    private TitleIndex titleIndex = new TitleIndex(Collections.<String>emptyList());
+
+    /**
+     * The positions of the words, built by the first phrase query, or null.
+     */
+    private PositionalIndex positionalIndex;
+
+    /**
+     * A word is on many websites if it is on more than one in this many. Its
+     * postings list is then stored as bitmaps where it is dense enough.
+     */
+    private static final int DENSE_RATIO = 16;
+
+    /**
+     * The codec used to compress the postings lists of the words that are not
+     * on many websites, or null to keep all postings as uncompressed arrays.
+     */
+    private PostingsCodec postingsCodec = new Simple8bCodec();
+
+    /**
+     * The number of websites indexed by one task of the parallel build.
+     */
+    private static final int BATCH_SIZE = 512;
+
+    /**
+     * The number of threads used by the build.
+     */
+    private int parallelism = 1;
+
+    /**
+     * The maximum number of words a prefix is expanded to.
+     */
+    private int maxPrefixExpansion = Integer.MAX_VALUE;
+
+    /**
+     * Sets the maximum number of words a prefix query is expanded to. If a
+     * prefix matches more words, only the words on the most websites are used,
+     * which bounds the cost of very broad prefixes such as "a*".
+     *
+     * @param maxPrefixExpansion the maximum number of words, by default unlimited
+     * @throws IllegalArgumentException if the maximum is less than 1
+     */
+    public void setMaxPrefixExpansion(int maxPrefixExpansion) {
+        if (maxPrefixExpansion < 1) {
+            throw new IllegalArgumentException("Maximum prefix expansion must be at least 1: " + maxPrefixExpansion);
+        }
+        this.maxPrefixExpansion = maxPrefixExpansion;
+    }
+
+    /**
+     * Sets the codec used to compress the postings lists. It is used by
+     * the next call to {@link #build(Iterator)}.
+     *
+     * @param postingsCodec the codec, or null to keep the postings uncompressed
+     */
+    public void setPostingsCodec(PostingsCodec postingsCodec) {
+        this.postingsCodec = postingsCodec;
+    }
+
+    /**
+     * Sets the number of threads used by the build. With more than one thread,
+     * the websites are split into batches of consecutive document IDs, each
+     * batch is indexed by a worker of a fork/join pool, and the partial
+     * indexes are merged in document ID order.
+     *
+     * @param parallelism the number of threads, 1 to build on the calling thread
+     * @throws IllegalArgumentException if the parallelism is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
 
     /**
      * The build method processes a list of websites into the index data structure.
@@ -31,34 +130,203 @@ abstract public class InvertedIndex implements Index {
      */
     @Override
     public void build(List<Website> sites) {
-        // Set the database size.
-        this.databaseSize = sites.size();
-        // Instantiate the trie.
-        this.trie = new UnicornTrie();
-
-        // Construct the map.
-        for (Website website: sites) {
-            for (String word: website.getWords()) {
-                // Get the existing websites stored in the map.
-                List<Website> existingWebsites = this.map.get(word);
-
-                // Build the trie too.
-                this.trie.addWord(word);
-
-                // If the list is null (the word is not yet a key in the map), initialize it.
-                if (existingWebsites == null) {
-                    existingWebsites = new ArrayList<>();
-                }
+        build(sites.iterator());
+    }
 
-                // Only add the website if it's not there already.
-                if (! existingWebsites.contains(website)) {
-                    existingWebsites.add(website);
+    /**
+     * Builds the index from websites that are read one at a time, for example
+     * by a {@link WebsiteReader}, so the websites are indexed while they are read.
+     *
+     * @param sites the websites that should be indexed
+     */
+    public void build(Iterator<Website> sites) {
+        // The document IDs are the positions in this list.
+        List<Website> websites = new ArrayList<>();
+        this.map.clear();
 
-                    // Put the list back.
-                    this.map.put(word, existingWebsites);
+        if (this.parallelism == 1) {
+            while (sites.hasNext()) {
+                websites.add(sites.next());
+            }
+
+            // One partition containing all words.
+            List<Map<String, ArrayPostingsList>> partitions = newPartitions(1);
+            invert(websites, 0, partitions);
+            this.map.putAll(compress(partitions.get(0), websites.size()));
+        } else {
+            buildParallel(sites, websites);
+        }
+        this.websites = websites.toArray(new Website[0]);
+
+        List<String> urls = new ArrayList<>(websites.size());
+        List<String> titles = new ArrayList<>(websites.size());
+        int[] lengths = new int[websites.size()];
+        for (int docId = 0; docId < lengths.length; docId++) {
+            Website website = websites.get(docId);
+            urls.add(website.getUrl());
+            titles.add(website.getTitle());
+            lengths[docId] = website.getTermIds().length;
+        }
+        this.urlIndex = new UrlIndex(urls);
+        this.lengthNorms = new LengthNorms(lengths);
+        this.titleIndex = new TitleIndex(titles);
+        synchronized (this) {
+            this.positionalIndex = null;
+        }
+
+        // Build the automaton from the sorted words, which gives the term IDs.
+        String[] words = this.map.keySet().toArray(new String[0]);
+        Arrays.sort(words, TermAutomaton.WORD_ORDER);
+        this.terms = TermAutomaton.build(Arrays.asList(words));
+        this.postingsByTermId = new PostingsList[words.length];
+        for (int termId = 0; termId < words.length; termId++) {
+            this.postingsByTermId[termId] = this.map.get(words[termId]);
+        }
+
+        // The automaton replaces the keys of the map.
+        this.map.clear();
+    }
+
+    /**
+     * Builds the postings lists with a fork/join pool. The websites are read on the
+     * calling thread, and every batch is indexed by a worker as soon as it is read,
+     * into a partial index that is split into partitions by the hash of the words.
+     * Then each partition is merged by a worker: the partial postings lists of a word
+     * cover consecutive ranges of document IDs, so they are just appended in order.
+     *
+     * @param sites the websites that should be indexed
+     * @param websites the list the websites are added to, in document ID order
+     */
+    private void buildParallel(Iterator<Website> sites, List<Website> websites) {
+        // More partitions than threads, so a slow partition doesn't keep the other threads waiting.
+        final int partitionCount = this.parallelism * 4;
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            List<ForkJoinTask<List<Map<String, ArrayPostingsList>>>> partialIndexes = new ArrayList<>();
+            while (sites.hasNext()) {
+                final int firstDocId = websites.size();
+                final List<Website> batch = new ArrayList<>(BATCH_SIZE);
+                while (batch.size() < BATCH_SIZE && sites.hasNext()) {
+                    batch.add(sites.next());
                 }
+                websites.addAll(batch);
+
+                partialIndexes.add(pool.submit(new Callable<List<Map<String, ArrayPostingsList>>>() {
+                    @Override
+                    public List<Map<String, ArrayPostingsList>> call() {
+                        List<Map<String, ArrayPostingsList>> partitions = newPartitions(partitionCount);
+                        invert(batch, firstDocId, partitions);
+                        return partitions;
+                    }
+                }));
+            }
+
+            // Wait for the batches, in document ID order.
+            final List<List<Map<String, ArrayPostingsList>>> partials = new ArrayList<>();
+            for (ForkJoinTask<List<Map<String, ArrayPostingsList>>> partialIndex: partialIndexes) {
+                partials.add(partialIndex.join());
+            }
+
+            final int databaseSize = websites.size();
+            List<ForkJoinTask<Map<String, PostingsList>>> merges = new ArrayList<>();
+            for (int partition = 0; partition < partitionCount; partition++) {
+                final int current = partition;
+                merges.add(pool.submit(new Callable<Map<String, PostingsList>>() {
+                    @Override
+                    public Map<String, PostingsList> call() {
+                        Map<String, ArrayPostingsList> merged = new HashMap<>();
+                        for (List<Map<String, ArrayPostingsList>> partial: partials) {
+                            for (Map.Entry<String, ArrayPostingsList> entry: partial.get(current).entrySet()) {
+                                ArrayPostingsList postings = merged.get(entry.getKey());
+                                if (postings == null) {
+                                    merged.put(entry.getKey(), entry.getValue());
+                                } else {
+                                    postings.addAll(entry.getValue());
+                                }
+                            }
+                        }
+                        return compress(merged, databaseSize);
+                    }
+                }));
+            }
+
+            for (ForkJoinTask<Map<String, PostingsList>> merge: merges) {
+                this.map.putAll(merge.join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates empty maps for the partitions of a partial index.
+     *
+     * @param partitionCount the number of partitions
+     * @return the maps
+     */
+    private static List<Map<String, ArrayPostingsList>> newPartitions(int partitionCount) {
+        List<Map<String, ArrayPostingsList>> partitions = new ArrayList<>(partitionCount);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            partitions.add(new HashMap<String, ArrayPostingsList>());
+        }
+        return partitions;
+    }
+
+    /**
+     * Builds the postings lists of consecutive websites as growable arrays. The
+     * postings are collected by the term IDs of the websites' dictionary, so a
+     * word is only hashed as a String once per batch instead of once per
+     * occurrence. Each word then goes to the partition given by its hash, so
+     * all partial indexes put a word into the same partition.
+     *
+     * @param websites the websites
+     * @param firstDocId the document ID of the first website
+     * @param partitions the maps the postings lists are put in
+     */
+    private static void invert(List<Website> websites, int firstDocId, List<Map<String, ArrayPostingsList>> partitions) {
+        TermPostings termPostings = new TermPostings();
+        TermDictionary dictionary = null;
+        for (int i = 0; i < websites.size(); i++) {
+            int docId = firstDocId + i;
+            Website website = websites.get(i);
+            // The term IDs of another dictionary are other words.
+            if (website.getTermDictionary() != dictionary) {
+                termPostings.addTo(dictionary, partitions);
+                dictionary = website.getTermDictionary();
+            }
+
+            for (int termId: website.getTermIds()) {
+                // The documents are processed in order, so the postings
+                // list only has to check its last ID to avoid duplicates.
+                termPostings.get(termId).add(docId);
+            }
+        }
+        termPostings.addTo(dictionary, partitions);
+    }
+
+    /**
+     * Compresses the postings lists, or at least releases their unused capacity.
+     * The lists of words on many websites become bitmap-based lists, which
+     * are cheap to skip through when intersected with the list of a rare word.
+     *
+     * @param arrays the postings lists built as growable arrays
+     * @param databaseSize the number of websites
+     * @return the final postings lists
+     */
+    private Map<String, PostingsList> compress(Map<String, ArrayPostingsList> arrays, int databaseSize) {
+        Map<String, PostingsList> result = new HashMap<>();
+        for (Map.Entry<String, ArrayPostingsList> entry: arrays.entrySet()) {
+            ArrayPostingsList postings = entry.getValue();
+            if (this.postingsCodec == null) {
+                postings.trimToSize();
+                result.put(entry.getKey(), postings);
+            } else if ((long) postings.size() * DENSE_RATIO > databaseSize) {
+                result.put(entry.getKey(), new RoaringPostingsList(postings, databaseSize));
+            } else {
+                result.put(entry.getKey(), new BlockPostingsList(postings, this.postingsCodec));
             }
         }
+        return result;
     }
 
     /**
@@ -69,9 +337,19 @@ abstract public class InvertedIndex implements Index {
      */
     @Override
     public List<Website> lookup(String query) {
-        // treeMap.get(null) throws NullPointerException.
+        return getWebsites(getPostings(query));
+    }
+
+    /**
+     * Given a query word, returns the postings list of the websites that contain the word.
+     *
+     * @param query The query word
+     * @return the postings list of the query word.
+     */
+    @Override
+    public PostingsList getPostings(String query) {
         if (query == null) {
-            return new ArrayList<>();
+            return new ArrayPostingsList();
         }
 
         // We have to check if the query word uses prefix search.
@@ -79,37 +357,226 @@ abstract public class InvertedIndex implements Index {
             return prefixSearch(query.replace("*", ""));
         }
 
-        List<Website> result = this.map.get(query);
+        int termId = this.terms.getTermId(query);
 
         // Make sure we don't return null when we don't find any result.
-        if (result == null) {
-            result = new ArrayList<>();
+        if (termId < 0) {
+            return new ArrayPostingsList();
         }
 
-        return result;
+        return this.postingsByTermId[termId];
+    }
+
+    /**
+     * Gets the postings list of a term ID of the automaton.
+     *
+     * @param termId the term ID
+     * @return the postings list of the word
+     */
+    public PostingsList getPostings(int termId) {
+        return this.postingsByTermId[termId];
     }
 
     /**
-     * Solves the prefix search by finding all words (using the trie),
-     * and then calls the lookup method to add up all the websites.
+     * Gets a read-only list view of the websites in a postings list.
+     *
+     * @param postings the postings list
+     * @return the list of websites
+     */
+    protected List<Website> getWebsites(PostingsList postings) {
+        return new AbstractList<Website>() {
+            @Override
+            public Website get(int position) {
+                return websites[postings.getDocId(position)];
+            }
+
+            @Override
+            public Iterator<Website> iterator() {
+                // Iterate the postings instead of random access, which may decode a block per call.
+                final PostingsIterator iterator = postings.iterator();
+                return new Iterator<Website>() {
+                    private int docId = iterator.nextDoc();
+
+                    @Override
+                    public boolean hasNext() {
+                        return docId != PostingsIterator.NO_MORE_DOCS;
+                    }
+
+                    @Override
+                    public Website next() {
+                        if (! hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Website website = websites[docId];
+                        docId = iterator.nextDoc();
+                        return website;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return postings.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of websites that contain the query word. For a single
+     * word this is the size of its postings list, which is stored by the build.
+     * A prefix has to merge the postings lists of its words, so its document
+     * frequency should be looked up once per query, as the query planner does.
+     *
+     * @param query The query word
+     * @return the document frequency of the query word.
+     */
+    @Override
+    public int getDocumentFrequency(String query) {
+        if (query == null || query.endsWith("*")) {
+            return getPostings(query).size();
+        }
+
+        int termId = this.terms.getTermId(query);
+        return termId < 0 ? 0 : this.postingsByTermId[termId].size();
+    }
+
+    /**
+     * Given a url filter, returns the postings list of the websites whose url
+     * contains the filter, found with the index of the urls.
+     *
+     * @param urlFilter The text the url has to contain
+     * @return the postings list of the websites.
+     */
+    @Override
+    public PostingsList getUrlPostings(String urlFilter) {
+        return this.urlIndex.getPostings(urlFilter);
+    }
+
+    /**
+     * Gets the positions of a word on a website. The positions of all words
+     * are built the first time they are needed.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @return the positions of the word on the website.
+     */
+    @Override
+    public int[] getPositions(String word, int docId) {
+        int termId = this.terms.getTermId(word);
+        if (termId < 0) {
+            return new int[0];
+        }
+        return getPositionalIndex().getPositions(termId, docId);
+    }
+
+    /**
+     * Gets the positions of a word on a website into an array owned by the caller.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @param positions the array the positions are put in
+     * @return the number of positions put in the array.
+     */
+    @Override
+    public int getPositions(String word, int docId, int[] positions) {
+        int termId = this.terms.getTermId(word);
+        if (termId < 0) {
+            return 0;
+        }
+        return getPositionalIndex().getPositions(termId, docId, positions);
+    }
+
+    /**
+     * The positions are built from the words of the websites, which the index keeps.
+     *
+     * @return true
+     */
+    @Override
+    public boolean hasPositions() {
+        return true;
+    }
+
+    /**
+     * Gets the lengths of the websites, computed by the build.
+     *
+     * @return the length norms
+     */
+    @Override
+    public LengthNorms getLengthNorms() {
+        return this.lengthNorms;
+    }
+
+    /**
+     * Gets the index of the titles, built by the build.
+     *
+     * @return the title index
+     */
+    @Override
+    public TitleIndex getTitleIndex() {
+        return this.titleIndex;
+    }
+
+    /**
+     * Gets the positions of the words, and builds them if they weren't built yet.
+     *
+     * @return the positional index
+     */
+    private synchronized PositionalIndex getPositionalIndex() {
+        if (this.positionalIndex == null) {
+            this.positionalIndex = new PositionalIndex(this.websites, this.terms);
+        }
+        return this.positionalIndex;
+    }
+
+    /**
+     * Solves the prefix search by finding all words (using the automaton),
+     * and then adds up their postings lists. The frequency of the prefix
+     * on a website is the sum of the frequencies of the matching words.
      *
      * @param prefix the word prefix
-     * @return the list of all websites
+     * @return the postings list of all websites
      */
-    private List<Website> prefixSearch(String prefix) {
+    private PostingsList prefixSearch(String prefix) {
         // Invalid search.
-        if (! prefix.matches("[a-zA-Z0-9]+")) {
-            return new ArrayList<>();
+        if (! PrefixSearch.isValid(prefix)) {
+            return new ArrayPostingsList();
         }
 
-        // Use a set to avoid duplicates.
-        Set<Website> result = new HashSet<>();
-        for (String word: this.trie.getWords(prefix)) {
-            result.addAll(lookup(word));
-        }
+        // The words with the prefix are a range of term IDs.
+        int first = this.terms.getFirstTermId(prefix);
+        int end = this.terms.getEndTermId(prefix);
+        List<PostingsList> postingsLists = Arrays.asList(this.postingsByTermId).subList(first, end);
+
+        return PrefixSearch.sum(postingsLists, this.websites.length, this.maxPrefixExpansion);
+    }
 
-        // Convert from set to list.
-        return new ArrayList<>(Arrays.asList(result.toArray(new Website[0])));
+    /**
+     * Gets all words in the index.
+     *
+     * @return the words, in term ID order
+     */
+    public List<String> getWords() {
+        return this.terms.getWords();
+    }
+
+    /**
+     * Gets the term dictionary.
+     *
+     * @return the automaton of the words
+     */
+    public TermAutomaton getTermAutomaton() {
+        return this.terms;
+    }
+
+    /**
+     * Gets the website with the given document ID.
+     *
+     * @param docId the document ID
+     * @return the website
+     */
+    @Override
+    public Website getWebsite(int docId) {
+        return this.websites[docId];
     }
 
     /**
@@ -119,6 +586,99 @@ abstract public class InvertedIndex implements Index {
      */
     @Override
     public int getDatabaseSize() {
-        return this.databaseSize;
+        return this.websites.length;
+    }
+
+    /**
+     * The postings lists of a batch of websites by term ID, in an open addressing
+     * hash table like the one of {@link TermDictionary}. A batch only uses a small
+     * part of the dictionary, so an array indexed by term ID would be mostly empty.
+     */
+    private static final class TermPostings {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        /**
+         * Each slot stores a term ID plus one, or 0 if the slot is empty.
+         * The length is a power of two, and at least twice the number of terms.
+         */
+        private int[] termIds = new int[INITIAL_CAPACITY];
+
+        private ArrayPostingsList[] postings = new ArrayPostingsList[INITIAL_CAPACITY];
+
+        private int size;
+
+        /**
+         * Gets the postings list of a term ID, adding an empty one if it is new.
+         */
+        ArrayPostingsList get(int termId) {
+            int slot = find(this.termIds, termId);
+            if (this.termIds[slot] == 0) {
+                this.termIds[slot] = termId + 1;
+                this.postings[slot] = new ArrayPostingsList();
+                this.size++;
+                // Keep the table at most half full.
+                if (this.size * 2 > this.termIds.length) {
+                    rehash();
+                    slot = find(this.termIds, termId);
+                }
+            }
+            return this.postings[slot];
+        }
+
+        /**
+         * Adds the postings lists to the partitions of a partial index, after
+         * the postings of the same words from earlier websites, and empties the table.
+         */
+        void addTo(TermDictionary dictionary, List<Map<String, ArrayPostingsList>> partitions) {
+            for (int slot = 0; slot < this.termIds.length; slot++) {
+                if (this.termIds[slot] == 0) {
+                    continue;
+                }
+
+                String word = dictionary.getTerm(this.termIds[slot] - 1);
+                Map<String, ArrayPostingsList> arrays = partitions.get((word.hashCode() & Integer.MAX_VALUE) % partitions.size());
+                ArrayPostingsList existing = arrays.get(word);
+                if (existing == null) {
+                    arrays.put(word, this.postings[slot]);
+                } else {
+                    existing.addAll(this.postings[slot]);
+                }
+            }
+
+            if (this.size > 0) {
+                Arrays.fill(this.termIds, 0);
+                Arrays.fill(this.postings, null);
+                this.size = 0;
+            }
+        }
+
+        private void rehash() {
+            int[] termIds = new int[this.termIds.length * 2];
+            ArrayPostingsList[] postings = new ArrayPostingsList[termIds.length];
+            for (int slot = 0; slot < this.termIds.length; slot++) {
+                if (this.termIds[slot] != 0) {
+                    int newSlot = find(termIds, this.termIds[slot] - 1);
+                    termIds[newSlot] = this.termIds[slot];
+                    postings[newSlot] = this.postings[slot];
+                }
+            }
+            this.termIds = termIds;
+            this.postings = postings;
+        }
+
+        /**
+         * Finds the slot of a term ID, or the empty slot for adding it.
+         */
+        private static int find(int[] termIds, int termId) {
+            int mask = termIds.length - 1;
+            // Spread the bits of the term ID, because the table uses the low bits.
+            int hash = termId * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (termIds[slot] != 0 && termIds[slot] != termId + 1) {
+                // Linear probing.
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
     }
 }
@@ -1,5 +1,7 @@
 package searchengine;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
 
 /**
@@ -18,9 +20,16 @@ public class InvertedIndexTreeMap extends InvertedIndex {
 
     @Override
     public String toString() {
+        // Show the websites rather than their document IDs.
+        List<String> words = getWords();
+        List<List<Website>> values = new ArrayList<>(words.size());
+        for (int termId = 0; termId < words.size(); termId++) {
+            values.add(getWebsites(getPostings(termId)));
+        }
+
         return "InvertedIndexTreeMap{" +
-                "keys=" + this.map.keySet() +
-                ";values=" + this.map.values() +
+                "keys=" + words +
+                ";values=" + values +
                 '}';
     }
 }
@@ -0,0 +1,266 @@
+package searchengine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes JSON straight to a {@link Writer}, one value at a time, without
+ * building the document in memory first. The writer only keeps track of
+ * whether a comma is needed at each level of nesting.
+ *
+ * For example, {@code {"url":"a.com","score":1.5}} is written by
+ * {@code beginObject().name("url").value("a.com").name("score").value(1.5).endObject()}.
+ *
+ * @author CodeUnicorns
+ */
+public class JsonWriter implements Flushable {
+
+    /**
+     * The output.
+     */
+    private Writer out;
+
+    /**
+     * For each open object or array, whether it already has a value.
+     */
+    private boolean[] hasValues = new boolean[8];
+
+    /**
+     * The number of open objects and arrays.
+     */
+    private int depth;
+
+    /**
+     * True if a name was just written, so the value follows without a comma.
+     */
+    private boolean afterName;
+
+    /**
+     * Creates a writer.
+     *
+     * @param out the output
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Starts an array.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next value of the current object.
+     *
+     * @param name the name
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        this.out.write(':');
+        this.afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string, or null.
+     *
+     * @param value the string
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            this.out.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number. JSON has no infinite numbers, so they are written as null.
+     *
+     * @param value the number
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(double value) throws IOException {
+        beforeValue();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            this.out.write("null");
+        } else if (value == (long) value && Math.abs(value) < 1e15) {
+            // Whole numbers are written without a fraction.
+            this.out.write(Long.toString((long) value));
+        } else {
+            this.out.write(Double.toString(value));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a whole number.
+     *
+     * @param value the number
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        this.out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the boolean
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        this.out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Flushes the output.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    /**
+     * Starts an object or an array.
+     *
+     * @param bracket the opening bracket
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    private JsonWriter open(char bracket) throws IOException {
+        beforeValue();
+        if (this.depth == this.hasValues.length) {
+            this.hasValues = Arrays.copyOf(this.hasValues, this.depth * 2);
+        }
+        this.hasValues[this.depth++] = false;
+        this.out.write(bracket);
+        return this;
+    }
+
+    /**
+     * Ends the current object or array.
+     *
+     * @param bracket the closing bracket
+     * @return this writer
+     * @throws IOException if writing fails
+     * @throws IllegalStateException if there is nothing to end
+     */
+    private JsonWriter close(char bracket) throws IOException {
+        if (this.depth == 0 || this.afterName) {
+            throw new IllegalStateException("Nothing to end with " + bracket);
+        }
+        this.depth--;
+        this.out.write(bracket);
+        return this;
+    }
+
+    /**
+     * Writes the comma before a value or a name, unless it is the first one
+     * of its object or array, or the value of a name.
+     *
+     * @throws IOException if writing fails
+     */
+    private void beforeValue() throws IOException {
+        if (this.afterName) {
+            this.afterName = false;
+            return;
+        }
+        if (this.depth > 0) {
+            if (this.hasValues[this.depth - 1]) {
+                this.out.write(',');
+            }
+            this.hasValues[this.depth - 1] = true;
+        }
+    }
+
+    /**
+     * Writes a string in quotes, escaping quotes, backslashes and control characters.
+     *
+     * @param string the string
+     * @throws IOException if writing fails
+     */
+    private void writeString(String string) throws IOException {
+        this.out.write('"');
+        int start = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            String escaped;
+            if (c == '"') {
+                escaped = "\\\"";
+            } else if (c == '\\') {
+                escaped = "\\\\";
+            } else if (c == '\n') {
+                escaped = "\\n";
+            } else if (c == '\r') {
+                escaped = "\\r";
+            } else if (c == '\t') {
+                escaped = "\\t";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                // Line separators are valid JSON, but not valid JavaScript.
+                escaped = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            // Write the characters that needed no escaping at once.
+            this.out.write(string, start, i - start);
+            this.out.write(escaped);
+            start = i + 1;
+        }
+        this.out.write(string, start, string.length() - start);
+        this.out.write('"');
+    }
+}
@@ -0,0 +1,183 @@
+package searchengine;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The lengths of the websites in words, for scores like BM25 that prefer short
+ * websites. Each length is stored in a single byte: lengths below 128 exactly,
+ * and longer lengths on a logarithmic scale, within about 7 percent, up to more
+ * than two billion words. The average length is exact.
+ *
+ * @author CodeUnicorns
+ */
+public class LengthNorms {
+
+    /**
+     * The longest length that is stored exactly.
+     */
+    private static final int EXACT_LENGTHS = 128;
+
+    /**
+     * The ratio between consecutive lengths on the logarithmic scale.
+     */
+    private static final double RATIO = 1.14;
+
+    /**
+     * The length of each of the 256 norms.
+     */
+    private static final float[] LENGTHS = new float[256];
+
+    static {
+        for (int norm = 0; norm < LENGTHS.length; norm++) {
+            LENGTHS[norm] = norm < EXACT_LENGTHS ? norm : (float) (EXACT_LENGTHS * Math.pow(RATIO, norm - EXACT_LENGTHS));
+        }
+    }
+
+    /**
+     * The norm of each website, by document ID.
+     */
+    private byte[] norms;
+
+    /**
+     * The average length of the websites.
+     */
+    private double averageLength;
+
+    /**
+     * The smallest norm of the websites, for upper bounds of the scores.
+     */
+    private int minNorm;
+
+    /**
+     * Creates the norms of the lengths of the websites.
+     *
+     * @param lengths the number of words of each website, by document ID
+     */
+    public LengthNorms(int[] lengths) {
+        this.norms = new byte[lengths.length];
+        long total = 0;
+        for (int docId = 0; docId < lengths.length; docId++) {
+            this.norms[docId] = (byte) encode(lengths[docId]);
+            total += lengths[docId];
+        }
+        this.averageLength = lengths.length == 0 ? 0 : (double) total / lengths.length;
+        this.minNorm = findMinNorm(this.norms);
+    }
+
+    /**
+     * Creates norms that were already encoded.
+     *
+     * @param norms the norm of each website
+     * @param averageLength the average length of the websites
+     */
+    private LengthNorms(byte[] norms, double averageLength) {
+        this.norms = norms;
+        this.averageLength = averageLength;
+        this.minNorm = findMinNorm(norms);
+    }
+
+    /**
+     * Finds the smallest norm.
+     *
+     * @param norms the norms
+     * @return the smallest norm, or 0 if there are none
+     */
+    private static int findMinNorm(byte[] norms) {
+        int min = norms.length == 0 ? 0 : 255;
+        for (byte norm: norms) {
+            min = Math.min(min, norm & 0xFF);
+        }
+        return min;
+    }
+
+    /**
+     * Gets the norm of the length of a website.
+     *
+     * @param docId the document ID of the website
+     * @return the norm, from 0 to 255
+     */
+    public int getNorm(int docId) {
+        return this.norms[docId] & 0xFF;
+    }
+
+    /**
+     * Gets the norm of the shortest website, so no website scores higher than
+     * a website of this length.
+     *
+     * @return the smallest norm, from 0 to 255
+     */
+    public int getMinNorm() {
+        return this.minNorm;
+    }
+
+    /**
+     * Gets the length a norm stands for.
+     *
+     * @param norm the norm, from 0 to 255
+     * @return the length, maybe rounded
+     */
+    public static float decode(int norm) {
+        return LENGTHS[norm];
+    }
+
+    /**
+     * Gets the norm of a length.
+     *
+     * @param length the number of words
+     * @return the norm, from 0 to 255
+     */
+    public static int encode(int length) {
+        if (length < EXACT_LENGTHS) {
+            return Math.max(0, length);
+        }
+        long norm = EXACT_LENGTHS + Math.round(Math.log((double) length / EXACT_LENGTHS) / Math.log(RATIO));
+        return (int) Math.min(255, norm);
+    }
+
+    /**
+     * Gets the average length of the websites.
+     *
+     * @return the average number of words
+     */
+    public double getAverageLength() {
+        return this.averageLength;
+    }
+
+    /**
+     * Gets the number of websites.
+     *
+     * @return the number of norms
+     */
+    public int size() {
+        return this.norms.length;
+    }
+
+    /**
+     * Writes the norms: the average length, followed by the norm of each website.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeDouble(this.averageLength);
+        out.write(this.norms);
+    }
+
+    /**
+     * Reads norms written by {@link #write(DataOutput)}.
+     *
+     * @param buffer the buffer
+     * @param offset the position of the norms
+     * @param size the number of websites
+     * @return the norms
+     */
+    public static LengthNorms read(ByteBuffer buffer, int offset, int size) {
+        byte[] norms = new byte[size];
+        for (int docId = 0; docId < size; docId++) {
+            norms[docId] = buffer.get(offset + 8 + docId);
+        }
+        return new LengthNorms(norms, buffer.getDouble(offset));
+    }
+}
@@ -0,0 +1,222 @@
+package searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The positions of the words on the websites, for phrase and NEAR queries.
+ * For each word, the positions on each website containing it are stored as
+ * variable-byte encoded gaps, so most positions take a single byte. The
+ * positions are found from the document ID by a binary search.
+ *
+ * The positions are built from the words of the websites, in one pass. An
+ * {@link InvertedIndex} only builds them when the first phrase query needs
+ * them, so other queries don't pay for them.
+ *
+ * @author CodeUnicorns
+ */
+public class PositionalIndex {
+
+    /**
+     * The codec of the position gaps. The gaps are decoded in place, so the
+     * decoding has to match this codec.
+     */
+    private static final VByteCodec CODEC = new VByteCodec();
+
+    /**
+     * The websites containing each word, by term ID.
+     */
+    private int[][] docIds;
+
+    /**
+     * The position of the encoded positions of each website, parallel to the document IDs.
+     */
+    private int[][] offsets;
+
+    /**
+     * The encoded positions of each word, by term ID.
+     */
+    private ByteBuffer[] positions;
+
+    /**
+     * Builds the positions of the words on the websites.
+     *
+     * @param websites the websites, by document ID
+     * @param terms the term IDs of the words
+     */
+    public PositionalIndex(Website[] websites, TermAutomaton terms) {
+        int termCount = terms.size();
+        int[] sizes = new int[termCount];
+        int[] lastDocIds = new int[termCount];
+        int[] lastPositions = new int[termCount];
+        Arrays.fill(lastDocIds, -1);
+        this.docIds = new int[termCount][];
+        this.offsets = new int[termCount][];
+        ByteArrayOutputStream[] outputs = new ByteArrayOutputStream[termCount];
+
+        // The websites may use several dictionaries, so their IDs are mapped per dictionary.
+        Map<TermDictionary, int[]> mappings = new IdentityHashMap<>();
+        int[] gap = new int[1];
+        for (int docId = 0; docId < websites.length; docId++) {
+            int[] mapping = getMapping(mappings, websites[docId].getTermDictionary(), terms);
+            int[] termIds = websites[docId].getTermIds();
+            for (int position = 0; position < termIds.length; position++) {
+                int termId = mapping[termIds[position]];
+                if (termId < 0) {
+                    continue;
+                }
+
+                if (lastDocIds[termId] != docId) {
+                    // The first occurrence of the word on the website starts its positions.
+                    if (outputs[termId] == null) {
+                        outputs[termId] = new ByteArrayOutputStream();
+                        this.docIds[termId] = new int[4];
+                        this.offsets[termId] = new int[4];
+                    } else if (sizes[termId] == this.docIds[termId].length) {
+                        this.docIds[termId] = Arrays.copyOf(this.docIds[termId], sizes[termId] * 2);
+                        this.offsets[termId] = Arrays.copyOf(this.offsets[termId], sizes[termId] * 2);
+                    }
+                    this.docIds[termId][sizes[termId]] = docId;
+                    this.offsets[termId][sizes[termId]] = outputs[termId].size();
+                    sizes[termId]++;
+                    lastDocIds[termId] = docId;
+                    lastPositions[termId] = 0;
+                }
+
+                gap[0] = position - lastPositions[termId];
+                CODEC.encode(gap, 1, outputs[termId]);
+                lastPositions[termId] = position;
+            }
+        }
+
+        this.positions = new ByteBuffer[termCount];
+        for (int termId = 0; termId < termCount; termId++) {
+            if (outputs[termId] == null) {
+                this.docIds[termId] = new int[0];
+                this.offsets[termId] = new int[0];
+                this.positions[termId] = ByteBuffer.allocate(0);
+            } else {
+                this.docIds[termId] = Arrays.copyOf(this.docIds[termId], sizes[termId]);
+                this.offsets[termId] = Arrays.copyOf(this.offsets[termId], sizes[termId]);
+                this.positions[termId] = ByteBuffer.wrap(outputs[termId].toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Gets the positions of a word on a website.
+     *
+     * @param termId the term ID of the word
+     * @param docId the document ID of the website
+     * @return the positions of the word in the website's list of words, in
+     * increasing order, or an empty array if the word is not on the website
+     */
+    public int[] getPositions(int termId, int docId) {
+        int index = Arrays.binarySearch(this.docIds[termId], docId);
+        if (index < 0) {
+            return new int[0];
+        }
+
+        // Each position takes at least one byte.
+        int[] result = new int[getEnd(termId, index) - this.offsets[termId][index]];
+        int count = decode(termId, index, result);
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Gets the positions of a word on a website into an array owned by the
+     * caller. Decoding stops when the array is full.
+     *
+     * @param termId the term ID of the word
+     * @param docId the document ID of the website
+     * @param positions the array the positions are put in, in increasing order
+     * @return the number of positions put in the array, 0 if the word is not
+     * on the website, and the length of the array if it may occur more often
+     */
+    public int getPositions(int termId, int docId, int[] positions) {
+        int index = Arrays.binarySearch(this.docIds[termId], docId);
+        if (index < 0) {
+            return 0;
+        }
+        return decode(termId, index, positions);
+    }
+
+    /**
+     * Decodes the positions of a word on one of its websites, until the array is full.
+     *
+     * @param termId the term ID of the word
+     * @param index the index of the website in the document IDs of the word
+     * @param positions the array the positions are put in
+     * @return the number of positions put in the array
+     */
+    private int decode(int termId, int index, int[] positions) {
+        ByteBuffer data = this.positions[termId];
+        int offset = this.offsets[termId][index];
+        int end = getEnd(termId, index);
+        int count = 0;
+        int position = 0;
+        while (offset < end && count < positions.length) {
+            // The gap is decoded in place, like VByteCodec does, so no array is needed for it.
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(offset++);
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            position += gap;
+            positions[count++] = position;
+        }
+        return count;
+    }
+
+    /**
+     * Gets where the encoded positions of a word on one of its websites end,
+     * which is where the next website's positions start.
+     *
+     * @param termId the term ID of the word
+     * @param index the index of the website in the document IDs of the word
+     * @return the position after the last encoded byte
+     */
+    private int getEnd(int termId, int index) {
+        return index + 1 < this.offsets[termId].length ? this.offsets[termId][index + 1] : this.positions[termId].limit();
+    }
+
+    /**
+     * Gets the number of bytes used by the positions and their document IDs.
+     *
+     * @return the size of the positional index in bytes
+     */
+    public long getSizeInBytes() {
+        long size = 0;
+        for (int termId = 0; termId < this.positions.length; termId++) {
+            size += this.positions[termId].limit() + 8L * this.docIds[termId].length;
+        }
+        return size;
+    }
+
+    /**
+     * Gets the mapping from the IDs of a dictionary to the term IDs of the index.
+     *
+     * @param mappings the mappings of the dictionaries seen so far
+     * @param dictionary the dictionary
+     * @param terms the term IDs of the index
+     * @return the term ID of each dictionary ID, or -1 for words not in the index
+     */
+    private static int[] getMapping(Map<TermDictionary, int[]> mappings, TermDictionary dictionary, TermAutomaton terms) {
+        int[] mapping = mappings.get(dictionary);
+        int known = mapping == null ? 0 : mapping.length;
+        if (known < dictionary.size()) {
+            mapping = mapping == null ? new int[dictionary.size()] : Arrays.copyOf(mapping, dictionary.size());
+            for (int id = known; id < mapping.length; id++) {
+                mapping[id] = terms.getTermId(dictionary.getTerm(id));
+            }
+            mappings.put(dictionary, mapping);
+        }
+        return mapping;
+    }
+}
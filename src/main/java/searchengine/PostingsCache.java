@@ -0,0 +1,334 @@
+package searchengine;
+
+import java.util.List;
+
+/**
+ * An index that caches the postings lists another index has to compute, so
+ * different queries sharing a part can reuse it:
+ * <ul>
+ *     <li>the merged postings list of a prefix such as "den*", which otherwise
+ *     takes finding all matching words and adding up their lists every time</li>
+ *     <li>the intersection of the two rarest words of a subquery, such as
+ *     "copenhagen denmark", so that all subqueries containing both words
+ *     only have to look at the websites that contain both</li>
+ *     <li>the websites whose url contains the filter of a "site:" query</li>
+ * </ul>
+ * The cached lists are weighted by their estimated size in bytes, and evicted
+ * by a {@link WeightedCache} when they don't fit anymore.
+ *
+ * @author CodeUnicorns
+ */
+public class PostingsCache implements Index {
+
+    /**
+     * The maximum number of cached postings lists.
+     */
+    private static final int MAX_ENTRIES = 4096;
+
+    /**
+     * The estimated size of a postings list object without its postings, in bytes.
+     */
+    private static final long OBJECT_SIZE = 64;
+
+    // The first character of the keys tells the kinds of cached lists apart.
+    private static final char PREFIX_KEY = 'p';
+    private static final char PAIR_KEY = 'w';
+    private static final char URL_KEY = 's';
+
+    /**
+     * The index the postings lists are computed by.
+     */
+    private Index index;
+
+    /**
+     * The cached postings lists: a single list for a prefix or a url filter,
+     * and the two lists restricted to their common websites for a pair of words.
+     */
+    private WeightedCache<String, PostingsList[]> cache;
+
+    /**
+     * The minimum size of both postings lists of a pair of words, for their
+     * intersection to be worth caching.
+     */
+    private int minIntersectionSize = 1024;
+
+    /**
+     * Creates an empty cache in front of an index.
+     *
+     * @param index the index that computes the postings lists
+     * @param maxBytes the maximum total size of the cached postings lists
+     */
+    public PostingsCache(Index index, long maxBytes) {
+        this.index = index;
+        this.cache = new WeightedCache<>(MAX_ENTRIES, maxBytes);
+    }
+
+    /**
+     * Sets the minimum size of both postings lists of a pair of words, for
+     * their intersection to be cached. Intersections of short lists are cheap
+     * to compute again.
+     *
+     * @param minIntersectionSize the minimum number of websites of each word
+     */
+    public void setMinIntersectionSize(int minIntersectionSize) {
+        this.minIntersectionSize = minIntersectionSize;
+    }
+
+    /**
+     * Builds the underlying index, and empties the cache.
+     *
+     * @param sites The list of websites that should be indexed
+     */
+    @Override
+    public void build(List<Website> sites) {
+        this.index.build(sites);
+        this.cache.clear();
+    }
+
+    /**
+     * Given a query string, returns a list of all websites that contain the query.
+     *
+     * @param query The query
+     * @return the list of websites that contains the query word.
+     */
+    @Override
+    public List<Website> lookup(String query) {
+        return this.index.lookup(query);
+    }
+
+    /**
+     * Given a query word, returns the postings list of the websites that contain
+     * the word. The postings lists of prefixes are cached.
+     *
+     * @param query The query word
+     * @return the postings list of the query word.
+     */
+    @Override
+    public PostingsList getPostings(String query) {
+        if (query == null || ! query.endsWith("*")) {
+            return this.index.getPostings(query);
+        }
+
+        String key = PREFIX_KEY + query;
+        PostingsList[] cached = this.cache.get(key);
+        if (cached == null) {
+            cached = new PostingsList[] {this.index.getPostings(query)};
+            this.cache.put(key, cached, getSizeInBytes(cached[0]));
+        }
+        return cached[0];
+    }
+
+    /**
+     * Given a url filter, returns the postings list of the websites whose url
+     * contains the filter. The postings lists of url filters are cached.
+     *
+     * @param urlFilter The text the url has to contain
+     * @return the postings list of the websites.
+     */
+    @Override
+    public PostingsList getUrlPostings(String urlFilter) {
+        String key = URL_KEY + urlFilter;
+        PostingsList[] cached = this.cache.get(key);
+        if (cached == null) {
+            cached = new PostingsList[] {this.index.getUrlPostings(urlFilter)};
+            this.cache.put(key, cached, getSizeInBytes(cached[0]));
+        }
+        return cached[0];
+    }
+
+    /**
+     * Gets the positions of a word on a website.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @return the positions of the word on the website.
+     */
+    @Override
+    public int[] getPositions(String word, int docId) {
+        return this.index.getPositions(word, docId);
+    }
+
+    /**
+     * Gets the positions of a word on a website into an array owned by the caller.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @param positions the array the positions are put in
+     * @return the number of positions put in the array.
+     */
+    @Override
+    public int getPositions(String word, int docId, int[] positions) {
+        return this.index.getPositions(word, docId, positions);
+    }
+
+    /**
+     * Checks whether the underlying index has the positions of the words.
+     *
+     * @return true if it has them
+     */
+    @Override
+    public boolean hasPositions() {
+        return this.index.hasPositions();
+    }
+
+    /**
+     * Gets the lengths of the websites.
+     *
+     * @return the length norms of the underlying index
+     */
+    @Override
+    public LengthNorms getLengthNorms() {
+        return this.index.getLengthNorms();
+    }
+
+    /**
+     * Gets the index of the words in the titles.
+     *
+     * @return the title index of the underlying index
+     */
+    @Override
+    public TitleIndex getTitleIndex() {
+        return this.index.getTitleIndex();
+    }
+
+    /**
+     * Gets the postings lists of the words of a subquery, whose websites have
+     * to contain all the words. The lists of the two rarest words are restricted
+     * to the websites that contain both, and this intersection is cached. The
+     * frequencies of the words are kept, so the websites score the same.
+     *
+     * @param words the words of the subquery
+     * @return the postings list of each word, in the same order
+     */
+    public PostingsList[] getPostings(String[] words) {
+        PostingsList[] postings = new PostingsList[words.length];
+        for (int i = 0; i < words.length; i++) {
+            postings[i] = getPostings(words[i]);
+        }
+
+        // Find the two rarest words, which have the smallest intersection.
+        int first = -1;
+        int second = -1;
+        for (int i = 0; i < words.length; i++) {
+            if (first < 0 || postings[i].size() < postings[first].size()) {
+                second = first;
+                first = i;
+            } else if (second < 0 || postings[i].size() < postings[second].size()) {
+                second = i;
+            }
+        }
+        if (second < 0 || words[first].equals(words[second]) || postings[second].size() < this.minIntersectionSize) {
+            return postings;
+        }
+
+        // The pair is stored in word order, so both orders of the words share it.
+        if (words[first].compareTo(words[second]) > 0) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        String key = PAIR_KEY + words[first] + " " + words[second];
+        PostingsList[] pair = this.cache.get(key);
+        if (pair == null) {
+            pair = intersect(postings[first], postings[second]);
+            this.cache.put(key, pair, getSizeInBytes(pair[0]) + getSizeInBytes(pair[1]));
+        }
+        postings[first] = pair[0];
+        postings[second] = pair[1];
+
+        return postings;
+    }
+
+    /**
+     * Gets the number of websites that contain the query word.
+     *
+     * @param query The query word
+     * @return the document frequency of the query word.
+     */
+    @Override
+    public int getDocumentFrequency(String query) {
+        if (query != null && query.endsWith("*")) {
+            return getPostings(query).size();
+        }
+        return this.index.getDocumentFrequency(query);
+    }
+
+    /**
+     * Gets the website with the given document ID.
+     *
+     * @param docId the document ID, as used in the postings lists
+     * @return the website
+     */
+    @Override
+    public Website getWebsite(int docId) {
+        return this.index.getWebsite(docId);
+    }
+
+    /**
+     * Gets the database size.
+     *
+     * @return the number of websites contained by the index
+     */
+    @Override
+    public int getDatabaseSize() {
+        return this.index.getDatabaseSize();
+    }
+
+    /**
+     * Gets a snapshot of the statistics of the cache.
+     *
+     * @return the statistics, with the weight in bytes
+     */
+    public CacheStatistics getStatistics() {
+        return this.cache.getStatistics();
+    }
+
+    /**
+     * Restricts two postings lists to the websites that are in both.
+     *
+     * @param first the first postings list
+     * @param second the second postings list
+     * @return the restricted first and second postings lists
+     */
+    private static PostingsList[] intersect(PostingsList first, PostingsList second) {
+        ArrayPostingsList firstCommon = new ArrayPostingsList();
+        ArrayPostingsList secondCommon = new ArrayPostingsList();
+
+        PostingsIterator firstIterator = first.iterator();
+        PostingsIterator secondIterator = second.iterator();
+        int docId = firstIterator.nextDoc();
+        while (docId != PostingsIterator.NO_MORE_DOCS) {
+            int other = secondIterator.advance(docId);
+            if (other == docId) {
+                firstCommon.add(docId, firstIterator.frequency());
+                secondCommon.add(docId, secondIterator.frequency());
+                docId = firstIterator.nextDoc();
+            } else {
+                docId = firstIterator.advance(other);
+            }
+        }
+        firstCommon.trimToSize();
+        secondCommon.trimToSize();
+
+        return new PostingsList[] {firstCommon, secondCommon};
+    }
+
+    /**
+     * Estimates the memory used by a postings list, including the object itself,
+     * so even an empty list has a weight of at least 1 in the cache.
+     *
+     * @param postings the postings list
+     * @return the estimated size in bytes
+     */
+    private static long getSizeInBytes(PostingsList postings) {
+        if (postings instanceof BlockPostingsList) {
+            return ((BlockPostingsList) postings).getSizeInBytes() + OBJECT_SIZE;
+        }
+        if (postings instanceof RoaringPostingsList) {
+            return ((RoaringPostingsList) postings).getSizeInBytes() + OBJECT_SIZE;
+        }
+
+        // A document ID and a frequency per posting.
+        return 8L * postings.size() + OBJECT_SIZE;
+    }
+}
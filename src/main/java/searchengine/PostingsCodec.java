@@ -0,0 +1,36 @@
+package searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A postings codec compresses blocks of non-negative ints, like the gaps
+ * between document IDs and the term frequencies of a postings list.
+ *
+ * @author CodeUnicorns
+ */
+public interface PostingsCodec {
+
+    /**
+     * Encodes the values and appends them to the output.
+     *
+     * @param values the values to encode, all non-negative
+     * @param count the number of values to encode
+     * @param out the output the encoded bytes are written to
+     */
+    void encode(int[] values, int count, ByteArrayOutputStream out);
+
+    /**
+     * Decodes values that were encoded with {@link #encode(int[], int, ByteArrayOutputStream)}.
+     *
+     * The bytes are read with absolute gets, so the buffer may be shared
+     * between threads and may be a memory-mapped file.
+     *
+     * @param data the encoded bytes
+     * @param offset the position of the first encoded byte
+     * @param values the array the decoded values are written to
+     * @param count the number of values to decode
+     * @return the position right after the decoded bytes
+     */
+    int decode(ByteBuffer data, int offset, int[] values, int count);
+}
@@ -0,0 +1,48 @@
+package searchengine;
+
+/**
+ * An iterator over the postings of a word, in increasing document ID order.
+ * Besides stepping to the next posting, it can skip ahead to a target ID,
+ * which is what makes intersecting postings lists fast.
+ *
+ * @author CodeUnicorns
+ */
+public interface PostingsIterator {
+
+    /**
+     * The document ID returned when the iterator is exhausted.
+     */
+    int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    /**
+     * Gets the current document ID.
+     *
+     * @return the current document ID, -1 if the iteration has not
+     * started yet, or {@link #NO_MORE_DOCS} if it is exhausted
+     */
+    int docId();
+
+    /**
+     * Moves to the next posting.
+     *
+     * @return the new document ID, or {@link #NO_MORE_DOCS}
+     */
+    int nextDoc();
+
+    /**
+     * Moves to the first posting whose document ID is greater than or equal
+     * to the target. The iterator never moves backwards, so if the current
+     * document ID is already at least the target, it stays where it is.
+     *
+     * @param target the document ID to skip to
+     * @return the new document ID, or {@link #NO_MORE_DOCS}
+     */
+    int advance(int target);
+
+    /**
+     * Gets the term frequency of the current posting.
+     *
+     * @return the number of times the word occurs on the current website
+     */
+    int frequency();
+}
@@ -0,0 +1,49 @@
+package searchengine;
+
+/**
+ * A postings list stores the document IDs of the websites a word occurs on,
+ * in increasing order, together with the number of times the word occurs on
+ * each website. Implementations differ in how the postings are stored.
+ *
+ * @author CodeUnicorns
+ */
+public abstract class PostingsList {
+
+    /**
+     * Gets the document ID at the given position.
+     *
+     * @param position the position in the list
+     * @return the document ID
+     */
+    public abstract int getDocId(int position);
+
+    /**
+     * Gets the term frequency at the given position.
+     *
+     * @param position the position in the list
+     * @return the number of occurrences of the word on the website
+     */
+    public abstract int getFrequency(int position);
+
+    /**
+     * Gets the highest term frequency in the list.
+     *
+     * @return the maximum number of occurrences of the word on a website
+     */
+    public abstract int getMaxFrequency();
+
+    /**
+     * Gets the number of document IDs in the list.
+     *
+     * @return the size of the list
+     */
+    public abstract int size();
+
+    /**
+     * Gets an iterator over the postings. Iterating is the fast way to
+     * read a postings list; random access may be slower.
+     *
+     * @return the iterator, positioned before the first posting
+     */
+    public abstract PostingsIterator iterator();
+}
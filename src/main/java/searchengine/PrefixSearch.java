@@ -0,0 +1,202 @@
+package searchengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Evaluates prefix queries such as "co*" for the indexes: the postings lists
+ * of all words with the prefix are added up into one postings list, where the
+ * frequency of the prefix on a website is the sum of the frequencies of the words.
+ *
+ * Narrow prefixes are added up with a k-way merge of the sorted postings lists,
+ * which only touches their postings. Broad prefixes, whose postings cover a large
+ * part of the database, are added up in an array indexed by document ID instead,
+ * which avoids the cost of the heap per posting.
+ *
+ * @author CodeUnicorns
+ */
+public class PrefixSearch {
+
+    /**
+     * Checks whether a prefix can be searched for: only letters a-z and A-Z
+     * and digits are allowed. This is a loop over the characters instead
+     * of a regular expression, as it runs for every prefix query.
+     *
+     * @param prefix the prefix, without the "*"
+     * @return true if the prefix is not empty and only contains letters and digits
+     */
+    public static boolean isValid(String prefix) {
+        if (prefix.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (! ('a' <= c && c <= 'z' || 'A' <= c && c <= 'Z' || '0' <= c && c <= '9')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds up the postings lists of the words with a prefix.
+     *
+     * @param postingsLists the postings lists of the words
+     * @param databaseSize the number of documents in the index
+     * @param maxExpansion the maximum number of words; if there are more,
+     *                     only the words on the most websites are used
+     * @return the postings list of the prefix
+     */
+    public static PostingsList sum(List<PostingsList> postingsLists, int databaseSize, int maxExpansion) {
+        if (postingsLists.size() > maxExpansion) {
+            postingsLists = selectLargest(postingsLists, maxExpansion);
+        }
+
+        if (postingsLists.isEmpty()) {
+            return new ArrayPostingsList();
+        }
+        if (postingsLists.size() == 1) {
+            // Nothing to add up.
+            return postingsLists.get(0);
+        }
+
+        // The merge costs a heap operation per posting, the array costs a slot per document.
+        long postingsCount = 0;
+        for (PostingsList postings: postingsLists) {
+            postingsCount += postings.size();
+        }
+        int heapDepth = 32 - Integer.numberOfLeadingZeros(postingsLists.size());
+        if (postingsCount * heapDepth < databaseSize + postingsCount) {
+            return sumWithMerge(postingsLists);
+        }
+        return sumWithArray(postingsLists, databaseSize);
+    }
+
+    /**
+     * Selects the postings lists of the words on the most websites.
+     *
+     * @param postingsLists the postings lists
+     * @param count the number of postings lists to select
+     * @return the selected postings lists
+     */
+    private static List<PostingsList> selectLargest(List<PostingsList> postingsLists, int count) {
+        List<PostingsList> largest = new ArrayList<>(postingsLists);
+        Collections.sort(largest, new Comparator<PostingsList>() {
+            @Override
+            public int compare(PostingsList first, PostingsList second) {
+                return Integer.compare(second.size(), first.size());
+            }
+        });
+
+        return largest.subList(0, count);
+    }
+
+    /**
+     * Adds up postings lists with a k-way merge. The iterators are kept in a
+     * min-heap by their current document ID, so the postings come out in order,
+     * and the frequencies of equal document IDs are added up.
+     *
+     * @param postingsLists the postings lists
+     * @return the added up postings list
+     */
+    private static ArrayPostingsList sumWithMerge(List<PostingsList> postingsLists) {
+        PostingsIterator[] iterators = new PostingsIterator[postingsLists.size()];
+        // The heap holds the positions of the iterators that are not exhausted.
+        int[] heap = new int[iterators.length];
+        int[] docIds = new int[iterators.length];
+        int size = 0;
+        for (int i = 0; i < iterators.length; i++) {
+            iterators[i] = postingsLists.get(i).iterator();
+            docIds[i] = iterators[i].nextDoc();
+            if (docIds[i] != PostingsIterator.NO_MORE_DOCS) {
+                heap[size++] = i;
+            }
+        }
+        for (int position = size / 2 - 1; position >= 0; position--) {
+            siftDown(heap, size, docIds, position);
+        }
+
+        ArrayPostingsList result = new ArrayPostingsList();
+        int docId = -1;
+        int frequency = 0;
+        while (size > 0) {
+            int top = heap[0];
+            if (docIds[top] != docId) {
+                if (frequency > 0) {
+                    result.add(docId, frequency);
+                }
+                docId = docIds[top];
+                frequency = 0;
+            }
+            frequency += iterators[top].frequency();
+
+            // Move the iterator on, and remove it from the heap when it is exhausted.
+            docIds[top] = iterators[top].nextDoc();
+            if (docIds[top] == PostingsIterator.NO_MORE_DOCS) {
+                heap[0] = heap[--size];
+            }
+            siftDown(heap, size, docIds, 0);
+        }
+        if (frequency > 0) {
+            result.add(docId, frequency);
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves an entry of the heap down until it is not larger than its children.
+     *
+     * @param heap the heap of iterator positions
+     * @param size the size of the heap
+     * @param docIds the current document ID of each iterator
+     * @param position the position of the entry
+     */
+    private static void siftDown(int[] heap, int size, int[] docIds, int position) {
+        int entry = heap[position];
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && docIds[heap[child + 1]] < docIds[heap[child]]) {
+                child++;
+            }
+            if (docIds[entry] <= docIds[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = entry;
+    }
+
+    /**
+     * Adds up postings lists in an array indexed by document ID,
+     * which also avoids duplicates.
+     *
+     * @param postingsLists the postings lists
+     * @param databaseSize the number of documents in the index
+     * @return the added up postings list
+     */
+    private static ArrayPostingsList sumWithArray(List<PostingsList> postingsLists, int databaseSize) {
+        int[] frequencies = new int[databaseSize];
+        for (PostingsList postings: postingsLists) {
+            PostingsIterator iterator = postings.iterator();
+            for (int docId = iterator.nextDoc(); docId != PostingsIterator.NO_MORE_DOCS; docId = iterator.nextDoc()) {
+                frequencies[docId] += iterator.frequency();
+            }
+        }
+
+        // Collect the documents in document ID order.
+        ArrayPostingsList result = new ArrayPostingsList();
+        for (int docId = 0; docId < frequencies.length; docId++) {
+            if (frequencies[docId] > 0) {
+                result.add(docId, frequencies[docId]);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,256 @@
+package searchengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parsed query, as a tree that can't be modified. The leaves are words and
+ * prefixes; the inner nodes combine their children:
+ * <ul>
+ *     <li>PHRASE: websites containing the words next to each other, in
+ *     order (the words in quotes)</li>
+ *     <li>NEAR: websites containing both words at most a distance apart,
+ *     in any order ("word1 NEAR/3 word2")</li>
+ *     <li>AND: websites containing all children ("word1 word2")</li>
+ *     <li>OR: websites matching at least one child ("word1 OR word2")</li>
+ *     <li>SITE: websites matching its only child, whose url contains a filter
+ *     ("site:example.com word1")</li>
+ * </ul>
+ * Queries are created by the {@link QueryParser}, and printed back in the
+ * same syntax by {@link #toString()}.
+ *
+ * @author CodeUnicorns
+ */
+public final class Query {
+
+    /**
+     * The types of query nodes.
+     */
+    public enum Type {
+        TERM, PREFIX, PHRASE, NEAR, AND, OR, SITE
+    }
+
+    /**
+     * The type of the node.
+     */
+    private final Type type;
+
+    /**
+     * The word of a TERM, the word with the trailing "*" of a PREFIX, the url
+     * filter of a SITE, and null for the other nodes.
+     */
+    private final String text;
+
+    /**
+     * The children of the node, empty for leaves.
+     */
+    private final List<Query> children;
+
+    /**
+     * The maximum distance of the words of a NEAR, and 0 for the other nodes.
+     */
+    private final int distance;
+
+    /**
+     * Creates a query node.
+     *
+     * @param type the type of the node
+     * @param text the text of the node, or null
+     * @param children the children of the node
+     * @param distance the maximum distance of the words of a NEAR, or 0
+     */
+    private Query(Type type, String text, List<Query> children, int distance) {
+        this.type = type;
+        this.text = text;
+        this.children = Collections.unmodifiableList(new ArrayList<>(children));
+        this.distance = distance;
+    }
+
+    /**
+     * Creates a query node that is not a NEAR.
+     *
+     * @param type the type of the node
+     * @param text the text of the node, or null
+     * @param children the children of the node
+     */
+    private Query(Type type, String text, List<Query> children) {
+        this(type, text, children, 0);
+    }
+
+    /**
+     * Creates a query for the websites containing a word.
+     *
+     * @param word the word
+     * @return the query
+     */
+    public static Query term(String word) {
+        return new Query(Type.TERM, word, Collections.<Query>emptyList());
+    }
+
+    /**
+     * Creates a query for the websites containing a word starting with a prefix.
+     *
+     * @param prefix the prefix, without the "*"
+     * @return the query
+     */
+    public static Query prefix(String prefix) {
+        return new Query(Type.PREFIX, prefix + "*", Collections.<Query>emptyList());
+    }
+
+    /**
+     * Creates a query for the websites containing the words next to each other, in order.
+     *
+     * @param words the words, as TERM queries
+     * @return the query
+     */
+    public static Query phrase(List<Query> words) {
+        return new Query(Type.PHRASE, null, words);
+    }
+
+    /**
+     * Creates a query for the websites containing two words at most a distance
+     * apart, in any order. Words next to each other have a distance of 1.
+     *
+     * @param first the first word, as a TERM query
+     * @param second the second word, as a TERM query
+     * @param distance the maximum distance
+     * @return the query
+     */
+    public static Query near(Query first, Query second, int distance) {
+        return new Query(Type.NEAR, null, Arrays.asList(first, second), distance);
+    }
+
+    /**
+     * Creates a query for the websites matching all of the queries.
+     *
+     * @param queries the queries
+     * @return the query
+     */
+    public static Query and(List<Query> queries) {
+        return new Query(Type.AND, null, queries);
+    }
+
+    /**
+     * Creates a query for the websites matching at least one of the queries.
+     *
+     * @param queries the queries
+     * @return the query
+     */
+    public static Query or(List<Query> queries) {
+        return new Query(Type.OR, null, queries);
+    }
+
+    /**
+     * Creates a query for the websites matching a query, whose url contains a filter.
+     *
+     * @param urlFilter the text the url has to contain
+     * @param query the query
+     * @return the query
+     */
+    public static Query site(String urlFilter, Query query) {
+        return new Query(Type.SITE, urlFilter, Collections.singletonList(query));
+    }
+
+    /**
+     * Gets the type of the node.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the text of the node: the word of a TERM or a PREFIX, as it is looked
+     * up in the index (a prefix ends with "*"), or the url filter of a SITE.
+     *
+     * @return the text, or null for the other nodes
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * Gets the maximum distance of the words of a NEAR.
+     *
+     * @return the distance, or 0 for the other nodes
+     */
+    public int getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * Gets the children of the node.
+     *
+     * @return the children, which can't be modified
+     */
+    public List<Query> getChildren() {
+        return this.children;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Query query = (Query) o;
+        return this.type == query.type
+                && this.distance == query.distance
+                && (this.text == null ? query.text == null : this.text.equals(query.text))
+                && this.children.equals(query.children);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.type.hashCode();
+        result = 31 * result + (this.text == null ? 0 : this.text.hashCode());
+        result = 31 * result + this.children.hashCode();
+        return 31 * result + this.distance;
+    }
+
+    /**
+     * Prints the query in the syntax of the query parser, with single spaces.
+     * Parsing the printed query gives the same query again.
+     *
+     * @return the query string
+     */
+    @Override
+    public String toString() {
+        switch (this.type) {
+            case PHRASE:
+                return "\"" + join(" ") + "\"";
+            case NEAR:
+                return this.children.get(0) + " NEAR/" + this.distance + " " + this.children.get(1);
+            case AND:
+                return join(" ");
+            case OR:
+                return join(" OR ");
+            case SITE:
+                return "site:" + this.text + " " + this.children.get(0);
+            default:
+                return this.text;
+        }
+    }
+
+    /**
+     * Prints the children, separated by a separator.
+     *
+     * @param separator the separator
+     * @return the printed children
+     */
+    private String join(String separator) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.children.size(); i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(this.children.get(i));
+        }
+        return builder.toString();
+    }
+}
@@ -1,8 +1,11 @@
 package searchengine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class is responsible for answering queries to our search engine.
@@ -21,6 +24,58 @@ public class QueryHandler {
      */
     private Score score;
 
+    /**
+     * True if ranked queries should skip websites that cannot make it
+     * to the requested page, instead of scoring every match.
+     */
+    private boolean dynamicPruning;
+
+    /**
+     * The cache of postings lists in front of the index, or null if there is none.
+     */
+    private PostingsCache postingsCache;
+
+    /**
+     * The planner of the queries, which caches the plans of recent queries.
+     */
+    private QueryPlanner planner;
+
+    /**
+     * The generator of the snippets of the websites on a page, or null if there are no snippets.
+     */
+    private SnippetGenerator snippets;
+
+    /**
+     * The maximum number of websites on a page that get a snippet, so a page
+     * requesting all websites doesn't read the positions of all of them.
+     */
+    private static final int MAX_SNIPPETS = 100;
+
+    /**
+     * The number of websites of a subquery that are scored together.
+     */
+    private static final int BLOCK_SIZE = 128;
+
+    /**
+     * The scorer of the url filter, which only restricts the websites and adds nothing to their scores.
+     */
+    private static final TermScorer URL_SCORER = new TermScorer() {
+        @Override
+        public double score(int docId, int frequency) {
+            return 0;
+        }
+
+        @Override
+        public void addScores(int[] docIds, int[] frequencies, int count, double[] scores) {
+            // Nothing to add.
+        }
+
+        @Override
+        public double getMaxScore(int maxFrequency) {
+            return 0;
+        }
+    };
+
     /**
      * The simple constructor of QueryHandler. Uses a TFScore as a default.
      *
@@ -39,6 +94,59 @@ public class QueryHandler {
     public QueryHandler(Index index, Score score) {
         this.index = index;
         this.score = score;
+        this.planner = new QueryPlanner(index);
+    }
+
+    /**
+     * Turns dynamic pruning of ranked queries on or off. With pruning, subqueries
+     * whose highest possible score cannot beat the websites already on the
+     * requested page are skipped. The ranked websites are the same either way,
+     * but the total number of hits is then only a lower bound.
+     *
+     * @param dynamicPruning true to turn pruning on
+     */
+    public void setDynamicPruning(boolean dynamicPruning) {
+        this.dynamicPruning = dynamicPruning;
+    }
+
+    /**
+     * Puts a cache of postings lists in front of the index, which keeps the
+     * postings lists of prefixes and the intersections of pairs of words that
+     * are used again and again by different queries.
+     *
+     * @param maxBytes the maximum total size of the cached postings lists
+     */
+    public void setPostingsCache(long maxBytes) {
+        this.postingsCache = new PostingsCache(this.index, maxBytes);
+        this.planner = new QueryPlanner(this.postingsCache);
+    }
+
+    /**
+     * Turns snippets on or off. With snippets, the best websites of each page
+     * get a window of their text around the query words.
+     *
+     * @param length the number of words in a snippet, or 0 for no snippets
+     */
+    public void setSnippets(int length) {
+        this.snippets = length > 0 ? new SnippetGenerator(this.index, length) : null;
+    }
+
+    /**
+     * Gets the statistics of the cache of postings lists.
+     *
+     * @return the statistics, or null if there is no cache
+     */
+    public CacheStatistics getPostingsCacheStatistics() {
+        return this.postingsCache == null ? null : this.postingsCache.getStatistics();
+    }
+
+    /**
+     * Gets the statistics of the cache of query plans.
+     *
+     * @return the statistics
+     */
+    public CacheStatistics getPlanCacheStatistics() {
+        return this.planner.getStatistics();
     }
 
     /**
@@ -52,162 +160,421 @@ public class QueryHandler {
      * @return the list of websites that matches the query
      */
     public List<ScoredWebsite> getMatchingWebsites(String line) {
-        List<ScoredWebsite> finalResult = new ArrayList<>();
+        return getMatchingWebsites(line, Integer.MAX_VALUE, 0).getWebsites();
+    }
 
-        String urlFilter = null;
-        if (line.startsWith("site:")) {
-            int indexOfFirstSpace = line.indexOf(" ");
-            urlFilter = line.substring(0, indexOfFirstSpace).replace("site:", "");
-            // Extract the actual query (remove the filter).
-            line = line.substring(indexOfFirstSpace + 1);
-        }
+    /**
+     * Answers a query like {@link #getMatchingWebsites(String)}, but only returns
+     * one page of the ranked websites. Only the best offset + limit websites
+     * are kept while ranking, in a bounded heap, and only the websites on the
+     * page are built.
+     *
+     * @param line the query string
+     * @param limit the maximum number of websites to return
+     * @param offset the number of best ranked websites to skip
+     * @return the requested page of websites, and the total number of matching websites
+     */
+    public SearchResult getMatchingWebsites(String line, int limit, int offset) {
+        // Repeated queries are neither parsed nor planned again.
+        QueryPlan plan = this.planner.getPlan(line);
+        List<ConjunctionScorer> subqueries = createSubqueries(plan);
 
-        String[] subqueries = line.split(" OR ");
+        // Keep only the best websites of all matches. Both limit and offset may be
+        // large to request all websites, so the capacity must not overflow.
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
+        int capacity = (int) Math.min((long) offset + limit, index.getDatabaseSize());
+        TopScoreHeap heap = new TopScoreHeap(capacity, index);
 
-        // We will have to combine each of the individual subqueries.
-        for (String subquery: subqueries) {
-            String[] words = subquery.split(" ");
-
-            // If there are multiple spaces between words, the "words" array
-            // might contain empty strings, so we have to filter it.
-            List<String> filteredWords = new ArrayList<>();
-            for (String word: words) {
-                if (! word.isEmpty()) {
-                    filteredWords.add(word);
-                }
+        boolean isTotalHitsExact = true;
+        if (this.dynamicPruning) {
+            isTotalHitsExact = collectWithPruning(subqueries, heap);
+        } else {
+            ScoredDocuments matches = combineResults(subqueries);
+            for (int i = 0; i < matches.size(); i++) {
+                heap.offer(matches.getDocId(i), matches.getScore(i));
             }
-            // Override the initial list with the filtered list.
-            words = filteredWords.toArray(new String[0]);
+        }
+        int totalHits = heap.getTotalOffered();
+        ScoredDocuments ranked = heap.toSortedDocuments();
 
-            // Don't do anything if this split doesn't contain any word.
-            if (words.length == 0) {
-                continue;
+        // Only now the websites are needed, so build the ones on the requested page.
+        String[] snippetWords = this.snippets == null ? null : getSnippetWords(plan);
+        // Phrases and NEARs made the index load the positions, so the snippets use them too.
+        boolean hasConstraints = hasConstraints(plan);
+        List<ScoredWebsite> websites = new ArrayList<>(Math.max(0, ranked.size() - offset));
+        for (int i = offset; i < ranked.size(); i++) {
+            int docId = ranked.getDocId(i);
+            Website site = index.getWebsite(docId);
+            Snippet snippet = null;
+            if (snippetWords != null && i - offset < MAX_SNIPPETS) {
+                snippet = this.snippets.getSnippet(docId, site, snippetWords, hasConstraints);
             }
+            websites.add(new ScoredWebsite(site, ranked.getScore(i), snippet));
+        }
+
+        return new SearchResult(websites, totalHits, isTotalHitsExact, plan.isPhraseMatchExact());
+    }
 
-            // Initialize the partial result as the first search.
-            List<Website> partialResult = index.lookup(words[0]);
-            List<ScoredWebsite> scoredPartialResult = calculateScores(partialResult, words[0]);
+    /**
+     * Gets the words of all subqueries of a query plan, each only once.
+     *
+     * @param plan the query plan
+     * @return the words, where a prefix ends with "*"
+     */
+    private static String[] getSnippetWords(QueryPlan plan) {
+        Set<String> words = new LinkedHashSet<>();
+        for (int subquery = 0; subquery < plan.getSubqueryCount(); subquery++) {
+            words.addAll(Arrays.asList(plan.getWords(subquery)));
+        }
+        return words.toArray(new String[words.size()]);
+    }
 
-            // Intersect all the rest.
-            for (int i = 1; i < words.length; i++) {
-                List<Website> individualResult = index.lookup(words[i]);
-                List<ScoredWebsite> scoredIndividualResult = calculateScores(individualResult, words[i]);
-                scoredPartialResult = intersectResults(scoredPartialResult, scoredIndividualResult);
+    /**
+     * Checks whether a query plan has phrases or NEARs, which the positions of the words have to match.
+     *
+     * @param plan the query plan
+     * @return true if a subquery has a PHRASE or NEAR query
+     */
+    private static boolean hasConstraints(QueryPlan plan) {
+        for (int subquery = 0; subquery < plan.getSubqueryCount(); subquery++) {
+            if (! plan.getConstraints(subquery).isEmpty()) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            // Combine the results.
-            finalResult = combineResults(scoredPartialResult, finalResult);
+    /**
+     * Creates a scorer for each subquery of the query plan.
+     *
+     * @param plan the query plan
+     * @return the scorers of the subqueries
+     */
+    private List<ConjunctionScorer> createSubqueries(QueryPlan plan) {
+        // The url filter is one more list every subquery is intersected with,
+        // so websites with other urls are skipped before they are scored.
+        PostingsList urlPostings = null;
+        if (plan.getUrlFilter() != null) {
+            Index source = this.postingsCache != null ? this.postingsCache : index;
+            urlPostings = source.getUrlPostings(plan.getUrlFilter());
         }
 
-        if (urlFilter != null) {
-            // We have to filter the urls.
-            List<ScoredWebsite> urlFilteredResult = new ArrayList<>();
-            for (ScoredWebsite site: finalResult) {
-                if (site.getUrl().contains(urlFilter)) {
-                    urlFilteredResult.add(site);
+        // We will have to combine each of the individual subqueries.
+        List<ConjunctionScorer> result = new ArrayList<>();
+        for (int subquery = 0; subquery < plan.getSubqueryCount(); subquery++) {
+            String[] words = plan.getWords(subquery);
+            int[] weights = plan.getWeights(subquery);
+            int[] frequencies = plan.getDocumentFrequencies(subquery);
+            PostingsList[] postings;
+            TermScorer[] scorers = new TermScorer[words.length + (urlPostings == null ? 0 : 1)];
+            if (this.postingsCache != null) {
+                // The scores use the cached prefixes as well.
+                postings = this.postingsCache.getPostings(words);
+                for (int i = 0; i < words.length; i++) {
+                    scorers[i] = weigh(this.score.getTermScorer(words[i], frequencies[i], this.postingsCache), weights[i]);
+                }
+            } else {
+                postings = new PostingsList[words.length];
+                for (int i = 0; i < words.length; i++) {
+                    postings[i] = index.getPostings(words[i]);
+                    scorers[i] = weigh(this.score.getTermScorer(words[i], frequencies[i], index), weights[i]);
                 }
             }
+            if (urlPostings != null) {
+                postings = Arrays.copyOf(postings, words.length + 1);
+                postings[words.length] = urlPostings;
+                scorers[words.length] = URL_SCORER;
+            }
+            ConjunctionScorer scorer = new ConjunctionScorer(postings, scorers);
 
-            // The final result is the url filtered list.
-            finalResult = urlFilteredResult;
-        }
+            // Only phrase queries look at the positions of the words.
+            final List<Query> constraints = plan.getConstraints(subquery);
+            if (! constraints.isEmpty()) {
+                final Index source = this.postingsCache != null ? this.postingsCache : index;
+                scorer.setFilter(new DocumentFilter() {
+                    /**
+                     * The positions of each word of a constraint, reused for every website.
+                     */
+                    private int[][] positions = new int[0][];
 
-        // Sort the final result before returning it.
-        finalResult.sort(new Comparator<ScoredWebsite>() {
-            @Override
-            public int compare(ScoredWebsite o1, ScoredWebsite o2) {
-                // If the score is the same, order the sites alphabetically by title.
-                if (o1.getScore() == o2.getScore()) {
-                    return o1.getTitle().compareTo(o2.getTitle());
-                }
+                    /**
+                     * The number of positions of each word, parallel to the positions.
+                     */
+                    private int[] counts = new int[0];
 
-                // Decreasing order for scores.
-                return - Double.compare(o1.getScore(), o2.getScore());
+                    @Override
+                    public boolean accept(int docId) {
+                        for (Query constraint: constraints) {
+                            int wordCount = constraint.getChildren().size();
+                            if (this.positions.length < wordCount) {
+                                this.positions = Arrays.copyOf(this.positions, wordCount);
+                                this.counts = new int[wordCount];
+                                for (int i = 0; i < wordCount; i++) {
+                                    if (this.positions[i] == null) {
+                                        this.positions[i] = new int[16];
+                                    }
+                                }
+                            }
+                            if (! matchesPositions(constraint, docId, source, this.positions, this.counts)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                });
             }
-        });
+            result.add(scorer);
+        }
 
-        return finalResult;
+        return result;
     }
 
     /**
-     * Returns a list with scored websites contained by both lists.
-     * Adds up the scores.
+     * Checks whether the positions of the words of a PHRASE or a NEAR on a
+     * website match it. The website contains all of the words.
      *
-     * @param list1 first scored list
-     * @param list2 second scored list
-     * @return the intersection of the 2 scored lists
+     * @param constraint the PHRASE or NEAR query
+     * @param docId the document ID of the website
+     * @param source the index the positions are read from
+     * @param positions the arrays the positions of the words are read into,
+     * which are replaced by larger ones if they are too small
+     * @param counts the array the number of positions of each word is put in
+     * @return true if the website matches
      */
-    private List<ScoredWebsite> intersectResults(List<ScoredWebsite> list1, List<ScoredWebsite> list2) {
-        List<ScoredWebsite> result = new ArrayList<>();
+    private static boolean matchesPositions(Query constraint, int docId, Index source, int[][] positions, int[] counts) {
+        List<Query> words = constraint.getChildren();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i).getText();
+            counts[i] = source.getPositions(word, docId, positions[i]);
+            while (counts[i] == positions[i].length) {
+                // The array is full, so there may be more positions.
+                positions[i] = new int[2 * positions[i].length];
+                counts[i] = source.getPositions(word, docId, positions[i]);
+            }
+        }
 
-        for (ScoredWebsite site1: list1) {
-            for (ScoredWebsite site2: list2) {
-                if (site1.equals(site2)) {
-                    // Add up the score.
-                    double totalScore = site1.getScore() + site2.getScore();
-                    site1.setScore(totalScore);
-                    result.add(site1);
-                    break;
+        if (constraint.getType() == Query.Type.PHRASE) {
+            // Each position of the first word may start the phrase.
+            for (int j = 0; j < counts[0]; j++) {
+                int start = positions[0][j];
+                int i = 1;
+                while (i < words.size() && Arrays.binarySearch(positions[i], 0, counts[i], start + i) >= 0) {
+                    i++;
+                }
+                if (i == words.size()) {
+                    return true;
                 }
             }
+            return false;
         }
 
-        return result;
+        // For NEAR, find the closest occurrences of the two words, which have
+        // to be different occurrences if both words are the same.
+        for (int j = 0; j < counts[0]; j++) {
+            int position = positions[0][j];
+            int other = Arrays.binarySearch(positions[1], 0, counts[1], position);
+            int next = other >= 0 ? other + 1 : -other - 1;
+            int previous = other >= 0 ? other - 1 : -other - 2;
+            if (next < counts[1] && positions[1][next] - position <= constraint.getDistance()) {
+                return true;
+            }
+            if (previous >= 0 && position - positions[1][previous] <= constraint.getDistance()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Returns a list with scored websites contained by at least one of the lists.
-     * If the website is contained by both lists, its score will be the maximum one.
+     * Multiplies the scores of a word that occurs several times in a subquery,
+     * so it scores as if each occurrence was scored on its own.
      *
-     * @param list1 first scored list
-     * @param list2 second scored list
-     * @return the reunion of the 2 scored lists
+     * @param scorer the scorer of the word
+     * @param weight the number of times the word occurs in the subquery
+     * @return the weighted scorer
      */
-    private List<ScoredWebsite> combineResults(List<ScoredWebsite> list1, List<ScoredWebsite> list2) {
-        // Initialize the result as a copy of list1.
-        List<ScoredWebsite> result = new ArrayList<>(list1);
+    private static TermScorer weigh(final TermScorer scorer, final int weight) {
+        if (weight == 1) {
+            return scorer;
+        }
 
-        // Consider the websites in the second list.
-        for (ScoredWebsite site2: list2) {
-            int index = -1;
+        return new TermScorer() {
+            /**
+             * The scores of the word on the last block, before they are weighted.
+             */
+            private double[] block = new double[0];
 
-            // Try to find the site2 in list1.
-            for (ScoredWebsite site1: list1) {
-                if (site2.equals(site1)) {
-                    index = list1.indexOf(site1);
-                    break;
+            @Override
+            public double score(int docId, int frequency) {
+                return weight * scorer.score(docId, frequency);
+            }
+
+            @Override
+            public void addScores(int[] docIds, int[] frequencies, int count, double[] scores) {
+                if (this.block.length < count) {
+                    this.block = new double[count];
+                } else {
+                    Arrays.fill(this.block, 0, count, 0);
+                }
+                scorer.addScores(docIds, frequencies, count, this.block);
+                for (int i = 0; i < count; i++) {
+                    scores[i] += weight * this.block[i];
                 }
             }
 
-            if (index == -1) {
-                // site2 was not found in list1, so we have to add it to the result.
-                result.add(site2);
-            } else {
-                // site2 was found in list1, so if it has a higher score, we should update the list.
-                if (site2.getScore() > list1.get(index).getScore()) {
-                    list1.set(index, site2);
+            @Override
+            public double getMaxScore(int maxFrequency) {
+                return weight * scorer.getMaxScore(maxFrequency);
+            }
+        };
+    }
+
+    /**
+     * Collects the best websites of all subqueries into the heap, using the MaxScore
+     * strategy. The subqueries are visited document by document. The score of a
+     * website is the maximum of its subquery scores, so once the heap is full, a
+     * subquery whose highest possible score is below the worst score in the heap
+     * cannot bring a new website into the heap, and is dropped.
+     *
+     * @param subqueries the scorers of the subqueries
+     * @param heap the heap collecting the best websites
+     * @return true if no subquery was dropped, so all matching websites were offered to the heap
+     */
+    private boolean collectWithPruning(List<ConjunctionScorer> subqueries, TopScoreHeap heap) {
+        // Sort the subqueries by decreasing highest possible score, so
+        // the ones that can be dropped are at the end of the array.
+        ConjunctionScorer[] scorers = subqueries.toArray(new ConjunctionScorer[0]);
+        if (scorers.length == 1) {
+            // No website of a single subquery scores above its upper bound, so
+            // it is never dropped, and its websites are scored in blocks.
+            collectBlocks(scorers[0], heap);
+            return true;
+        }
+        Arrays.sort(scorers, new Comparator<ConjunctionScorer>() {
+            @Override
+            public int compare(ConjunctionScorer o1, ConjunctionScorer o2) {
+                return - Double.compare(o1.getMaxScore(), o2.getMaxScore());
+            }
+        });
+
+        int active = scorers.length;
+        for (ConjunctionScorer scorer: scorers) {
+            scorer.nextDoc();
+        }
+
+        while (true) {
+            // Find the smallest document ID among the active subqueries.
+            int docId = PostingsIterator.NO_MORE_DOCS;
+            for (int i = 0; i < active; i++) {
+                docId = Math.min(docId, scorers[i].docId());
+            }
+
+            // All subqueries are exhausted.
+            if (docId == PostingsIterator.NO_MORE_DOCS) {
+                break;
+            }
+
+            // Take the maximum score and move every subquery containing the document forward.
+            double maxScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < active; i++) {
+                if (scorers[i].docId() == docId) {
+                    maxScore = Math.max(maxScore, scorers[i].score());
+                    scorers[i].nextDoc();
+                }
+            }
+
+            heap.offer(docId, maxScore);
+
+            // Drop the subqueries that can no longer reach the heap.
+            if (heap.isFull()) {
+                while (active > 0 && scorers[active - 1].getMaxScore() < heap.getMinScore()) {
+                    active--;
                 }
             }
         }
 
-        return result;
+        return active == scorers.length;
+    }
+
+    /**
+     * Scores all websites of a subquery in blocks, and offers them to the heap.
+     *
+     * @param subquery the scorer of the subquery
+     * @param heap the heap collecting the best websites
+     */
+    private static void collectBlocks(ConjunctionScorer subquery, TopScoreHeap heap) {
+        int[] docIds = new int[BLOCK_SIZE];
+        double[] scores = new double[BLOCK_SIZE];
+        int count;
+        do {
+            count = subquery.nextBlock(docIds, scores);
+            for (int i = 0; i < count; i++) {
+                heap.offer(docIds[i], scores[i]);
+            }
+        } while (count == BLOCK_SIZE);
     }
 
     /**
-     * Transforms a list of websites in a list of scored websites,
-     * calculating the word's score on each website.
+     * Returns the documents matching at least one of the subqueries, merging
+     * all subqueries at once. If a document matches several subqueries, its
+     * score will be the maximum one.
      *
-     * @param sites the sites to calculate the scores for
-     * @param word the word
-     * @return a list of scored websites with calculated scores
+     * @param subqueries the scorers of the subqueries
+     * @return the union of the subqueries' matches, in increasing document ID order
      */
-    private List<ScoredWebsite> calculateScores(List<Website> sites, String word) {
-        List<ScoredWebsite> scoredWebsites = new ArrayList<>();
-        for (Website site: sites) {
-            double score = this.score.getScore(word, site, index);
-            scoredWebsites.add(new ScoredWebsite(site.getUrl(), site.getTitle(), site.getWords(), score));
+    private ScoredDocuments combineResults(List<ConjunctionScorer> subqueries) {
+        List<ScoredDocuments> lists = new ArrayList<>();
+        int[] docIds = new int[BLOCK_SIZE];
+        double[] scores = new double[BLOCK_SIZE];
+        for (ConjunctionScorer subquery: subqueries) {
+            ScoredDocuments list = new ScoredDocuments();
+            int count;
+            do {
+                count = subquery.nextBlock(docIds, scores);
+                for (int i = 0; i < count; i++) {
+                    list.add(docIds[i], scores[i]);
+                }
+            } while (count == BLOCK_SIZE);
+            lists.add(list);
+        }
+
+        if (lists.isEmpty()) {
+            return new ScoredDocuments();
+        }
+
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+
+        ScoredDocuments result = new ScoredDocuments();
+        int[] positions = new int[lists.size()];
+        while (true) {
+            // Find the smallest document ID among the heads of the lists.
+            int docId = PostingsIterator.NO_MORE_DOCS;
+            for (int i = 0; i < lists.size(); i++) {
+                if (positions[i] < lists.get(i).size()) {
+                    docId = Math.min(docId, lists.get(i).getDocId(positions[i]));
+                }
+            }
+
+            // All lists are exhausted.
+            if (docId == PostingsIterator.NO_MORE_DOCS) {
+                break;
+            }
+
+            // Take the maximum score and move past the document in every list containing it.
+            double maxScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < lists.size(); i++) {
+                ScoredDocuments list = lists.get(i);
+                if (positions[i] < list.size() && list.getDocId(positions[i]) == docId) {
+                    maxScore = Math.max(maxScore, list.getScore(positions[i]));
+                    positions[i]++;
+                }
+            }
+            result.add(docId, maxScore);
         }
 
-        return scoredWebsites;
+        return result;
     }
 }
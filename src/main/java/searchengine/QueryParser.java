@@ -0,0 +1,215 @@
+package searchengine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses query strings into {@link Query} trees. A query has the form
+ * "[site:filter] subquery1 OR subquery2 OR ...", where a subquery has the form
+ * "word1 word2 ...", and a word ending with "*" is a prefix. Words in quotes
+ * are a phrase, and "word1 NEAR/k word2" requires the words to be at most k
+ * words apart. The parsed query is always an OR of ANDs of words, phrases and
+ * NEARs, inside a SITE if there is a url filter. Empty subqueries are left out.
+ *
+ * The string is scanned once with indexOf, instead of being split with
+ * regular expressions.
+ *
+ * @author CodeUnicorns
+ */
+public class QueryParser {
+
+    /**
+     * The separator of subqueries.
+     */
+    private static final String OR = " OR ";
+
+    /**
+     * The start of the url filter.
+     */
+    private static final String SITE = "site:";
+
+    /**
+     * The start of the NEAR operator, which is followed by the distance.
+     */
+    private static final String NEAR = "NEAR/";
+
+    /**
+     * Parses a query string.
+     *
+     * @param line the query string
+     * @return the query
+     */
+    public static Query parse(String line) {
+        String urlFilter = null;
+        int start = 0;
+        if (line.startsWith(SITE)) {
+            // The filter is the first word; without a space, the query is empty.
+            int indexOfFirstSpace = line.indexOf(' ');
+            int end = indexOfFirstSpace < 0 ? line.length() : indexOfFirstSpace;
+            urlFilter = line.substring(0, end).replace(SITE, "");
+            start = end + 1;
+        }
+
+        List<Query> subqueries = new ArrayList<>();
+        while (start <= line.length()) {
+            int end = indexOfSeparator(line, start);
+            if (end < 0) {
+                end = line.length();
+            }
+            Query subquery = parseSubquery(line, start, end);
+            if (subquery != null) {
+                subqueries.add(subquery);
+            }
+            start = end + OR.length();
+        }
+
+        Query query = Query.or(subqueries);
+        return urlFilter == null ? query : Query.site(urlFilter, query);
+    }
+
+    /**
+     * Finds the next separator of subqueries that is not inside a phrase.
+     *
+     * @param line the query string
+     * @param start the start of a subquery
+     * @return the position of the separator, or -1 if there is none
+     */
+    private static int indexOfSeparator(String line, int start) {
+        boolean inPhrase = false;
+        for (int i = start; i < line.length(); i++) {
+            if (inPhrase) {
+                inPhrase = line.charAt(i) != '"';
+            } else if (line.charAt(i) == '"') {
+                // Like in the subquery, only a quote at the start of a word starts a phrase.
+                inPhrase = i == start || line.charAt(i - 1) == ' ';
+            } else if (line.startsWith(OR, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the words, phrases and NEARs of a subquery, separated by any number of spaces.
+     *
+     * @param line the query string
+     * @param start the start of the subquery
+     * @param end the end of the subquery
+     * @return the AND of the words, or null if there are no words
+     */
+    private static Query parseSubquery(String line, int start, int end) {
+        List<Query> words = new ArrayList<>();
+        String near = null;
+        while (start < end) {
+            if (line.charAt(start) == ' ') {
+                start++;
+                continue;
+            }
+
+            Query word;
+            if (line.charAt(start) == '"') {
+                // A phrase ends at the closing quote, or at the end of the subquery.
+                int close = line.indexOf('"', start + 1);
+                if (close < 0 || close > end) {
+                    close = end;
+                }
+                word = parsePhrase(line.substring(start + 1, close));
+                start = close + 1;
+            } else {
+                int space = line.indexOf(' ', start);
+                if (space < 0 || space > end) {
+                    space = end;
+                }
+                word = parseWord(line.substring(start, space));
+                start = space + 1;
+            }
+            if (word == null) {
+                continue;
+            }
+
+            if (near != null) {
+                // The NEAR operator needs a word on both sides, otherwise it is just a word.
+                Query previous = words.get(words.size() - 1);
+                if (word.getType() == Query.Type.TERM) {
+                    int distance = Integer.parseInt(near.substring(NEAR.length()));
+                    words.set(words.size() - 1, Query.near(previous, word, distance));
+                    near = null;
+                    continue;
+                }
+                words.add(Query.term(near));
+                near = null;
+            }
+
+            if (isNear(word) && ! words.isEmpty() && words.get(words.size() - 1).getType() == Query.Type.TERM) {
+                near = word.getText();
+            } else {
+                words.add(word);
+            }
+        }
+        if (near != null) {
+            words.add(Query.term(near));
+        }
+
+        return words.isEmpty() ? null : Query.and(words);
+    }
+
+    /**
+     * Parses the words of a phrase. Stars are part of the words in a phrase.
+     *
+     * @param phrase the text between the quotes
+     * @return the phrase, a single word, or null if there are no words
+     */
+    private static Query parsePhrase(String phrase) {
+        List<Query> words = new ArrayList<>();
+        int start = 0;
+        while (start <= phrase.length()) {
+            int space = phrase.indexOf(' ', start);
+            if (space < 0) {
+                space = phrase.length();
+            }
+            if (space > start) {
+                words.add(Query.term(phrase.substring(start, space)));
+            }
+            start = space + 1;
+        }
+
+        if (words.isEmpty()) {
+            return null;
+        }
+        return words.size() == 1 ? words.get(0) : Query.phrase(words);
+    }
+
+    /**
+     * Checks whether a word is the NEAR operator, like "NEAR/3".
+     *
+     * @param word the parsed word
+     * @return true if the word is a NEAR operator with a distance from 1 to 999999999
+     */
+    private static boolean isNear(Query word) {
+        String text = word.getText();
+        if (word.getType() != Query.Type.TERM || ! text.startsWith(NEAR)
+                || text.length() == NEAR.length() || text.length() > NEAR.length() + 9) {
+            return false;
+        }
+        for (int i = NEAR.length(); i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return Integer.parseInt(text.substring(NEAR.length())) > 0;
+    }
+
+    /**
+     * Parses a word, which is a prefix if it ends with "*".
+     *
+     * @param word the word
+     * @return the word or prefix query
+     */
+    private static Query parseWord(String word) {
+        if (word.endsWith("*")) {
+            // The index ignores all stars of a prefix.
+            return Query.prefix(word.replace("*", ""));
+        }
+        return Query.term(word);
+    }
+}
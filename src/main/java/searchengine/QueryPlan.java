@@ -0,0 +1,154 @@
+package searchengine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A query compiled by the {@link QueryPlanner} into what the query handler
+ * evaluates: the url filter, and the subqueries with their distinct words,
+ * rarest first, each with the number of times it occurs in its subquery
+ * and the number of websites it occurs on, and the phrases and NEARs the positions of the words have to match.
+ * A plan can't be modified, so it can be cached and shared by threads.
+ *
+ * @author CodeUnicorns
+ */
+public final class QueryPlan {
+
+    /**
+     * The url filter, or null if there is none.
+     */
+    private final String urlFilter;
+
+    /**
+     * The distinct words of each subquery, by increasing document frequency.
+     */
+    private final String[][] words;
+
+    /**
+     * The number of times each word occurs in its subquery, parallel to the words.
+     */
+    private final int[][] weights;
+
+    /**
+     * The number of websites each word occurs on, parallel to the words.
+     */
+    private final int[][] documentFrequencies;
+
+    /**
+     * The PHRASE and NEAR queries of each subquery.
+     */
+    private final List<List<Query>> constraints;
+
+    /**
+     * False if phrases or NEARs were reduced to their words, because the index has no positions.
+     */
+    private final boolean isPhraseMatchExact;
+
+    /**
+     * Creates a plan.
+     *
+     * @param urlFilter the url filter, or null if there is none
+     * @param words the distinct words of each subquery
+     * @param weights the number of times each word occurs in its subquery
+     * @param documentFrequencies the number of websites each word occurs on
+     * @param constraints the PHRASE and NEAR queries of each subquery
+     * @param isPhraseMatchExact false if phrases or NEARs were reduced to their words
+     */
+    QueryPlan(String urlFilter, String[][] words, int[][] weights, int[][] documentFrequencies,
+              List<List<Query>> constraints, boolean isPhraseMatchExact) {
+        this.urlFilter = urlFilter;
+        this.words = words;
+        this.weights = weights;
+        this.documentFrequencies = documentFrequencies;
+        this.constraints = constraints;
+        this.isPhraseMatchExact = isPhraseMatchExact;
+    }
+
+    /**
+     * Gets the url filter.
+     *
+     * @return the text the urls have to contain, or null if there is none
+     */
+    public String getUrlFilter() {
+        return this.urlFilter;
+    }
+
+    /**
+     * Gets the number of subqueries that can match websites.
+     *
+     * @return the number of subqueries
+     */
+    public int getSubqueryCount() {
+        return this.words.length;
+    }
+
+    /**
+     * Gets the distinct words of a subquery.
+     *
+     * @param subquery the number of the subquery
+     * @return a copy of the words, rarest first
+     */
+    public String[] getWords(int subquery) {
+        return this.words[subquery].clone();
+    }
+
+    /**
+     * Gets the number of times each word occurs in a subquery. The score of
+     * a word counts that many times.
+     *
+     * @param subquery the number of the subquery
+     * @return a copy of the weights, parallel to the words
+     */
+    public int[] getWeights(int subquery) {
+        return this.weights[subquery].clone();
+    }
+
+    /**
+     * Gets the number of websites each word of a subquery occurs on, as
+     * looked up by the planner, so the scores don't look them up again.
+     *
+     * @param subquery the number of the subquery
+     * @return a copy of the document frequencies, parallel to the words
+     */
+    public int[] getDocumentFrequencies(int subquery) {
+        return this.documentFrequencies[subquery].clone();
+    }
+
+    /**
+     * Gets the phrases and NEARs of a subquery. A website containing all words
+     * only matches the subquery if the positions of the words match them too.
+     *
+     * @param subquery the number of the subquery
+     * @return the PHRASE and NEAR queries, which can't be modified
+     */
+    public List<Query> getConstraints(int subquery) {
+        return Collections.unmodifiableList(this.constraints.get(subquery));
+    }
+
+    /**
+     * Checks whether the phrases and NEARs of the query are matched exactly.
+     * If the index has no positions, they only require all of their words,
+     * so they may match more websites than they should.
+     *
+     * @return false if phrases or NEARs were reduced to their words
+     */
+    public boolean isPhraseMatchExact() {
+        return this.isPhraseMatchExact;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("QueryPlan{urlFilter=").append(this.urlFilter).append(", subqueries=[");
+        for (int i = 0; i < this.words.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(Arrays.toString(this.words[i])).append('x').append(Arrays.toString(this.weights[i]));
+            if (! this.constraints.get(i).isEmpty()) {
+                builder.append(this.constraints.get(i));
+            }
+        }
+        return builder.append("]}").toString();
+    }
+}
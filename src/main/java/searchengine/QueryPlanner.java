@@ -0,0 +1,168 @@
+package searchengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles queries into {@link QueryPlan}s for an index. Within a subquery,
+ * repeated words are merged into one word with a weight, and the words are
+ * ordered by their document frequency, so the rarest word leads the intersection.
+ * A subquery with a word that occurs on no website can't match, so it is left
+ * out, and so is a subquery that is the same as an earlier one, because a
+ * website gets the best score of the subqueries it matches. The words of
+ * phrases and NEARs are words of their subquery, and the phrases and NEARs
+ * are kept to check the positions of the words. An index without positions,
+ * like an index segment, can't check them, so there its phrases and NEARs
+ * only require all of their words.
+ *
+ * The plans of recent query strings are cached, so a repeated query is
+ * neither parsed nor planned again. The plans depend on the index, so a
+ * planner must not be used anymore once its index is rebuilt.
+ *
+ * @author CodeUnicorns
+ */
+public class QueryPlanner {
+
+    /**
+     * The maximum number of cached plans.
+     */
+    private static final int PLAN_CACHE_SIZE = 1024;
+
+    /**
+     * The index the document frequencies are looked up in.
+     */
+    private Index index;
+
+    /**
+     * The plans of recent query strings.
+     */
+    private WeightedCache<String, QueryPlan> planCache = new WeightedCache<>(PLAN_CACHE_SIZE, PLAN_CACHE_SIZE);
+
+    /**
+     * Creates a planner for an index.
+     *
+     * @param index the index the document frequencies are looked up in
+     */
+    public QueryPlanner(Index index) {
+        this.index = index;
+    }
+
+    /**
+     * Gets the plan of a query string, from the cache if it was planned recently.
+     *
+     * @param line the query string
+     * @return the plan
+     */
+    public QueryPlan getPlan(String line) {
+        QueryPlan plan = this.planCache.get(line);
+        if (plan == null) {
+            plan = plan(QueryParser.parse(line));
+            this.planCache.put(line, plan, 1);
+        }
+        return plan;
+    }
+
+    /**
+     * Plans a parsed query, which is an OR of ANDs of words, maybe inside a SITE.
+     *
+     * @param query the query
+     * @return the plan
+     */
+    public QueryPlan plan(Query query) {
+        String urlFilter = null;
+        if (query.getType() == Query.Type.SITE) {
+            urlFilter = query.getText();
+            query = query.getChildren().get(0);
+        }
+
+        List<String[]> words = new ArrayList<>();
+        List<int[]> weights = new ArrayList<>();
+        List<int[]> documentFrequencies = new ArrayList<>();
+        List<List<Query>> constraints = new ArrayList<>();
+        Set<List<Object>> planned = new HashSet<>();
+        // False once a phrase or NEAR is reduced to its words.
+        boolean isPhraseMatchExact = true;
+
+        // A word in several subqueries is only looked up once, which matters for
+        // prefixes, whose document frequency takes merging their postings lists.
+        final Map<String, Integer> frequencies = new HashMap<>();
+        for (Query subquery: query.getChildren()) {
+            // Count how often each word occurs in the subquery.
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            List<Query> subqueryConstraints = new ArrayList<>();
+            for (Query child: subquery.getChildren()) {
+                List<Query> childWords = Collections.singletonList(child);
+                if (child.getType() == Query.Type.PHRASE || child.getType() == Query.Type.NEAR) {
+                    childWords = child.getChildren();
+                    if (this.index.hasPositions()) {
+                        subqueryConstraints.add(child);
+                    } else {
+                        isPhraseMatchExact = false;
+                    }
+                }
+                for (Query word: childWords) {
+                    Integer count = counts.get(word.getText());
+                    counts.put(word.getText(), count == null ? 1 : count + 1);
+                }
+            }
+
+            boolean isEmpty = false;
+            for (String word: counts.keySet()) {
+                Integer frequency = frequencies.get(word);
+                if (frequency == null) {
+                    frequency = this.index.getDocumentFrequency(word);
+                    frequencies.put(word, frequency);
+                }
+                isEmpty |= frequency == 0;
+            }
+            if (isEmpty) {
+                continue;
+            }
+
+            // The rarest word first; equal words are ordered alphabetically, so
+            // the same words in another order give the same plan.
+            String[] subqueryWords = counts.keySet().toArray(new String[0]);
+            Arrays.sort(subqueryWords, new Comparator<String>() {
+                @Override
+                public int compare(String o1, String o2) {
+                    int result = Integer.compare(frequencies.get(o1), frequencies.get(o2));
+                    return result != 0 ? result : o1.compareTo(o2);
+                }
+            });
+            int[] subqueryWeights = new int[subqueryWords.length];
+            int[] subqueryFrequencies = new int[subqueryWords.length];
+            for (int i = 0; i < subqueryWords.length; i++) {
+                subqueryWeights[i] = counts.get(subqueryWords[i]);
+                subqueryFrequencies[i] = frequencies.get(subqueryWords[i]);
+            }
+
+            if (planned.add(Arrays.<Object>asList(Arrays.asList(subqueryWords), Arrays.toString(subqueryWeights),
+                    new HashSet<>(subqueryConstraints)))) {
+                words.add(subqueryWords);
+                weights.add(subqueryWeights);
+                documentFrequencies.add(subqueryFrequencies);
+                constraints.add(subqueryConstraints);
+            }
+        }
+
+        return new QueryPlan(urlFilter, words.toArray(new String[0][]), weights.toArray(new int[0][]),
+                documentFrequencies.toArray(new int[0][]), constraints, isPhraseMatchExact);
+    }
+
+    /**
+     * Gets the statistics of the plan cache.
+     *
+     * @return the statistics
+     */
+    public CacheStatistics getStatistics() {
+        return this.planCache.getStatistics();
+    }
+}
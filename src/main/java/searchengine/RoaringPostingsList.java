@@ -0,0 +1,527 @@
+package searchengine;
+
+import java.util.Arrays;
+
+/**
+ * A postings list for words on many websites, stored like a Roaring bitmap.
+ * The document IDs are split into chunks of 65536 IDs by their high 16 bits,
+ * and each chunk is stored in the smaller of two containers: a sorted array of
+ * the low 16 bits for sparse chunks, or a bitmap for dense chunks.
+ *
+ * The containers make skipping ahead cheap for both kinds: an array container
+ * is searched by galloping, and a bitmap container just tests the bit of the
+ * target. So when a rare word leads an intersection with a common word, every
+ * document of the rare word costs a constant amount of work in the common word.
+ * The position of a bit, needed for its frequency, is counted with popcounts
+ * from a running count stored for every 8 words of the bitmap.
+ *
+ * The frequencies are stored as a byte per posting, as most are small. Larger
+ * frequencies are stored separately, with a marker byte in their place.
+ *
+ * @author CodeUnicorns
+ */
+public class RoaringPostingsList extends PostingsList {
+
+    /**
+     * The number of document IDs in a chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of bitmap words per running count.
+     */
+    private static final int WORDS_PER_RANK = 8;
+
+    /**
+     * The frequency byte marking a frequency stored separately.
+     */
+    private static final int LARGE_FREQUENCY = 0xFF;
+
+    /**
+     * The high 16 bits of the document IDs of each container.
+     */
+    private char[] keys;
+
+    /**
+     * The position of the first posting of each container, followed by the size of the list.
+     */
+    private int[] containerStarts;
+
+    /**
+     * The low 16 bits of the document IDs of each array container, or null for bitmap containers.
+     */
+    private char[][] arrays;
+
+    /**
+     * The bitmap of each bitmap container, or null for array containers.
+     */
+    private long[][] bitmaps;
+
+    /**
+     * For each bitmap container, the number of bits set before every 8th word.
+     */
+    private char[][] ranks;
+
+    /**
+     * The frequency of each posting, or {@link #LARGE_FREQUENCY} for larger frequencies.
+     */
+    private byte[] frequencies;
+
+    /**
+     * The positions of the postings with large frequencies, in increasing order.
+     */
+    private int[] largePositions;
+
+    /**
+     * The large frequencies, parallel to their positions.
+     */
+    private int[] largeFrequencies;
+
+    /**
+     * The number of postings.
+     */
+    private int size;
+
+    /**
+     * The highest term frequency in the list.
+     */
+    private int maxFrequency;
+
+    /**
+     * Creates the containers for a postings list.
+     *
+     * @param postings the postings list
+     * @param databaseSize the number of documents in the index, which bounds the size of the last bitmap
+     */
+    public RoaringPostingsList(PostingsList postings, int databaseSize) {
+        this.size = postings.size();
+        this.maxFrequency = postings.getMaxFrequency();
+        this.frequencies = new byte[this.size];
+
+        int containerCount = 0;
+        char[] keys = new char[4];
+        int[] containerStarts = new int[5];
+        char[][] arrays = new char[4][];
+        long[][] bitmaps = new long[4][];
+        char[][] ranks = new char[4][];
+        int largeCount = 0;
+        int[] largePositions = new int[0];
+        int[] largeFrequencies = new int[0];
+
+        // The low bits of the current chunk.
+        char[] lows = new char[Math.min(CHUNK_SIZE, Math.max(this.size, 1))];
+        int lowCount = 0;
+        int key = -1;
+
+        PostingsIterator iterator = postings.iterator();
+        for (int position = 0; position <= this.size; position++) {
+            int docId = position < this.size ? iterator.nextDoc() : PostingsIterator.NO_MORE_DOCS;
+
+            // A new chunk starts, so the previous one becomes a container.
+            if (lowCount > 0 && (docId >>> 16) != key) {
+                if (containerCount == keys.length) {
+                    keys = Arrays.copyOf(keys, containerCount * 2);
+                    containerStarts = Arrays.copyOf(containerStarts, containerCount * 2 + 1);
+                    arrays = Arrays.copyOf(arrays, containerCount * 2);
+                    bitmaps = Arrays.copyOf(bitmaps, containerCount * 2);
+                    ranks = Arrays.copyOf(ranks, containerCount * 2);
+                }
+
+                // A bitmap costs a bit per document ID of the chunk, an array two bytes per posting.
+                int chunkLength = Math.max(1, Math.min(CHUNK_SIZE, databaseSize - (key << 16)));
+                keys[containerCount] = (char) key;
+                containerStarts[containerCount] = position - lowCount;
+                if (lowCount * 16 > chunkLength) {
+                    bitmaps[containerCount] = toBitmap(lows, lowCount, Math.max(chunkLength, lows[lowCount - 1] + 1));
+                    ranks[containerCount] = countRanks(bitmaps[containerCount]);
+                } else {
+                    arrays[containerCount] = Arrays.copyOf(lows, lowCount);
+                }
+                containerCount++;
+                lowCount = 0;
+            }
+            if (position == this.size) {
+                break;
+            }
+
+            key = docId >>> 16;
+            lows[lowCount++] = (char) docId;
+
+            int frequency = iterator.frequency();
+            if (frequency < LARGE_FREQUENCY) {
+                this.frequencies[position] = (byte) frequency;
+            } else {
+                this.frequencies[position] = (byte) LARGE_FREQUENCY;
+                if (largeCount == largePositions.length) {
+                    largePositions = Arrays.copyOf(largePositions, Math.max(4, largeCount * 2));
+                    largeFrequencies = Arrays.copyOf(largeFrequencies, Math.max(4, largeCount * 2));
+                }
+                largePositions[largeCount] = position;
+                largeFrequencies[largeCount] = frequency;
+                largeCount++;
+            }
+        }
+        containerStarts[containerCount] = this.size;
+
+        this.keys = Arrays.copyOf(keys, containerCount);
+        this.containerStarts = Arrays.copyOf(containerStarts, containerCount + 1);
+        this.arrays = Arrays.copyOf(arrays, containerCount);
+        this.bitmaps = Arrays.copyOf(bitmaps, containerCount);
+        this.ranks = Arrays.copyOf(ranks, containerCount);
+        this.largePositions = Arrays.copyOf(largePositions, largeCount);
+        this.largeFrequencies = Arrays.copyOf(largeFrequencies, largeCount);
+    }
+
+    /**
+     * Sets the bits of the low bits of a chunk.
+     *
+     * @param lows the low bits, in increasing order
+     * @param count the number of low bits
+     * @param chunkLength the number of document IDs the bitmap covers
+     * @return the bitmap
+     */
+    private static long[] toBitmap(char[] lows, int count, int chunkLength) {
+        long[] bitmap = new long[(chunkLength + 63) >>> 6];
+        for (int i = 0; i < count; i++) {
+            bitmap[lows[i] >>> 6] |= 1L << lows[i];
+        }
+        return bitmap;
+    }
+
+    /**
+     * Counts the bits set before every 8th word of a bitmap.
+     *
+     * @param bitmap the bitmap
+     * @return the running counts
+     */
+    private static char[] countRanks(long[] bitmap) {
+        char[] ranks = new char[(bitmap.length + WORDS_PER_RANK - 1) / WORDS_PER_RANK];
+        int count = 0;
+        for (int word = 0; word < bitmap.length; word++) {
+            if (word % WORDS_PER_RANK == 0) {
+                ranks[word / WORDS_PER_RANK] = (char) count;
+            }
+            count += Long.bitCount(bitmap[word]);
+        }
+        return ranks;
+    }
+
+    /**
+     * Counts the bits set before a bit of a bitmap container.
+     *
+     * @param container the bitmap container
+     * @param low the bit
+     * @return the position of the bit within the container
+     */
+    private int rank(int container, int low) {
+        long[] bitmap = this.bitmaps[container];
+        int word = low >>> 6;
+        int rank = this.ranks[container][word / WORDS_PER_RANK];
+        for (int i = word - word % WORDS_PER_RANK; i < word; i++) {
+            rank += Long.bitCount(bitmap[i]);
+        }
+        return rank + Long.bitCount(bitmap[word] & ((1L << low) - 1));
+    }
+
+    /**
+     * Finds the container of a position.
+     *
+     * @param position the position in the list
+     * @return the container
+     */
+    private int findContainer(int position) {
+        int low = 0;
+        int high = this.keys.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (this.containerStarts[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the document ID at the given position.
+     *
+     * @param position the position in the list
+     * @return the document ID
+     */
+    @Override
+    public int getDocId(int position) {
+        int container = findContainer(position);
+        int index = position - this.containerStarts[container];
+        int high = this.keys[container] << 16;
+        if (this.arrays[container] != null) {
+            return high | this.arrays[container][index];
+        }
+
+        // Find the group of 8 words, then the word, then the bit.
+        char[] ranks = this.ranks[container];
+        int group = ranks.length - 1;
+        while (ranks[group] > index) {
+            group--;
+        }
+        long[] bitmap = this.bitmaps[container];
+        int word = group * WORDS_PER_RANK;
+        int remaining = index - ranks[group];
+        while (Long.bitCount(bitmap[word]) <= remaining) {
+            remaining -= Long.bitCount(bitmap[word]);
+            word++;
+        }
+        long bits = bitmap[word];
+        for (int i = 0; i < remaining; i++) {
+            bits &= bits - 1;
+        }
+        return high | (word << 6) | Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Gets the term frequency at the given position.
+     *
+     * @param position the position in the list
+     * @return the number of occurrences of the word on the website
+     */
+    @Override
+    public int getFrequency(int position) {
+        int frequency = this.frequencies[position] & 0xFF;
+        if (frequency == LARGE_FREQUENCY) {
+            return this.largeFrequencies[Arrays.binarySearch(this.largePositions, position)];
+        }
+        return frequency;
+    }
+
+    /**
+     * Gets the highest term frequency in the list.
+     *
+     * @return the maximum number of occurrences of the word on a website
+     */
+    @Override
+    public int getMaxFrequency() {
+        return this.maxFrequency;
+    }
+
+    /**
+     * Gets the number of document IDs in the list.
+     *
+     * @return the size of the list
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of bitmap containers, which are used for dense chunks.
+     *
+     * @return the number of bitmap containers
+     */
+    public int getBitmapCount() {
+        int count = 0;
+        for (long[] bitmap: this.bitmaps) {
+            if (bitmap != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the approximate size of the containers and frequencies in memory.
+     *
+     * @return the size in bytes
+     */
+    public long getSizeInBytes() {
+        long bytes = this.frequencies.length + 8L * this.largePositions.length + 6L * this.keys.length;
+        for (int container = 0; container < this.keys.length; container++) {
+            if (this.arrays[container] != null) {
+                bytes += 2L * this.arrays[container].length;
+            } else {
+                bytes += 8L * this.bitmaps[container].length + 2L * this.ranks[container].length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets an iterator over the postings. Skipping ahead is a galloping
+     * search in array containers and a bit test in bitmap containers.
+     *
+     * @return the iterator, positioned before the first posting
+     */
+    @Override
+    public PostingsIterator iterator() {
+        return new PostingsIterator() {
+            /**
+             * The current position in the list.
+             */
+            private int position = -1;
+
+            /**
+             * The current container.
+             */
+            private int container = 0;
+
+            /**
+             * The low 16 bits of the current document ID.
+             */
+            private int low = -1;
+
+            @Override
+            public int docId() {
+                if (position < 0) {
+                    return -1;
+                }
+
+                return position < size ? keys[container] << 16 | low : NO_MORE_DOCS;
+            }
+
+            @Override
+            public int nextDoc() {
+                if (position + 1 >= size) {
+                    position = size;
+                    return NO_MORE_DOCS;
+                }
+
+                position++;
+                if (position == containerStarts[container + 1]) {
+                    // The first posting of the next container.
+                    container++;
+                    low = -1;
+                }
+                low = arrays[container] != null
+                        ? arrays[container][position - containerStarts[container]]
+                        : nextSetBit(bitmaps[container], low + 1);
+
+                return docId();
+            }
+
+            @Override
+            public int advance(int target) {
+                if (position >= 0 && docId() >= target) {
+                    return docId();
+                }
+
+                // Find the first container that can contain the target.
+                int key = target >>> 16;
+                int first = container;
+                while (first < keys.length && keys[first] < key) {
+                    first++;
+                }
+                if (first == keys.length) {
+                    position = size;
+                    return NO_MORE_DOCS;
+                }
+
+                // In a later container, the first posting is the one.
+                int targetLow = keys[first] == key ? target & 0xFFFF : 0;
+                boolean sameContainer = first == container && position >= 0;
+                container = first;
+
+                if (arrays[container] != null) {
+                    char[] array = arrays[container];
+                    int start = sameContainer ? position - containerStarts[container] : 0;
+                    int index = gallop(array, start, targetLow);
+                    if (index == array.length) {
+                        return moveToContainer(container + 1);
+                    }
+                    position = containerStarts[container] + index;
+                    low = array[index];
+                } else {
+                    int bit = nextSetBit(bitmaps[container], targetLow);
+                    if (bit < 0) {
+                        return moveToContainer(container + 1);
+                    }
+                    position = containerStarts[container] + rank(container, bit);
+                    low = bit;
+                }
+
+                return docId();
+            }
+
+            /**
+             * Moves to the first posting of a container.
+             *
+             * @param next the container
+             * @return the new document ID, or {@link #NO_MORE_DOCS}
+             */
+            private int moveToContainer(int next) {
+                container = Math.min(next, keys.length - 1);
+                if (next == keys.length) {
+                    position = size;
+                    return NO_MORE_DOCS;
+                }
+
+                position = containerStarts[container];
+                low = arrays[container] != null ? arrays[container][0] : nextSetBit(bitmaps[container], 0);
+                return docId();
+            }
+
+            @Override
+            public int frequency() {
+                return getFrequency(position);
+            }
+        };
+    }
+
+    /**
+     * Finds the first set bit at or after a position.
+     *
+     * @param bitmap the bitmap
+     * @param from the position to start at
+     * @return the position of the bit, or -1 if there is none
+     */
+    private static int nextSetBit(long[] bitmap, int from) {
+        int word = from >>> 6;
+        if (word >= bitmap.length) {
+            return -1;
+        }
+
+        long bits = bitmap[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == bitmap.length) {
+                return -1;
+            }
+            bits = bitmap[word];
+        }
+        return (word << 6) | Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Finds the first value that is at least the target, with a galloping search.
+     *
+     * @param array the sorted values
+     * @param start the position to start at
+     * @param target the target value
+     * @return the position, or the length of the array if all values are smaller
+     */
+    private static int gallop(char[] array, int start, int target) {
+        int low = start;
+        int bound = 1;
+        while (low + bound < array.length && array[low + bound] < target) {
+            bound *= 2;
+        }
+
+        int high = Math.min(low + bound, array.length);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        return "RoaringPostingsList{" +
+                "size=" + size +
+                ", containers=" + keys.length +
+                ", bitmaps=" + getBitmapCount() +
+                '}';
+    }
+}
@@ -16,4 +16,27 @@ public interface Score {
      * @return the score of the word on the website
      */
     double getScore(String word, Website website, Index index);
+
+    /**
+     * Creates a scorer for a single query word. All values that only depend
+     * on the word are computed here, once per query word.
+     *
+     * @param word the word we are calculating the scores for
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    TermScorer getTermScorer(String word, Index index);
+
+    /**
+     * Creates a scorer for a single query word whose document frequency is
+     * already known, for example from the query plan, so it isn't looked up
+     * again. For a prefix, looking it up means merging the postings lists of
+     * all its words.
+     *
+     * @param word the word we are calculating the scores for
+     * @param documentFrequency the number of websites the word occurs on
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    TermScorer getTermScorer(String word, int documentFrequency, Index index);
 }
@@ -0,0 +1,97 @@
+package searchengine;
+
+import java.util.Arrays;
+
+/**
+ * A list of document IDs with their scores, used while evaluating a query.
+ * The IDs and scores are stored in parallel primitive arrays, so no object is
+ * allocated per website until the final result is built.
+ *
+ * @author CodeUnicorns
+ */
+public class ScoredDocuments {
+
+    /**
+     * The initial capacity of the arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The document IDs, in increasing order.
+     */
+    private int[] docIds;
+
+    /**
+     * The scores, parallel to the document IDs.
+     */
+    private double[] scores;
+
+    /**
+     * The number of stored documents.
+     */
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public ScoredDocuments() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with the given capacity.
+     *
+     * @param capacity the initial capacity
+     */
+    public ScoredDocuments(int capacity) {
+        this.docIds = new int[Math.max(1, capacity)];
+        this.scores = new double[Math.max(1, capacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a document to the end of the list. The IDs have to be added in increasing order.
+     *
+     * @param docId the document ID
+     * @param score the score of the document
+     */
+    public void add(int docId, double score) {
+        if (this.size == this.docIds.length) {
+            this.docIds = Arrays.copyOf(this.docIds, this.size * 2);
+            this.scores = Arrays.copyOf(this.scores, this.size * 2);
+        }
+
+        this.docIds[this.size] = docId;
+        this.scores[this.size] = score;
+        this.size++;
+    }
+
+    /**
+     * Gets the document ID at the given position.
+     *
+     * @param position the position in the list
+     * @return the document ID
+     */
+    public int getDocId(int position) {
+        return this.docIds[position];
+    }
+
+    /**
+     * Gets the score at the given position.
+     *
+     * @param position the position in the list
+     * @return the score
+     */
+    public double getScore(int position) {
+        return this.scores[position];
+    }
+
+    /**
+     * Gets the number of documents in the list.
+     *
+     * @return the size of the list
+     */
+    public int size() {
+        return this.size;
+    }
+}
@@ -1,31 +1,103 @@
 package searchengine;
 
-import java.util.List;
-
 /**
- * A decoration class for Website. Used in Task 3 for handling scores.
+ * A website on a page of search results, with its score. It only holds what
+ * is shown for a result, the url, title and score, and not the words of the
+ * website. It can't be modified, so results can be shared, for example by
+ * the query cache of the {@link SearchEngine}.
+ *
+ * The query handler ranks document IDs and scores, and only creates these
+ * objects for the websites on the requested page. The best of them may have
+ * a {@link Snippet} of their text.
  *
  * @author CodeUnicorns
  */
-public class ScoredWebsite extends Website {
+public final class ScoredWebsite {
+
+    /**
+     * the website's url
+     */
+    private final String url;
+
+    /**
+     * the website's title
+     */
+    private final String title;
 
     /**
      * the score of the website
      */
-    private double score;
+    private final double score;
+
+    /**
+     * the snippet of the website's text, or null
+     */
+    private final Snippet snippet;
+
+    /**
+     * Creates a {@code ScoredWebsite} object from a url, a title and a calculated score.
+     *
+     * @param url the website's url
+     * @param title the website's title
+     * @param score the website's score
+     */
+    public ScoredWebsite(String url, String title, double score) {
+        this(url, title, score, null);
+    }
 
     /**
-     * Creates a {@code ScoredWebsite} object from a url, a title, a list of words
-     * that are contained on the website and a calculated score.
+     * Creates a {@code ScoredWebsite} object from a url, a title, a calculated score and a snippet.
      *
      * @param url the website's url
      * @param title the website's title
-     * @param words the website's list of words
      * @param score the website's score
+     * @param snippet the snippet of the website's text, or null
      */
-    public ScoredWebsite(String url, String title, List<String> words, double score) {
-        super(url, title, words);
+    public ScoredWebsite(String url, String title, double score, Snippet snippet) {
+        this.url = url;
+        this.title = title;
         this.score = score;
+        this.snippet = snippet;
+    }
+
+    /**
+     * Creates a {@code ScoredWebsite} object from a website and a calculated score.
+     * The words of the website are not kept.
+     *
+     * @param website the website
+     * @param score the website's score
+     */
+    public ScoredWebsite(Website website, double score) {
+        this(website, score, null);
+    }
+
+    /**
+     * Creates a {@code ScoredWebsite} object from a website, a calculated score and a snippet.
+     *
+     * @param website the website
+     * @param score the website's score
+     * @param snippet the snippet of the website's text, or null
+     */
+    public ScoredWebsite(Website website, double score, Snippet snippet) {
+        this(website.getUrl(), website.getTitle(), score, snippet);
+    }
+
+    /**
+     * Returns the website's url.
+     *
+     * @return the website's url.
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Returns the website's title.
+     *
+     * @return the website's title.
+     */
+    public String getTitle() {
+        return this.title;
     }
 
     /**
@@ -38,11 +110,48 @@ public class ScoredWebsite extends Website {
     }
 
     /**
-     * Sets the website's score
+     * Gets the snippet of the website's text.
      *
-     * @param score the new score of the website
+     * @return the snippet, or null if the website has none
      */
-    public void setScore(double score) {
-        this.score = score;
+    public Snippet getSnippet() {
+        return this.snippet;
+    }
+
+    /**
+     * Checks whether two results are the same website with the same score.
+     * The snippet is left out, because it only depends on the website and the query.
+     *
+     * @param o the other object
+     * @return true if the results are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ScoredWebsite that = (ScoredWebsite) o;
+        return Double.compare(this.score, that.score) == 0
+                && this.url.equals(that.url)
+                && this.title.equals(that.title);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.url.hashCode();
+        result = 31 * result + this.title.hashCode();
+        return 31 * result + Double.hashCode(this.score);
+    }
+
+    @Override
+    public String toString() {
+        return "ScoredWebsite{" +
+                "title='" + title + '\'' +
+                ", url='" + url + '\'' +
+                ", score=" + score +
+                '}';
     }
 }
@@ -1,5 +1,6 @@
 package searchengine;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -8,12 +9,51 @@ import java.util.ArrayList;
  * the necessary configuration (i.e. building an index and a query
  * handler) to then be ready to receive search queries.
  *
+ * Answers are kept in a bounded {@link WeightedCache}, because popular queries
+ * are asked again and again. Answers can't be modified, so cached answers are
+ * shared between callers.
+ *
  * @author Willard Rafnsson
  * @author Martin Aumüller
  * @author Leonid Rusnac
  */
 public class SearchEngine {
-    private QueryHandler queryHandler;
+
+    /**
+     * The maximum number of answers in the query cache.
+     */
+    private static final int QUERY_CACHE_SIZE = 1024;
+
+    /**
+     * The maximum number of websites in all answers in the query cache.
+     */
+    private static final long QUERY_CACHE_WEIGHT = 100000;
+
+    /**
+     * The maximum size in bytes of the postings lists cached by the query handler.
+     */
+    private static final long POSTINGS_CACHE_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The number of words in the snippets of the websites.
+     */
+    private static final int SNIPPET_LENGTH = SnippetGenerator.DEFAULT_LENGTH;
+
+    /**
+     * The query handler of the current index.
+     */
+    private volatile Generation generation;
+
+    /**
+     * The score used to rank the websites.
+     */
+    private final Score score;
+
+    /**
+     * The answers of recent queries, keyed by the generation of the index,
+     * the page and the normalized query.
+     */
+    private WeightedCache<String, SearchResult> queryCache = new WeightedCache<>(QUERY_CACHE_SIZE, QUERY_CACHE_WEIGHT);
 
     /**
      * Creates a {@code SearchEngine} object from a list of websites.
@@ -21,15 +61,100 @@ public class SearchEngine {
      * @param sites the list of websites
      */
     public SearchEngine(List<Website> sites) {
+        this(sites.iterator());
+    }
+
+    /**
+     * Creates a {@code SearchEngine} object from websites that are read one at
+     * a time, for example by a {@link WebsiteReader}.
+     *
+     * @param sites the websites
+     */
+    public SearchEngine(Iterator<Website> sites) {
+        this(sites, new TFIDFScore());
+    }
+
+    /**
+     * Creates a {@code SearchEngine} object from websites that are read one at
+     * a time, which ranks the websites with the given score.
+     *
+     * @param sites the websites
+     * @param score the score used to rank the websites, such as {@link BM25Score}
+     */
+    public SearchEngine(Iterator<Website> sites, Score score) {
+        this(buildIndex(sites), score);
+    }
+
+    /**
+     * Creates a {@code SearchEngine} object from an index that is already built,
+     * for example an index segment.
+     *
+     * @param index the index
+     */
+    public SearchEngine(Index index) {
+        this(index, new TFIDFScore());
+    }
+
+    /**
+     * Creates a {@code SearchEngine} object from an index that is already built,
+     * which ranks the websites with the given score.
+     *
+     * @param index the index
+     * @param score the score used to rank the websites, such as {@link BM25Score}
+     */
+    public SearchEngine(Index index, Score score) {
+        this.score = score;
+        setIndex(index);
+    }
+
+    /**
+     * Replaces the index, for example after the websites changed. The cached
+     * answers of the old index are not served anymore.
+     *
+     * @param index the new index
+     */
+    public void setIndex(Index index) {
+        QueryHandler queryHandler = new QueryHandler(index, this.score);
+
+        // Ranked pages skip the subqueries that cannot make it to the page.
+        queryHandler.setDynamicPruning(true);
+
+        // Queries sharing a prefix or a pair of words share their postings lists.
+        queryHandler.setPostingsCache(POSTINGS_CACHE_BYTES);
+
+        // The best websites of a page show their text around the query words.
+        queryHandler.setSnippets(SNIPPET_LENGTH);
+
+        // Searches that are still running on the old index put their answers
+        // under the old generation, where they are never found.
+        Generation previous = this.generation;
+        this.generation = new Generation(queryHandler, previous == null ? 0 : previous.number + 1);
+        this.queryCache.clear();
+    }
+
+    /**
+     * Rebuilds the index from websites, and replaces the current index with it.
+     *
+     * @param sites the websites
+     */
+    public void rebuild(Iterator<Website> sites) {
+        setIndex(buildIndex(sites));
+    }
+
+    /**
+     * Builds the index of the websites.
+     *
+     * @param sites the websites
+     * @return the index
+     */
+    private static Index buildIndex(Iterator<Website> sites) {
         // As proven by benchmarking, the fastest index is InvertedIndexHashMap,
         // so we will be using that one from now on.
-        Index index = new InvertedIndexHashMap();
+        InvertedIndex index = new InvertedIndexHashMap();
+        // Index the websites on all cores.
+        index.setParallelism(Runtime.getRuntime().availableProcessors());
         index.build(sites);
-
-        // Specify here the score that will be used to rank the websites,
-        // otherwise TFScore will be used by default.
-        Score score = new TFIDFScore();
-        queryHandler = new QueryHandler(index, score);
+        return index;
     }
 
     /**
@@ -42,7 +167,64 @@ public class SearchEngine {
         if (query == null || query.isEmpty() ) {
             return new ArrayList<ScoredWebsite>();
         }
-        List<ScoredWebsite> resultList = queryHandler.getMatchingWebsites(query);
-        return resultList;
+        return search(query, Integer.MAX_VALUE, 0).getWebsites();
+    }
+
+    /**
+     * Returns one page of the websites matching the query.
+     *
+     * @param query the query
+     * @param limit the maximum number of websites to return
+     * @param offset the number of best ranked websites to skip
+     * @return the page of websites matching the query, and the total number of matches
+     */
+    public SearchResult search(String query, int limit, int offset) {
+        if (query == null || query.isEmpty() ) {
+            return new SearchResult(new ArrayList<ScoredWebsite>(), 0);
+        }
+
+        Generation generation = this.generation;
+        String normalized = QueryParser.parse(query).toString();
+        String key = generation.number + ":" + limit + ":" + offset + ":" + normalized;
+        SearchResult result = this.queryCache.get(key);
+        if (result == null) {
+            result = generation.queryHandler.getMatchingWebsites(normalized, limit, offset);
+            // An answer costs about as much memory as its websites.
+            this.queryCache.put(key, result, result.getWebsites().size() + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the statistics of the query cache, such as its hit rate.
+     *
+     * @return the statistics of the query cache
+     */
+    public CacheStatistics getQueryCacheStatistics() {
+        return this.queryCache.getStatistics();
+    }
+
+    /**
+     * Gets the statistics of the cache of postings lists, whose weight is in
+     * bytes. This cache belongs to the index, so it starts empty after a rebuild.
+     *
+     * @return the statistics of the postings cache
+     */
+    public CacheStatistics getPostingsCacheStatistics() {
+        return this.generation.queryHandler.getPostingsCacheStatistics();
+    }
+
+    /**
+     * A query handler together with the number of its index, which tells the
+     * cached answers of different indexes apart.
+     */
+    private static final class Generation {
+        private final QueryHandler queryHandler;
+        private final long number;
+
+        Generation(QueryHandler queryHandler, long number) {
+            this.queryHandler = queryHandler;
+            this.number = number;
+        }
     }
 }
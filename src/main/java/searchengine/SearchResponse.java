@@ -0,0 +1,106 @@
+package searchengine;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The answer of the "/search" endpoint: one page of results, with the total
+ * number of hits and the position of the page. Only the url, title and score
+ * of each website on the page are sent, with the snippet of its text if it
+ * has one, so the size of the answer depends on the page size, and not on the
+ * text of the websites. The answer is streamed with a {@link JsonWriter}:
+ * <pre>
+ * {"query":"...","offset":0,"limit":20,"totalHits":42,"totalHitsExact":true,"phraseMatchExact":true,
+ *  "results":[{"url":"...","title":"...","score":1.5,
+ *              "snippet":{"text":"...","highlights":[[4,9], ...]}}, ...]}
+ * </pre>
+ * Each highlight is the start and end of a range of the snippet's text, in
+ * UTF-16 characters, like the indexes of JavaScript strings. If "phraseMatchExact"
+ * is false, the phrases and NEARs of the query only required their words.
+ *
+ * @author CodeUnicorns
+ */
+public class SearchResponse {
+
+    /**
+     * The query.
+     */
+    private final String query;
+
+    /**
+     * The number of best ranked websites before the page.
+     */
+    private final int offset;
+
+    /**
+     * The maximum number of websites on the page.
+     */
+    private final int limit;
+
+    /**
+     * The page of results.
+     */
+    private final SearchResult result;
+
+    /**
+     * Creates a response.
+     *
+     * @param query the query
+     * @param offset the number of best ranked websites before the page
+     * @param limit the maximum number of websites on the page
+     * @param result the page of results
+     */
+    public SearchResponse(String query, int offset, int limit, SearchResult result) {
+        this.query = query;
+        this.offset = offset;
+        this.limit = limit;
+        this.result = result;
+    }
+
+    /**
+     * Writes the response as JSON.
+     *
+     * @param out the output, which is not closed
+     * @throws IOException if writing fails
+     */
+    public void write(Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject()
+                .name("query").value(this.query)
+                .name("offset").value(this.offset)
+                .name("limit").value(this.limit)
+                .name("totalHits").value(this.result.getTotalHits())
+                .name("totalHitsExact").value(this.result.isTotalHitsExact())
+                .name("phraseMatchExact").value(this.result.isPhraseMatchExact())
+                .name("results").beginArray();
+        for (ScoredWebsite website: this.result.getWebsites()) {
+            json.beginObject()
+                    .name("url").value(website.getUrl())
+                    .name("title").value(website.getTitle())
+                    .name("score").value(website.getScore());
+            if (website.getSnippet() != null) {
+                writeSnippet(json.name("snippet"), website.getSnippet());
+            }
+            json.endObject();
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    /**
+     * Writes a snippet as an object with its text and its highlights.
+     *
+     * @param json the writer
+     * @param snippet the snippet
+     * @throws IOException if writing fails
+     */
+    private static void writeSnippet(JsonWriter json, Snippet snippet) throws IOException {
+        json.beginObject()
+                .name("text").value(snippet.getText())
+                .name("highlights").beginArray();
+        for (int i = 0; i < snippet.getHighlightCount(); i++) {
+            json.beginArray().value(snippet.getHighlightStart(i)).value(snippet.getHighlightEnd(i)).endArray();
+        }
+        json.endArray().endObject();
+    }
+}
@@ -0,0 +1,110 @@
+package searchengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of search results: the best ranked websites of a query,
+ * together with the total number of websites matching the query.
+ * It can't be modified, so it can be shared between callers.
+ *
+ * @author CodeUnicorns
+ */
+public class SearchResult {
+
+    /**
+     * The websites of the requested page, best first.
+     */
+    private final List<ScoredWebsite> websites;
+
+    /**
+     * The number of websites matching the query.
+     */
+    private final int totalHits;
+
+    /**
+     * False if the total number of hits is only a lower bound.
+     */
+    private final boolean isTotalHitsExact;
+
+    /**
+     * False if phrases or NEARs only required their words.
+     */
+    private final boolean isPhraseMatchExact;
+
+    /**
+     * Creates a {@code SearchResult} object.
+     *
+     * @param websites the websites of the requested page
+     * @param totalHits the number of websites matching the query
+     */
+    public SearchResult(List<ScoredWebsite> websites, int totalHits) {
+        this(websites, totalHits, true);
+    }
+
+    /**
+     * Creates a {@code SearchResult} object, whose total number of hits may be a lower bound.
+     *
+     * @param websites the websites of the requested page, which are copied
+     * @param totalHits the number of websites matching the query, or a lower bound of it
+     * @param isTotalHitsExact false if totalHits is only a lower bound
+     */
+    public SearchResult(List<ScoredWebsite> websites, int totalHits, boolean isTotalHitsExact) {
+        this(websites, totalHits, isTotalHitsExact, true);
+    }
+
+    /**
+     * Creates a {@code SearchResult} object, whose phrases and NEARs may not have been matched exactly.
+     *
+     * @param websites the websites of the requested page, which are copied
+     * @param totalHits the number of websites matching the query, or a lower bound of it
+     * @param isTotalHitsExact false if totalHits is only a lower bound
+     * @param isPhraseMatchExact false if phrases or NEARs only required their words
+     */
+    public SearchResult(List<ScoredWebsite> websites, int totalHits, boolean isTotalHitsExact, boolean isPhraseMatchExact) {
+        this.websites = Collections.unmodifiableList(new ArrayList<>(websites));
+        this.totalHits = totalHits;
+        this.isTotalHitsExact = isTotalHitsExact;
+        this.isPhraseMatchExact = isPhraseMatchExact;
+    }
+
+    /**
+     * Gets the websites of the requested page.
+     *
+     * @return the websites, best first, which can't be modified
+     */
+    public List<ScoredWebsite> getWebsites() {
+        return this.websites;
+    }
+
+    /**
+     * Gets the number of websites matching the query, including those not on the page.
+     *
+     * @return the total number of hits
+     */
+    public int getTotalHits() {
+        return this.totalHits;
+    }
+
+    /**
+     * Checks whether the total number of hits is exact. It is only a lower bound
+     * if the query handler skipped websites that could not make it to the page.
+     *
+     * @return true if the total number of hits is exact
+     */
+    public boolean isTotalHitsExact() {
+        return this.isTotalHitsExact;
+    }
+
+    /**
+     * Checks whether the phrases and NEARs of the query were matched exactly.
+     * They only require all of their words if the index has no positions, like
+     * an index segment, so the websites may contain the words in any order.
+     *
+     * @return true if the phrases and NEARs were matched exactly
+     */
+    public boolean isPhraseMatchExact() {
+        return this.isPhraseMatchExact;
+    }
+}
@@ -0,0 +1,454 @@
+package searchengine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An index read from an index segment file, written by {@link SegmentWriter}.
+ * The file is memory-mapped instead of read, so opening it is almost instant,
+ * and processes opening the same segment share the operating system's page cache.
+ * The postings lists are read straight from the mapped file.
+ *
+ * The segment only stores the url and title of each website, so the websites
+ * returned by this index have an empty list of words.
+ *
+ * @author CodeUnicorns
+ */
+public class SegmentIndex implements Index {
+
+    /**
+     * The file extension of index segments.
+     */
+    public static final String FILE_EXTENSION = ".seg";
+
+    /**
+     * The first four bytes of a segment file: "SEG3".
+     */
+    static final int MAGIC = 0x53454733;
+
+    /**
+     * The size of the header: magic, codec, database size, term count and four section offsets.
+     */
+    static final int HEADER_SIZE = 48;
+
+    /**
+     * The codec of the string lengths.
+     */
+    static final PostingsCodec LENGTH_CODEC = new VByteCodec();
+
+    /**
+     * The mapped segment file.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The codec the full postings blocks were encoded with.
+     */
+    private PostingsCodec codec;
+
+    /**
+     * The number of websites in the segment.
+     */
+    private int databaseSize;
+
+    /**
+     * The number of words in the segment.
+     */
+    private int termCount;
+
+    /**
+     * The position of the term index, which holds the position of each
+     * word's postings list, by term ID.
+     */
+    private int termIndexOffset;
+
+    /**
+     * The position of the document index, which holds the position of
+     * each website's entry, by document ID.
+     */
+    private int docIndexOffset;
+
+    /**
+     * The term dictionary, read from the segment when it is opened.
+     */
+    private TermAutomaton terms;
+
+    /**
+     * The index of the urls of the websites, built when it is first needed.
+     */
+    private UrlIndex urlIndex;
+
+    /**
+     * The lengths of the websites, read from the segment when it is opened.
+     */
+    private LengthNorms lengthNorms;
+
+    /**
+     * The index of the titles of the websites, built when it is first needed.
+     */
+    private TitleIndex titleIndex;
+
+    /**
+     * The maximum number of words a prefix is expanded to.
+     */
+    private int maxPrefixExpansion = Integer.MAX_VALUE;
+
+    /**
+     * The empty dictionary of the websites, which have no words.
+     */
+    private TermDictionary dictionary = new TermDictionary();
+
+    /**
+     * Creates an index from a mapped segment file.
+     *
+     * @param buffer the content of the segment file
+     * @throws IOException if the content is not a segment
+     */
+    private SegmentIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not an index segment");
+        }
+
+        this.buffer = buffer;
+        this.codec = getCodec(buffer.getInt(4));
+        this.databaseSize = buffer.getInt(8);
+        this.termCount = buffer.getInt(12);
+        this.termIndexOffset = (int) buffer.getLong(16);
+        this.docIndexOffset = (int) buffer.getLong(24);
+        this.terms = TermAutomaton.read(buffer, (int) buffer.getLong(32));
+        if (this.terms.size() != this.termCount) {
+            throw new IOException("corrupt index segment");
+        }
+        this.lengthNorms = LengthNorms.read(buffer, (int) buffer.getLong(40), this.databaseSize);
+    }
+
+    /**
+     * Opens an index segment file by memory-mapping it.
+     *
+     * @param filename the path of the segment file
+     * @return the index
+     * @throws IOException if the file can't be read or is not a segment
+     */
+    public static SegmentIndex open(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            // A single mapping can't be larger than 2 GB.
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("index segment larger than 2 GB: " + filename);
+            }
+
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SegmentIndex(buffer);
+        }
+    }
+
+    /**
+     * Checks whether a database file is an index segment, judging by its name.
+     *
+     * @param filename the path of the file
+     * @return true if the file is an index segment
+     */
+    public static boolean isSegment(String filename) {
+        return filename.endsWith(FILE_EXTENSION);
+    }
+
+    /**
+     * Sets the maximum number of words a prefix query is expanded to. If a
+     * prefix matches more words, only the words on the most websites are used,
+     * which bounds the cost of very broad prefixes such as "a*".
+     *
+     * @param maxPrefixExpansion the maximum number of words, by default unlimited
+     * @throws IllegalArgumentException if the maximum is less than 1
+     */
+    public void setMaxPrefixExpansion(int maxPrefixExpansion) {
+        if (maxPrefixExpansion < 1) {
+            throw new IllegalArgumentException("Maximum prefix expansion must be at least 1: " + maxPrefixExpansion);
+        }
+        this.maxPrefixExpansion = maxPrefixExpansion;
+    }
+
+    /**
+     * A segment is written once by {@link SegmentWriter} and can't be rebuilt.
+     *
+     * @param sites The list of websites that should be indexed
+     */
+    @Override
+    public void build(List<Website> sites) {
+        throw new UnsupportedOperationException("index segments are read-only");
+    }
+
+    /**
+     * Given a query word, returns a list of all websites that contain the word.
+     *
+     * @param query The query word
+     * @return the list of websites that contains the query word.
+     */
+    @Override
+    public List<Website> lookup(String query) {
+        PostingsList postings = getPostings(query);
+
+        List<Website> result = new ArrayList<>();
+        PostingsIterator iterator = postings.iterator();
+        for (int docId = iterator.nextDoc(); docId != PostingsIterator.NO_MORE_DOCS; docId = iterator.nextDoc()) {
+            result.add(getWebsite(docId));
+        }
+
+        return result;
+    }
+
+    /**
+     * Given a query word, returns the postings list of the websites that contain the word.
+     * The term ID of the word is found with the term dictionary.
+     *
+     * @param query The query word
+     * @return the postings list of the query word.
+     */
+    @Override
+    public PostingsList getPostings(String query) {
+        if (query == null) {
+            return new ArrayPostingsList();
+        }
+
+        // We have to check if the query word uses prefix search.
+        if (query.endsWith("*")) {
+            return prefixSearch(query.replace("*", ""));
+        }
+
+        int termId = this.terms.getTermId(query);
+        if (termId < 0) {
+            return new ArrayPostingsList();
+        }
+
+        return readPostings(termId);
+    }
+
+    /**
+     * Gets the number of websites that contain the query word. For a single
+     * word it is read from the header of its postings list, without reading
+     * the list. A prefix has to merge the postings lists of its words, so its
+     * document frequency should be looked up once per query.
+     *
+     * @param query The query word
+     * @return the document frequency of the query word.
+     */
+    @Override
+    public int getDocumentFrequency(String query) {
+        if (query == null || query.endsWith("*")) {
+            return getPostings(query).size();
+        }
+
+        int termId = this.terms.getTermId(query);
+        if (termId < 0) {
+            return 0;
+        }
+        return BlockPostingsList.readSize(this.buffer, this.buffer.getInt(this.termIndexOffset + 4 * termId));
+    }
+
+    /**
+     * Given a url filter, returns the postings list of the websites whose url
+     * contains the filter. The segment doesn't store an index of the urls, so
+     * it is built from the document store by the first "site:" query.
+     *
+     * @param urlFilter The text the url has to contain
+     * @return the postings list of the websites.
+     */
+    @Override
+    public PostingsList getUrlPostings(String urlFilter) {
+        return getUrlIndex().getPostings(urlFilter);
+    }
+
+    /**
+     * A segment doesn't store the words of the websites, so it has no
+     * positions, see {@link #hasPositions()}.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @return an empty array
+     */
+    @Override
+    public int[] getPositions(String word, int docId) {
+        return new int[0];
+    }
+
+    /**
+     * A segment doesn't store the words of the websites, so it has no
+     * positions, see {@link #hasPositions()}.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @param positions the array the positions would be put in
+     * @return 0
+     */
+    @Override
+    public int getPositions(String word, int docId, int[] positions) {
+        return 0;
+    }
+
+    /**
+     * A segment doesn't store the words of the websites, so phrase and NEAR
+     * queries only require all of their words, and their results are marked
+     * as not exact.
+     *
+     * @return false
+     */
+    @Override
+    public boolean hasPositions() {
+        return false;
+    }
+
+    /**
+     * Gets the lengths of the websites, as stored in the segment.
+     *
+     * @return the length norms
+     */
+    @Override
+    public LengthNorms getLengthNorms() {
+        return this.lengthNorms;
+    }
+
+    /**
+     * Gets the index of the titles. The segment doesn't store it, so it is
+     * built from the document store when it is first needed.
+     *
+     * @return the title index
+     */
+    @Override
+    public synchronized TitleIndex getTitleIndex() {
+        if (this.titleIndex == null) {
+            List<String> titles = new ArrayList<>(this.databaseSize);
+            for (int docId = 0; docId < this.databaseSize; docId++) {
+                int[] position = {this.buffer.getInt(this.docIndexOffset + 4 * docId)};
+                // The title follows the url.
+                readString(position);
+                titles.add(readString(position));
+            }
+            this.titleIndex = new TitleIndex(titles);
+        }
+        return this.titleIndex;
+    }
+
+    /**
+     * Gets the index of the urls, and builds it if it wasn't built yet.
+     *
+     * @return the index of the urls
+     */
+    private synchronized UrlIndex getUrlIndex() {
+        if (this.urlIndex == null) {
+            List<String> urls = new ArrayList<>(this.databaseSize);
+            for (int docId = 0; docId < this.databaseSize; docId++) {
+                urls.add(readString(new int[] {this.buffer.getInt(this.docIndexOffset + 4 * docId)}));
+            }
+            this.urlIndex = new UrlIndex(urls);
+        }
+        return this.urlIndex;
+    }
+
+    /**
+     * Gets the website with the given document ID, read from the document store.
+     *
+     * @param docId the document ID
+     * @return the website, without its words
+     */
+    @Override
+    public Website getWebsite(int docId) {
+        int[] position = {this.buffer.getInt(this.docIndexOffset + 4 * docId)};
+        String url = readString(position);
+        String title = readString(position);
+
+        return new Website(url, title, new int[0], this.dictionary);
+    }
+
+    /**
+     * Gets the database size.
+     *
+     * @return the number of websites contained by the index
+     */
+    @Override
+    public int getDatabaseSize() {
+        return this.databaseSize;
+    }
+
+    /**
+     * Solves the prefix search. The words with the prefix are a range of term IDs.
+     *
+     * @param prefix the word prefix
+     * @return the postings list of all websites
+     */
+    private PostingsList prefixSearch(String prefix) {
+        // Invalid search.
+        if (! PrefixSearch.isValid(prefix)) {
+            return new ArrayPostingsList();
+        }
+
+        List<PostingsList> postingsLists = new ArrayList<>();
+        int end = this.terms.getEndTermId(prefix);
+        for (int termId = this.terms.getFirstTermId(prefix); termId < end; termId++) {
+            postingsLists.add(readPostings(termId));
+        }
+
+        return PrefixSearch.sum(postingsLists, this.databaseSize, this.maxPrefixExpansion);
+    }
+
+    /**
+     * Reads the postings list of a word.
+     *
+     * @param termId the term ID of the word
+     * @return the postings list
+     */
+    private PostingsList readPostings(int termId) {
+        return BlockPostingsList.read(this.buffer, this.buffer.getInt(this.termIndexOffset + 4 * termId), this.codec);
+    }
+
+    /**
+     * Reads a string, stored as its variable-byte encoded UTF-8 length followed by the bytes.
+     *
+     * @param position the position of the string, moved past it
+     * @return the string
+     */
+    private String readString(int[] position) {
+        int[] length = new int[1];
+        int start = LENGTH_CODEC.decode(this.buffer, position[0], length, 1);
+        byte[] bytes = new byte[length[0]];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(start + i);
+        }
+        position[0] = start + bytes.length;
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the codec with the given ID, as stored in the header.
+     *
+     * @param codecId the ID of the codec
+     * @return the codec
+     * @throws IOException if the ID is unknown
+     */
+    static PostingsCodec getCodec(int codecId) throws IOException {
+        switch (codecId) {
+            case 0:
+                return new VByteCodec();
+            case 1:
+                return new Simple8bCodec();
+            default:
+                throw new IOException("unknown postings codec " + codecId);
+        }
+    }
+
+    /**
+     * Gets the ID of a codec, as stored in the header.
+     *
+     * @param codec the codec
+     * @return the ID of the codec
+     */
+    static int getCodecId(PostingsCodec codec) {
+        return codec instanceof VByteCodec ? 0 : 1;
+    }
+}
@@ -0,0 +1,204 @@
+package searchengine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes an inverted index into an index segment file, which can then be
+ * opened with {@link SegmentIndex} instead of parsing and indexing the
+ * database again. It can also be run as a program, converting a database
+ * file into a segment.
+ *
+ * The segment file consists of:
+ * <ul>
+ *     <li>a header: magic number, codec ID, database size, number of words,
+ *     and the positions of the term index, of the document index, of
+ *     the term dictionary and of the length norms</li>
+ *     <li>the compressed postings list of each word, by term ID</li>
+ *     <li>the document store: for each website, its url and title</li>
+ *     <li>the term index: the position of each word's postings list</li>
+ *     <li>the document index: the position of each website's entry</li>
+ *     <li>the term dictionary: the {@link TermAutomaton} of the words,
+ *     which maps each word to its term ID</li>
+ *     <li>the length norms: the average length of the websites, and one
+ *     byte per website for its length, see {@link LengthNorms}</li>
+ * </ul>
+ * All fixed-size numbers are big-endian; strings are stored as their
+ * variable-byte encoded UTF-8 length followed by the bytes.
+ *
+ * @author CodeUnicorns
+ */
+public class SegmentWriter {
+
+    /**
+     * Converts a database file into an index segment.
+     *
+     * @param args the path of the database file, and optionally the path
+     *             of the segment (by default, the database path with ".seg")
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: SegmentWriter database [segment]");
+            System.exit(1);
+        }
+
+        String segment = args.length > 1 ? args[1] : args[0].replaceFirst("\\.txt$", "") + SegmentIndex.FILE_EXTENSION;
+
+        System.out.println("Reading database and building the index...");
+        InvertedIndex index = new InvertedIndexHashMap();
+        index.setParallelism(Runtime.getRuntime().availableProcessors());
+        try (WebsiteReader reader = new WebsiteReader(args[0])) {
+            index.build(reader);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("error while reading file: " + e.getMessage());
+            System.exit(1);
+        }
+
+        System.out.println("Writing index segment \"" + segment + "\"...");
+        try {
+            write(index, segment, new Simple8bCodec());
+        } catch (IOException e) {
+            System.out.println("error while writing file: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Done.");
+    }
+
+    /**
+     * Writes an index into a segment file.
+     *
+     * @param index the index to write
+     * @param filename the path of the segment file
+     * @param codec the codec used to compress the postings lists
+     * @throws IOException if writing fails
+     */
+    public static void write(InvertedIndex index, String filename, PostingsCodec codec) throws IOException {
+        TermAutomaton terms = index.getTermAutomaton();
+        int[] termOffsets = new int[terms.size()];
+        int[] docOffsets = new int[index.getDatabaseSize()];
+        long termIndexOffset;
+        long docIndexOffset;
+        long automatonOffset;
+        long normsOffset;
+
+        CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        try (DataOutputStream out = new DataOutputStream(counter)) {
+            // The section positions are filled in at the end.
+            out.writeInt(SegmentIndex.MAGIC);
+            out.writeInt(SegmentIndex.getCodecId(codec));
+            out.writeInt(index.getDatabaseSize());
+            out.writeInt(terms.size());
+            out.writeLong(0);
+            out.writeLong(0);
+            out.writeLong(0);
+            out.writeLong(0);
+
+            // The postings lists, by term ID.
+            for (int termId = 0; termId < termOffsets.length; termId++) {
+                termOffsets[termId] = position(counter);
+                new BlockPostingsList(index.getPostings(termId), codec).write(out);
+            }
+
+            // The document store.
+            for (int docId = 0; docId < docOffsets.length; docId++) {
+                docOffsets[docId] = position(counter);
+                Website website = index.getWebsite(docId);
+                writeString(out, website.getUrl());
+                writeString(out, website.getTitle());
+            }
+
+            // The term and document indexes.
+            termIndexOffset = position(counter);
+            for (int offset: termOffsets) {
+                out.writeInt(offset);
+            }
+            docIndexOffset = position(counter);
+            for (int offset: docOffsets) {
+                out.writeInt(offset);
+            }
+
+            // The term dictionary.
+            automatonOffset = position(counter);
+            terms.write(out);
+
+            // The length norms.
+            normsOffset = position(counter);
+            index.getLengthNorms().write(out);
+
+            // The whole segment is mapped at once, so it has to fit as well.
+            position(counter);
+        }
+
+        // Fill in the section positions in the header.
+        try (RandomAccessFile file = new RandomAccessFile(filename, "rw")) {
+            file.seek(16);
+            file.writeLong(termIndexOffset);
+            file.writeLong(docIndexOffset);
+            file.writeLong(automatonOffset);
+            file.writeLong(normsOffset);
+        }
+    }
+
+    /**
+     * Gets the number of bytes written so far, which is the position of the
+     * next section. The positions are stored as ints, and a segment is mapped
+     * as a single buffer, so it can't be larger than 2 GB.
+     *
+     * @param counter the output
+     * @return the position
+     * @throws IOException if the segment is larger than 2 GB
+     */
+    private static int position(CountingOutputStream counter) throws IOException {
+        if (counter.count > Integer.MAX_VALUE) {
+            throw new IOException("index segment larger than 2 GB");
+        }
+        return (int) counter.count;
+    }
+
+    /**
+     * Writes a string as its variable-byte encoded UTF-8 length followed by the bytes.
+     *
+     * @param out the output
+     * @param string the string
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream length = new ByteArrayOutputStream();
+        SegmentIndex.LENGTH_CODEC.encode(new int[] {bytes.length}, 1, length);
+        out.write(length.toByteArray());
+        out.write(bytes);
+    }
+
+    /**
+     * An output stream counting the written bytes in a long. DataOutputStream
+     * counts them in an int, which stops at 2 GB.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The Simple-8b codec packs as many values as possible into 64-bit words.
+ * The top 4 bits of a word (the selector) tell how the other 60 bits are
+ * split, from 60 values of 1 bit to a single value of 60 bits. Lists of
+ * small gaps therefore take only a few bits per value, and decoding a
+ * word is a fixed sequence of shifts.
+ *
+ * @author CodeUnicorns
+ */
+public class Simple8bCodec implements PostingsCodec {
+
+    /**
+     * The number of values packed in a word, by selector. Selector 0 is not used.
+     */
+    private static final int[] VALUES_PER_WORD = {0, 60, 30, 20, 15, 12, 10, 8, 7, 6, 5, 4, 3, 2, 1};
+
+    /**
+     * The number of bits per value, by selector.
+     */
+    private static final int[] BITS_PER_VALUE = {0, 1, 2, 3, 4, 5, 6, 7, 8, 10, 12, 15, 20, 30, 60};
+
+    /**
+     * Encodes the values and appends them to the output.
+     *
+     * @param values the values to encode, all non-negative
+     * @param count the number of values to encode
+     * @param out the output the encoded bytes are written to
+     */
+    @Override
+    public void encode(int[] values, int count, ByteArrayOutputStream out) {
+        int position = 0;
+        while (position < count) {
+            // Pick the selector packing the most values. A word is only used if
+            // enough values are left to fill it, and the last selector always fits.
+            int selector = 1;
+            while (! fits(values, position, count, selector)) {
+                selector++;
+            }
+
+            long word = (long) selector << 60;
+            int bits = BITS_PER_VALUE[selector];
+            for (int i = 0; i < VALUES_PER_WORD[selector]; i++) {
+                word |= (long) values[position + i] << (i * bits);
+            }
+            position += VALUES_PER_WORD[selector];
+
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (word >>> shift));
+            }
+        }
+    }
+
+    /**
+     * Decodes the values.
+     *
+     * @param data the encoded bytes
+     * @param offset the position of the first encoded byte
+     * @param values the array the decoded values are written to
+     * @param count the number of values to decode
+     * @return the position right after the decoded bytes
+     */
+    @Override
+    public int decode(ByteBuffer data, int offset, int[] values, int count) {
+        int position = 0;
+        while (position < count) {
+            // The words are written with the highest byte first, like ByteBuffer reads them.
+            long word = data.getLong(offset);
+            offset += 8;
+
+            int selector = (int) (word >>> 60);
+            int bits = BITS_PER_VALUE[selector];
+            long mask = (1L << bits) - 1;
+            for (int i = 0; i < VALUES_PER_WORD[selector]; i++) {
+                values[position++] = (int) ((word >>> (i * bits)) & mask);
+            }
+        }
+
+        return offset;
+    }
+
+    /**
+     * Checks whether a word with the given selector can hold the next values.
+     *
+     * @param values the values to encode
+     * @param position the position of the next value
+     * @param count the number of values to encode
+     * @param selector the selector
+     * @return true if enough values are left and all of them fit in the bits
+     */
+    private boolean fits(int[] values, int position, int count, int selector) {
+        int n = VALUES_PER_WORD[selector];
+        if (position + n > count) {
+            return false;
+        }
+
+        long limit = 1L << BITS_PER_VALUE[selector];
+        for (int i = position; i < position + n; i++) {
+            if (values[i] >= limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Simple8bCodec";
+    }
+}
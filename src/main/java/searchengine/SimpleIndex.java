@@ -1,6 +1,7 @@
 package searchengine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,6 +16,16 @@ public class SimpleIndex implements Index {
      */
     private List<Website> sites;
 
+    /**
+     * The lengths of the websites.
+     */
+    private LengthNorms lengthNorms;
+
+    /**
+     * The index of the titles of the websites.
+     */
+    private TitleIndex titleIndex;
+
     /**
      * The build method processes a list of websites into the index data structure.
      *
@@ -23,6 +34,15 @@ public class SimpleIndex implements Index {
     @Override
     public void build(List<Website> sites) {
         this.sites = sites;
+
+        int[] lengths = new int[sites.size()];
+        List<String> titles = new ArrayList<>(sites.size());
+        for (int docId = 0; docId < lengths.length; docId++) {
+            lengths[docId] = sites.get(docId).getTermIds().length;
+            titles.add(sites.get(docId).getTitle());
+        }
+        this.lengthNorms = new LengthNorms(lengths);
+        this.titleIndex = new TitleIndex(titles);
     }
 
     /**
@@ -50,6 +70,160 @@ public class SimpleIndex implements Index {
         return result;
     }
 
+    /**
+     * Given a query string, returns the postings list of the websites that contain
+     * the query. The document IDs are the positions in the list of websites.
+     *
+     * @param query The query
+     * @return the postings list of the query word.
+     */
+    @Override
+    public PostingsList getPostings(String query) {
+        ArrayPostingsList postings = new ArrayPostingsList();
+        if (query == null) {
+            return postings;
+        }
+
+        // We have to check if the query word uses prefix search.
+        boolean isPrefix = query.endsWith("*");
+        String word = query.replace("*", "");
+        if (isPrefix && ! PrefixSearch.isValid(word)) {
+            return postings;
+        }
+
+        for (int docId = 0; docId < sites.size(); docId++) {
+            // Count the occurrences on the website.
+            int frequency = 0;
+            if (isPrefix) {
+                for (String siteWord: sites.get(docId).getWords()) {
+                    if (siteWord.startsWith(word)) {
+                        frequency++;
+                    }
+                }
+            } else {
+                // Compare term IDs instead of strings.
+                Website site = sites.get(docId);
+                int termId = site.getTermDictionary().getTermId(word);
+                for (int id: site.getTermIds()) {
+                    if (id == termId) {
+                        frequency++;
+                    }
+                }
+            }
+
+            if (frequency > 0) {
+                postings.add(docId, frequency);
+            }
+        }
+
+        return postings;
+    }
+
+    /**
+     * Gets the number of websites that contain the query.
+     *
+     * @param query The query
+     * @return the document frequency of the query word.
+     */
+    @Override
+    public int getDocumentFrequency(String query) {
+        return getPostings(query).size();
+    }
+
+    /**
+     * Gets the positions of a word on a website, by checking all its words.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @return the positions of the word on the website.
+     */
+    @Override
+    public int[] getPositions(String word, int docId) {
+        int[] positions = new int[sites.get(docId).getTermIds().length];
+        return Arrays.copyOf(positions, getPositions(word, docId, positions));
+    }
+
+    /**
+     * Gets the positions of a word on a website into an array owned by the
+     * caller, by checking its words until the array is full.
+     *
+     * @param word The word
+     * @param docId the document ID of the website
+     * @param positions the array the positions are put in
+     * @return the number of positions put in the array.
+     */
+    @Override
+    public int getPositions(String word, int docId, int[] positions) {
+        List<String> words = sites.get(docId).getWords();
+        int count = 0;
+        for (int position = 0; position < words.size() && count < positions.length; position++) {
+            if (words.get(position).equals(word)) {
+                positions[count++] = position;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The positions are found by checking the words of the websites, which the index keeps.
+     *
+     * @return true
+     */
+    @Override
+    public boolean hasPositions() {
+        return true;
+    }
+
+    /**
+     * Gets the lengths of the websites, computed by the build.
+     *
+     * @return the length norms
+     */
+    @Override
+    public LengthNorms getLengthNorms() {
+        return this.lengthNorms;
+    }
+
+    /**
+     * Gets the index of the titles, built by the build.
+     *
+     * @return the title index
+     */
+    @Override
+    public TitleIndex getTitleIndex() {
+        return this.titleIndex;
+    }
+
+    /**
+     * Given a url filter, returns the postings list of the websites whose url
+     * contains the filter, by checking every website.
+     *
+     * @param urlFilter The text the url has to contain
+     * @return the postings list of the websites.
+     */
+    @Override
+    public PostingsList getUrlPostings(String urlFilter) {
+        ArrayPostingsList postings = new ArrayPostingsList();
+        for (int docId = 0; docId < sites.size(); docId++) {
+            if (sites.get(docId).getUrl().contains(urlFilter)) {
+                postings.add(docId, 1);
+            }
+        }
+
+        return postings;
+    }
+
+    /**
+     * Gets the website with the given document ID.
+     *
+     * @param docId the document ID
+     * @return the website
+     */
+    @Override
+    public Website getWebsite(int docId) {
+        return this.sites.get(docId);
+    }
+
     /**
      * Solves the prefix search by simply finding all words
      * that start with the specified prefix.
@@ -59,7 +233,7 @@ public class SimpleIndex implements Index {
      */
     private List<Website> prefixSearch(String prefix) {
         // Invalid search.
-        if (! prefix.matches("[a-zA-Z0-9]+")) {
+        if (! PrefixSearch.isValid(prefix)) {
             return new ArrayList<>();
         }
 
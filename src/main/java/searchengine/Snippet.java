@@ -0,0 +1,118 @@
+package searchengine;
+
+import java.util.Arrays;
+
+/**
+ * A short piece of the text of a website, shown below its title on a page of
+ * search results, with the query words in it highlighted. The highlights are
+ * ranges of characters of the text, so the text can be escaped for display
+ * before the highlights are marked up. It can't be modified.
+ *
+ * @author CodeUnicorns
+ */
+public final class Snippet {
+
+    /**
+     * The text of the snippet.
+     */
+    private final String text;
+
+    /**
+     * The start and end of each highlight in the text, in pairs, in increasing order.
+     */
+    private final int[] highlights;
+
+    /**
+     * Creates a snippet.
+     *
+     * @param text the text of the snippet
+     * @param highlights the start (inclusive) and end (exclusive) of each highlight, in pairs, which are copied
+     */
+    public Snippet(String text, int[] highlights) {
+        this.text = text;
+        this.highlights = Arrays.copyOf(highlights, highlights.length);
+    }
+
+    /**
+     * Gets the text of the snippet.
+     *
+     * @return the text
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * Gets the number of highlights.
+     *
+     * @return the number of highlighted ranges of the text
+     */
+    public int getHighlightCount() {
+        return this.highlights.length / 2;
+    }
+
+    /**
+     * Gets where a highlight starts.
+     *
+     * @param highlight the number of the highlight
+     * @return the index of the first highlighted character
+     */
+    public int getHighlightStart(int highlight) {
+        return this.highlights[2 * highlight];
+    }
+
+    /**
+     * Gets where a highlight ends.
+     *
+     * @param highlight the number of the highlight
+     * @return the index after the last highlighted character
+     */
+    public int getHighlightEnd(int highlight) {
+        return this.highlights[2 * highlight + 1];
+    }
+
+    /**
+     * Gets the text with a marker before and after each highlight.
+     *
+     * @param before the marker before a highlight
+     * @param after the marker after a highlight
+     * @return the marked text
+     */
+    public String mark(String before, String after) {
+        StringBuilder result = new StringBuilder(this.text.length() + getHighlightCount() * (before.length() + after.length()));
+        int start = 0;
+        for (int i = 0; i < this.highlights.length; i += 2) {
+            result.append(this.text, start, this.highlights[i]).append(before)
+                    .append(this.text, this.highlights[i], this.highlights[i + 1]).append(after);
+            start = this.highlights[i + 1];
+        }
+        return result.append(this.text, start, this.text.length()).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Snippet that = (Snippet) o;
+        return this.text.equals(that.text) && Arrays.equals(this.highlights, that.highlights);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.text.hashCode() + Arrays.hashCode(this.highlights);
+    }
+
+    /**
+     * Gets the text with the highlights in brackets.
+     *
+     * @return the marked text
+     */
+    @Override
+    public String toString() {
+        return mark("[", "]");
+    }
+}
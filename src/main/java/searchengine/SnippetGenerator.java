@@ -0,0 +1,307 @@
+package searchengine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks the snippets of the websites on a page of search results. A snippet
+ * is a window of a fixed number of words, placed where the most different
+ * query words occur close together, and then where they occur most often.
+ *
+ * The window is found from the positions of the query words. When the caller
+ * asks for it, for example because a phrase query needs the positions anyway,
+ * at most {@link #MAX_POSITIONS} positions of each query word are read from
+ * the {@link Index}. Otherwise the first {@link #MAX_SCAN_LENGTH} term IDs of
+ * the website, which it keeps in memory anyway, are compared with the term IDs
+ * of the query words, so plain queries never make the index load positions,
+ * and a snippet costs the same however long the website is. Only the words
+ * inside the window are looked up as strings to build the text.
+ *
+ * Prefixes have no positions of their own, so they don't place the window,
+ * but the words in the window that start with a prefix are highlighted. If
+ * none of the query words has positions, the snippet is the start of the website.
+ *
+ * @author CodeUnicorns
+ */
+public class SnippetGenerator {
+
+    /**
+     * The default number of words in a snippet.
+     */
+    public static final int DEFAULT_LENGTH = 30;
+
+    /**
+     * The maximum number of positions of a query word that are considered,
+     * so a word occurring all over a long website stays cheap.
+     */
+    static final int MAX_POSITIONS = 128;
+
+    /**
+     * The number of words at the start of a website that are searched for
+     * the query words when the positions are not read from the index.
+     */
+    static final int MAX_SCAN_LENGTH = 1024;
+
+    /**
+     * The text marking words left out before or after the window.
+     */
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * The index the positions and the words are read from.
+     */
+    private final Index index;
+
+    /**
+     * The number of words in a snippet.
+     */
+    private final int length;
+
+    /**
+     * Creates a generator of snippets of the default length.
+     *
+     * @param index the index the positions and the words are read from
+     */
+    public SnippetGenerator(Index index) {
+        this(index, DEFAULT_LENGTH);
+    }
+
+    /**
+     * Creates a generator of snippets.
+     *
+     * @param index the index the positions and the words are read from
+     * @param length the number of words in a snippet
+     * @throws IllegalArgumentException if the length is not positive
+     */
+    public SnippetGenerator(Index index, int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Invalid snippet length: " + length);
+        }
+        this.index = index;
+        this.length = length;
+    }
+
+    /**
+     * Creates the snippet of a website from the start of its words, without
+     * reading positions from the index.
+     *
+     * @param docId the document ID of the website
+     * @param website the website, as returned by the index
+     * @param words the query words, where a word ending with "*" is a prefix
+     * @return the snippet, or null if the index doesn't keep the words of the website
+     */
+    public Snippet getSnippet(int docId, Website website, String[] words) {
+        return getSnippet(docId, website, words, false);
+    }
+
+    /**
+     * Creates the snippet of a website.
+     *
+     * @param docId the document ID of the website
+     * @param website the website, as returned by the index
+     * @param words the query words, where a word ending with "*" is a prefix
+     * @param readPositions true to read the positions of the words from the
+     * index if it has them, which may make it load the positions of all websites
+     * @return the snippet, or null if the index doesn't keep the words of the website
+     */
+    public Snippet getSnippet(int docId, Website website, String[] words, boolean readPositions) {
+        int[] termIds = website.getTermIds();
+        if (termIds.length == 0) {
+            // Index segments only keep the url and the title of a website.
+            return null;
+        }
+
+        // The positions of all query words, each tagged with its word, in increasing order.
+        long[] hits = new long[MAX_POSITIONS * words.length];
+        int hitCount;
+        if (readPositions && this.index.hasPositions()) {
+            hitCount = readHits(docId, words, hits);
+        } else {
+            hitCount = scanHits(website, words, hits);
+        }
+
+        int start = findWindow(hits, hitCount, words.length);
+        start = Math.max(0, Math.min(start, termIds.length - this.length));
+        int end = Math.min(termIds.length, start + this.length);
+        return buildSnippet(website.getWords(), start, end, hits, hitCount, words);
+    }
+
+    /**
+     * Reads the positions of the query words on a website from the index,
+     * at most {@link #MAX_POSITIONS} of each word.
+     *
+     * @param docId the document ID of the website
+     * @param words the query words
+     * @param hits the array the tagged positions are put in, large enough for all of them
+     * @return the number of positions, which are sorted
+     */
+    private int readHits(int docId, String[] words, long[] hits) {
+        int[] positions = new int[MAX_POSITIONS];
+        int hitCount = 0;
+        for (int word = 0; word < words.length; word++) {
+            if (words[word].endsWith("*")) {
+                continue;
+            }
+            int count = this.index.getPositions(words[word], docId, positions);
+            for (int i = 0; i < count; i++) {
+                hits[hitCount++] = (long) positions[i] << 32 | word;
+            }
+        }
+        Arrays.sort(hits, 0, hitCount);
+        return hitCount;
+    }
+
+    /**
+     * Finds the positions of the query words among the first {@link #MAX_SCAN_LENGTH}
+     * words of a website by comparing its term IDs with theirs, keeping at most
+     * {@link #MAX_POSITIONS} of each word.
+     *
+     * @param website the website
+     * @param words the query words
+     * @param hits the array the tagged positions are put in, large enough for all of them
+     * @return the number of positions, which are sorted
+     */
+    private static int scanHits(Website website, String[] words, long[] hits) {
+        // The term IDs of the query words in the website's dictionary, or -1.
+        TermDictionary dictionary = website.getTermDictionary();
+        int[] queryTermIds = new int[words.length];
+        boolean isEmpty = true;
+        for (int word = 0; word < words.length; word++) {
+            queryTermIds[word] = words[word].endsWith("*") ? -1 : dictionary.getTermId(words[word]);
+            isEmpty &= queryTermIds[word] < 0;
+        }
+        if (isEmpty) {
+            return 0;
+        }
+
+        int[] termIds = website.getTermIds();
+        int scanLength = Math.min(termIds.length, MAX_SCAN_LENGTH);
+        int[] counts = new int[words.length];
+        int hitCount = 0;
+        for (int position = 0; position < scanLength; position++) {
+            for (int word = 0; word < queryTermIds.length; word++) {
+                if (termIds[position] == queryTermIds[word] && counts[word] < MAX_POSITIONS) {
+                    counts[word]++;
+                    hits[hitCount++] = (long) position << 32 | word;
+                }
+            }
+        }
+        return hitCount;
+    }
+
+    /**
+     * Finds where the window with the most different query words starts. The
+     * window is centered on the occurrences it contains.
+     *
+     * @param hits the positions of the query words in the high bits, and the number of the word in the low bits, sorted
+     * @param hitCount the number of positions
+     * @param wordCount the number of query words
+     * @return the position of the first word of the window, which may be
+     * outside of the website, or 0 if there are no positions
+     */
+    private int findWindow(long[] hits, int hitCount, int wordCount) {
+        if (hitCount == 0) {
+            return 0;
+        }
+
+        // Slide over the positions, keeping those less than a window apart.
+        int[] counts = new int[wordCount];
+        int distinct = 0;
+        int bestDistinct = 0;
+        int bestCount = 0;
+        int bestFirst = 0;
+        int bestLast = 0;
+        int first = 0;
+        for (int last = 0; last < hitCount; last++) {
+            if (counts[(int) hits[last]]++ == 0) {
+                distinct++;
+            }
+            while (position(hits[last]) - position(hits[first]) >= this.length) {
+                if (--counts[(int) hits[first]] == 0) {
+                    distinct--;
+                }
+                first++;
+            }
+            int count = last - first + 1;
+            if (distinct > bestDistinct || distinct == bestDistinct && count > bestCount) {
+                bestDistinct = distinct;
+                bestCount = count;
+                bestFirst = position(hits[first]);
+                bestLast = position(hits[last]);
+            }
+        }
+
+        return bestFirst - (this.length - (bestLast - bestFirst + 1)) / 2;
+    }
+
+    /**
+     * Builds the text of the window and highlights the query words in it.
+     *
+     * @param words the words of the website
+     * @param start the position of the first word of the window
+     * @param end the position after the last word of the window
+     * @param hits the sorted positions of the query words, as in {@link #findWindow}
+     * @param hitCount the number of positions
+     * @param queryWords the query words
+     * @return the snippet
+     */
+    private static Snippet buildSnippet(List<String> words, int start, int end, long[] hits, int hitCount, String[] queryWords) {
+        // Mark the positions of the query words inside the window.
+        boolean[] isHit = new boolean[end - start];
+        for (int i = 0; i < hitCount; i++) {
+            int position = position(hits[i]);
+            if (position >= start && position < end) {
+                isHit[position - start] = true;
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        int[] highlights = new int[2 * isHit.length];
+        int highlightCount = 0;
+        if (start > 0) {
+            text.append(ELLIPSIS);
+        }
+        for (int position = start; position < end; position++) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            String word = words.get(position);
+            if (isHit[position - start] || matchesPrefix(word, queryWords)) {
+                highlights[highlightCount++] = text.length();
+                highlights[highlightCount++] = text.length() + word.length();
+            }
+            text.append(word);
+        }
+        if (end < words.size()) {
+            text.append(' ').append(ELLIPSIS);
+        }
+
+        return new Snippet(text.toString(), Arrays.copyOf(highlights, highlightCount));
+    }
+
+    /**
+     * Checks whether a word starts with one of the prefixes of the query.
+     *
+     * @param word the word
+     * @param queryWords the query words, where the prefixes end with "*"
+     * @return true if a prefix matches
+     */
+    private static boolean matchesPrefix(String word, String[] queryWords) {
+        for (String queryWord: queryWords) {
+            if (queryWord.endsWith("*") && word.startsWith(queryWord.substring(0, queryWord.length() - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the position of a tagged position.
+     *
+     * @param hit the position in the high bits, and the number of the word in the low bits
+     * @return the position
+     */
+    private static int position(long hit) {
+        return (int) (hit >>> 32);
+    }
+}
@@ -19,22 +19,71 @@ public class TFIDFScore extends TFScore {
      */
     @Override
     public double getScore(String word, Website website, Index index) {
-        double tf = tf(word, website);
+        return tf(word, website) * idf(index.getDocumentFrequency(word), index);
+    }
+
+    /**
+     * Creates a scorer for a word, looking up its document frequency.
+     *
+     * @param word the word we are calculating the scores for
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, Index index) {
+        return getTermScorer(word, index.getDocumentFrequency(word), index);
+    }
 
+    /**
+     * Creates a scorer for a word. The idf of the word is computed once,
+     * so scoring a website only multiplies it with the word count.
+     *
+     * @param word the word we are calculating the scores for
+     * @param documentFrequency the number of websites the word occurs on
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, int documentFrequency, Index index) {
+        final double idf = idf(documentFrequency, index);
+        return new TermScorer() {
+            @Override
+            public double score(int docId, int frequency) {
+                return frequency * idf;
+            }
+
+            @Override
+            public void addScores(int[] docIds, int[] frequencies, int count, double[] scores) {
+                for (int i = 0; i < count; i++) {
+                    scores[i] += frequencies[i] * idf;
+                }
+            }
+
+            @Override
+            public double getMaxScore(int maxFrequency) {
+                return maxFrequency * idf;
+            }
+        };
+    }
+
+    /**
+     * Calculates idf, the logarithm of the size of the database divided
+     * by the number of website the word occurs on.
+     *
+     * @param n the number of websites the word appears on
+     * @param index the index used for lookups
+     * @return idf
+     */
+    private double idf(int n, Index index) {
         // The size of the database.
         int d = index.getDatabaseSize();
 
-        // The number of website the word appears on.
-        int n = index.lookup(word).size();
-
         // If the word does not appear on any website,
         // we can just return 0, as tf will be 0 too.
         if (n == 0) return 0;
 
         // Computing idf.
-        double idf = log2(1.0 * d / n);
-
-        return tf * idf;
+        return log2(1.0 * d / n);
     }
 
     /**
@@ -20,6 +20,50 @@ public class TFScore implements Score {
         return tf(word, website);
     }
 
+    /**
+     * Creates a scorer for a word. The TFScore doesn't depend on the document
+     * frequency, so it isn't looked up.
+     *
+     * @param word the word we are calculating the scores for
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, Index index) {
+        return getTermScorer(word, 0, index);
+    }
+
+    /**
+     * Creates a scorer for a word. The TFScore is just the word count,
+     * so there is nothing to precompute.
+     *
+     * @param word the word we are calculating the scores for
+     * @param documentFrequency the number of websites the word occurs on, which is not used
+     * @param index the index used for lookups
+     * @return the scorer of the word
+     */
+    @Override
+    public TermScorer getTermScorer(String word, int documentFrequency, Index index) {
+        return new TermScorer() {
+            @Override
+            public double score(int docId, int frequency) {
+                return frequency;
+            }
+
+            @Override
+            public void addScores(int[] docIds, int[] frequencies, int count, double[] scores) {
+                for (int i = 0; i < count; i++) {
+                    scores[i] += frequencies[i];
+                }
+            }
+
+            @Override
+            public double getMaxScore(int maxFrequency) {
+                return maxFrequency;
+            }
+        };
+    }
+
     /**
      * Calculates tf(w,S), being just the word count.
      *
@@ -28,9 +72,11 @@ public class TFScore implements Score {
      * @return tf
      */
     protected double tf(String w, Website s) {
+        // Compare term IDs instead of strings.
+        int termId = s.getTermDictionary().getTermId(w);
         int count = 0;
-        for (String word: s.getWords()) {
-            if (w.equals(word)) {
+        for (int id: s.getTermIds()) {
+            if (id == termId) {
                 count++;
             }
         }
@@ -0,0 +1,618 @@
+package searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The term dictionary of an index: a minimal acyclic finite state automaton over
+ * the UTF-8 bytes of the words, used as a transducer from each word to its term ID.
+ * The term ID of a word is its position in the sorted words, and the postings
+ * lists are stored by term ID.
+ *
+ * Words sharing a suffix share states, not only words sharing a prefix like in
+ * a trie, so the automaton is much smaller than a trie or the keys of a map.
+ * Every state knows how many words can be completed from it, which gives the
+ * term IDs: following an arc adds the number of words that are skipped by not
+ * taking the earlier arcs of its state. The words with a prefix are therefore
+ * a range of term IDs, in sorted order.
+ *
+ * The automaton is built from sorted words with the incremental algorithm of
+ * Daciuk et al., and stored in flat arrays. The states are numbered in the order
+ * they are completed, so the arcs of a state follow each other, sorted by label.
+ *
+ * @author CodeUnicorns
+ */
+public class TermAutomaton {
+
+    /**
+     * Orders words by their UTF-8 bytes, which is the order of their code points,
+     * and the order of the term IDs. It only differs from the order of
+     * {@link String#compareTo(String)} for characters outside the basic plane.
+     */
+    public static final Comparator<String> WORD_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String first, String second) {
+            int i = 0;
+            while (i < first.length() && i < second.length()) {
+                int firstCodePoint = first.codePointAt(i);
+                int secondCodePoint = second.codePointAt(i);
+                if (firstCodePoint != secondCodePoint) {
+                    return Integer.compare(firstCodePoint, secondCodePoint);
+                }
+                i += Character.charCount(firstCodePoint);
+            }
+
+            return Integer.compare(first.length() - i, second.length() - i);
+        }
+    };
+
+    /**
+     * The codec of the numbers in the written automaton.
+     */
+    private static final PostingsCodec NUMBER_CODEC = new VByteCodec();
+
+    /**
+     * The start state.
+     */
+    private int root;
+
+    /**
+     * True for the states that end a word.
+     */
+    private boolean[] isFinal;
+
+    /**
+     * The number of words that can be completed from each state.
+     */
+    private int[] wordCounts;
+
+    /**
+     * The first arc of each state. The arcs of state s are the arcs
+     * from stateArcs[s] to stateArcs[s + 1], exclusive.
+     */
+    private int[] stateArcs;
+
+    /**
+     * The byte of each arc.
+     */
+    private byte[] arcLabels;
+
+    /**
+     * The state each arc leads to.
+     */
+    private int[] arcTargets;
+
+    /**
+     * The output of each arc: the number of words of its state that are
+     * smaller than the words continuing with this arc.
+     */
+    private int[] arcOutputs;
+
+    /**
+     * Creates an automaton from its arrays.
+     *
+     * @param root the start state
+     * @param isFinal the final states
+     * @param wordCounts the number of words of each state
+     * @param stateArcs the first arc of each state, followed by the number of arcs
+     * @param arcLabels the bytes of the arcs
+     * @param arcTargets the targets of the arcs
+     * @param arcOutputs the outputs of the arcs
+     */
+    private TermAutomaton(int root, boolean[] isFinal, int[] wordCounts, int[] stateArcs,
+                          byte[] arcLabels, int[] arcTargets, int[] arcOutputs) {
+        this.root = root;
+        this.isFinal = isFinal;
+        this.wordCounts = wordCounts;
+        this.stateArcs = stateArcs;
+        this.arcLabels = arcLabels;
+        this.arcTargets = arcTargets;
+        this.arcOutputs = arcOutputs;
+    }
+
+    /**
+     * Builds the automaton of the given words.
+     *
+     * @param words the words, sorted by {@link #WORD_ORDER} and without duplicates
+     * @return the automaton
+     * @throws IllegalArgumentException if the words are not sorted or contain duplicates
+     */
+    public static TermAutomaton build(List<String> words) {
+        Builder builder = new Builder();
+        for (String word: words) {
+            builder.add(word.getBytes(StandardCharsets.UTF_8));
+        }
+        return builder.finish();
+    }
+
+    /**
+     * Gets the term ID of a word.
+     *
+     * @param word the word
+     * @return the term ID, or -1 if the word is not in the automaton
+     */
+    public int getTermId(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        int state = this.root;
+        int termId = 0;
+        for (byte label: bytes) {
+            int arc = findArc(state, label);
+            if (arc < 0) {
+                return -1;
+            }
+            termId += this.arcOutputs[arc];
+            state = this.arcTargets[arc];
+        }
+
+        return this.isFinal[state] ? termId : -1;
+    }
+
+    /**
+     * Gets the first term ID of the words with the given prefix.
+     *
+     * @param prefix the prefix
+     * @return the first term ID, equal to the end term ID if no word has the prefix
+     */
+    public int getFirstTermId(String prefix) {
+        return (int) (findPrefix(prefix) >>> 32);
+    }
+
+    /**
+     * Gets the term ID after the last word with the given prefix.
+     *
+     * @param prefix the prefix
+     * @return the end term ID, exclusive
+     */
+    public int getEndTermId(String prefix) {
+        long range = findPrefix(prefix);
+        return (int) (range >>> 32) + (int) range;
+    }
+
+    /**
+     * Gets the word of a term ID, by following the arcs whose outputs add up to the term ID.
+     *
+     * @param termId the term ID
+     * @return the word
+     * @throws IndexOutOfBoundsException if there is no such term ID
+     */
+    public String getWord(int termId) {
+        if (termId < 0 || termId >= size()) {
+            throw new IndexOutOfBoundsException("term ID " + termId + ", size " + size());
+        }
+
+        byte[] bytes = new byte[16];
+        int length = 0;
+        int state = this.root;
+        int remaining = termId;
+        while (! this.isFinal[state] || remaining > 0) {
+            // The last arc whose output is not larger than the remaining term ID.
+            int low = this.stateArcs[state];
+            int high = this.stateArcs[state + 1] - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (this.arcOutputs[middle] <= remaining) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = this.arcLabels[low];
+            remaining -= this.arcOutputs[low];
+            state = this.arcTargets[low];
+        }
+
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets all words, as a read-only list view in term ID order.
+     *
+     * @return the words
+     */
+    public List<String> getWords() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int termId) {
+                return getWord(termId);
+            }
+
+            @Override
+            public int size() {
+                return TermAutomaton.this.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of words in the automaton.
+     *
+     * @return the number of words
+     */
+    public int size() {
+        return this.wordCounts[this.root];
+    }
+
+    /**
+     * Gets the number of states of the automaton.
+     *
+     * @return the number of states
+     */
+    public int getStateCount() {
+        return this.isFinal.length;
+    }
+
+    /**
+     * Writes the automaton, so it can be read with {@link #read(ByteBuffer, int)}.
+     * The numbers of states and arcs are followed by each state as its number of
+     * arcs and whether it is final, and then its arcs as the label and the distance
+     * back to the target, which is always a smaller state. All numbers are
+     * variable-byte encoded. The word counts and outputs are not written, as
+     * they follow from the states.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        int stateCount = this.isFinal.length;
+        writeNumber(out, stateCount);
+        writeNumber(out, this.arcLabels.length);
+        for (int state = 0; state < stateCount; state++) {
+            int first = this.stateArcs[state];
+            int end = this.stateArcs[state + 1];
+            writeNumber(out, (end - first) << 1 | (this.isFinal[state] ? 1 : 0));
+            for (int arc = first; arc < end; arc++) {
+                out.writeByte(this.arcLabels[arc]);
+                writeNumber(out, state - this.arcTargets[arc]);
+            }
+        }
+    }
+
+    /**
+     * Reads an automaton written by {@link #write(DataOutput)}.
+     *
+     * @param buffer the buffer containing the automaton
+     * @param position the position of the automaton in the buffer
+     * @return the automaton
+     */
+    public static TermAutomaton read(ByteBuffer buffer, int position) {
+        int[] number = new int[1];
+        position = NUMBER_CODEC.decode(buffer, position, number, 1);
+        int stateCount = number[0];
+        position = NUMBER_CODEC.decode(buffer, position, number, 1);
+        int arcCount = number[0];
+
+        boolean[] isFinal = new boolean[stateCount];
+        int[] wordCounts = new int[stateCount];
+        int[] stateArcs = new int[stateCount + 1];
+        byte[] arcLabels = new byte[arcCount];
+        int[] arcTargets = new int[arcCount];
+        int[] arcOutputs = new int[arcCount];
+        int arc = 0;
+        for (int state = 0; state < stateCount; state++) {
+            position = NUMBER_CODEC.decode(buffer, position, number, 1);
+            isFinal[state] = (number[0] & 1) != 0;
+            int end = arc + (number[0] >>> 1);
+
+            // The targets are smaller states, so their word counts are known.
+            int wordCount = isFinal[state] ? 1 : 0;
+            stateArcs[state] = arc;
+            for (; arc < end; arc++) {
+                arcLabels[arc] = buffer.get(position);
+                position = NUMBER_CODEC.decode(buffer, position + 1, number, 1);
+                arcTargets[arc] = state - number[0];
+                arcOutputs[arc] = wordCount;
+                wordCount += wordCounts[arcTargets[arc]];
+            }
+            wordCounts[state] = wordCount;
+        }
+        stateArcs[stateCount] = arcCount;
+
+        // The start state is completed last.
+        return new TermAutomaton(stateCount - 1, isFinal, wordCounts, stateArcs, arcLabels, arcTargets, arcOutputs);
+    }
+
+    /**
+     * Writes a variable-byte encoded number, in the format of {@link VByteCodec}.
+     *
+     * @param out the output
+     * @param number the number, not negative
+     * @throws IOException if writing fails
+     */
+    private static void writeNumber(DataOutput out, int number) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(5);
+        NUMBER_CODEC.encode(new int[] {number}, 1, bytes);
+        out.write(bytes.toByteArray());
+    }
+
+    /**
+     * Follows the arcs of a prefix.
+     *
+     * @param prefix the prefix
+     * @return the first term ID of the prefix in the high 32 bits, and the number of words in the low 32 bits
+     */
+    private long findPrefix(String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        int state = this.root;
+        int termId = 0;
+        for (byte label: bytes) {
+            int arc = findArc(state, label);
+            if (arc < 0) {
+                return 0;
+            }
+            termId += this.arcOutputs[arc];
+            state = this.arcTargets[arc];
+        }
+
+        return ((long) termId << 32) | this.wordCounts[state];
+    }
+
+    /**
+     * Finds the arc of a state with the given label, using binary search.
+     * The labels are compared as unsigned bytes, which is their order in the arcs.
+     *
+     * @param state the state
+     * @param label the byte
+     * @return the arc, or -1 if there is none
+     */
+    private int findArc(int state, byte label) {
+        int key = label & 0xFF;
+        int low = this.stateArcs[state];
+        int high = this.stateArcs[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = this.arcLabels[middle] & 0xFF;
+            if (current < key) {
+                low = middle + 1;
+            } else if (current > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Builds the automaton from sorted words. The states of the path of the
+     * last word are still open, because the next word may add arcs to them.
+     * When the next word leaves the path, the states below are completed: a
+     * completed state is replaced by an equal state that was completed before,
+     * or gets the next state number, which keeps the automaton minimal.
+     */
+    private static final class Builder {
+
+        /**
+         * The open states, by depth. The state at depth d is reached with the
+         * first d bytes of the last word. The array is reused for all words.
+         */
+        private OpenState[] path = {new OpenState()};
+
+        /**
+         * The last word added.
+         */
+        private byte[] lastWord = new byte[0];
+
+        /**
+         * True until the first word is added.
+         */
+        private boolean isEmpty = true;
+
+        /**
+         * The completed states, mapped to their numbers.
+         */
+        private Map<StateKey, Integer> register = new HashMap<>();
+
+        // The arrays of the automaton, filled as the states are completed.
+        private boolean[] isFinal = new boolean[16];
+        private int[] wordCounts = new int[16];
+        private int[] stateArcs = new int[17];
+        private byte[] arcLabels = new byte[16];
+        private int[] arcTargets = new int[16];
+        private int[] arcOutputs = new int[16];
+        private int stateCount = 0;
+        private int arcCount = 0;
+
+        /**
+         * Adds a word, which has to be larger than the last word.
+         *
+         * @param word the UTF-8 bytes of the word
+         */
+        void add(byte[] word) {
+            int common = 0;
+            while (common < word.length && common < this.lastWord.length && word[common] == this.lastWord[common]) {
+                common++;
+            }
+            boolean isLarger = common < word.length
+                    && (common == this.lastWord.length || (word[common] & 0xFF) > (this.lastWord[common] & 0xFF));
+            if (! this.isEmpty && ! isLarger) {
+                throw new IllegalArgumentException("words must be sorted and distinct: "
+                        + new String(word, StandardCharsets.UTF_8));
+            }
+
+            // The rest of the last word is done.
+            complete(common);
+
+            if (this.path.length <= word.length) {
+                int length = this.path.length;
+                this.path = Arrays.copyOf(this.path, Math.max(word.length + 1, length * 2));
+                for (int depth = length; depth < this.path.length; depth++) {
+                    this.path[depth] = new OpenState();
+                }
+            }
+
+            // Add the rest of the word as new states.
+            for (int depth = common; depth < word.length; depth++) {
+                this.path[depth].addArc(word[depth]);
+                this.path[depth + 1].reset();
+            }
+            this.path[word.length].isFinal = true;
+
+            this.lastWord = word;
+            this.isEmpty = false;
+        }
+
+        /**
+         * Completes the remaining open states.
+         *
+         * @return the automaton
+         */
+        TermAutomaton finish() {
+            complete(0);
+            int root = completeState(this.path[0]);
+            this.stateArcs[this.stateCount] = this.arcCount;
+
+            return new TermAutomaton(root,
+                    Arrays.copyOf(this.isFinal, this.stateCount),
+                    Arrays.copyOf(this.wordCounts, this.stateCount),
+                    Arrays.copyOf(this.stateArcs, this.stateCount + 1),
+                    Arrays.copyOf(this.arcLabels, this.arcCount),
+                    Arrays.copyOf(this.arcTargets, this.arcCount),
+                    Arrays.copyOf(this.arcOutputs, this.arcCount));
+        }
+
+        /**
+         * Completes the open states of the last word below the given depth,
+         * deepest first, and points their parents' last arcs at them.
+         *
+         * @param depth the depth of the deepest state that stays open
+         */
+        private void complete(int depth) {
+            for (int current = this.lastWord.length; current > depth; current--) {
+                int state = completeState(this.path[current]);
+                OpenState parent = this.path[current - 1];
+                parent.targets[parent.arcCount - 1] = state;
+            }
+        }
+
+        /**
+         * Completes an open state, whose targets are all completed.
+         *
+         * @param open the open state
+         * @return the number of the equal completed state
+         */
+        private int completeState(OpenState open) {
+            StateKey key = new StateKey(open);
+            Integer existing = this.register.get(key);
+            if (existing != null) {
+                return existing;
+            }
+
+            int state = this.stateCount++;
+            if (state + 1 == this.isFinal.length) {
+                int capacity = this.isFinal.length * 2;
+                this.isFinal = Arrays.copyOf(this.isFinal, capacity);
+                this.wordCounts = Arrays.copyOf(this.wordCounts, capacity);
+                this.stateArcs = Arrays.copyOf(this.stateArcs, capacity + 1);
+            }
+            if (this.arcCount + open.arcCount > this.arcLabels.length) {
+                int capacity = Math.max(this.arcCount + open.arcCount, this.arcLabels.length * 2);
+                this.arcLabels = Arrays.copyOf(this.arcLabels, capacity);
+                this.arcTargets = Arrays.copyOf(this.arcTargets, capacity);
+                this.arcOutputs = Arrays.copyOf(this.arcOutputs, capacity);
+            }
+
+            // The words of the state: the state itself, then the words of each arc in order.
+            int wordCount = open.isFinal ? 1 : 0;
+            this.stateArcs[state] = this.arcCount;
+            for (int i = 0; i < open.arcCount; i++) {
+                this.arcLabels[this.arcCount] = open.labels[i];
+                this.arcTargets[this.arcCount] = open.targets[i];
+                this.arcOutputs[this.arcCount] = wordCount;
+                wordCount += this.wordCounts[open.targets[i]];
+                this.arcCount++;
+            }
+            this.isFinal[state] = open.isFinal;
+            this.wordCounts[state] = wordCount;
+
+            this.register.put(key, state);
+            return state;
+        }
+    }
+
+    /**
+     * A state on the path of the last word. The target of its last
+     * arc is set when the state below it is completed.
+     */
+    private static final class OpenState {
+        private boolean isFinal;
+        private byte[] labels = new byte[4];
+        private int[] targets = new int[4];
+        private int arcCount;
+
+        /**
+         * Removes all arcs, so the state can be reused.
+         */
+        void reset() {
+            this.isFinal = false;
+            this.arcCount = 0;
+        }
+
+        /**
+         * Adds an arc, whose target is not completed yet.
+         *
+         * @param label the byte of the arc
+         */
+        void addArc(byte label) {
+            if (this.arcCount == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.arcCount * 2);
+                this.targets = Arrays.copyOf(this.targets, this.arcCount * 2);
+            }
+            this.labels[this.arcCount] = label;
+            this.targets[this.arcCount] = -1;
+            this.arcCount++;
+        }
+    }
+
+    /**
+     * The identity of a completed state in the register: whether it is final,
+     * and its arcs. Two states with the same key accept the same words.
+     */
+    private static final class StateKey {
+        private final boolean isFinal;
+        private final byte[] labels;
+        private final int[] targets;
+        private final int hash;
+
+        /**
+         * Creates the key of an open state whose targets are all completed.
+         *
+         * @param open the open state
+         */
+        StateKey(OpenState open) {
+            this.isFinal = open.isFinal;
+            this.labels = Arrays.copyOf(open.labels, open.arcCount);
+            this.targets = Arrays.copyOf(open.targets, open.arcCount);
+            this.hash = 31 * (31 * Arrays.hashCode(this.labels) + Arrays.hashCode(this.targets)) + (this.isFinal ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (! (object instanceof StateKey)) {
+                return false;
+            }
+            StateKey key = (StateKey) object;
+            return this.isFinal == key.isFinal
+                    && Arrays.equals(this.labels, key.labels)
+                    && Arrays.equals(this.targets, key.targets);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
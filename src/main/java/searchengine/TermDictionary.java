@@ -0,0 +1,245 @@
+package searchengine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The term dictionary interns words: every distinct word gets an int term ID,
+ * and its String is only stored once, however many websites it occurs on.
+ * Websites store their words as arrays of term IDs.
+ *
+ * The words are looked up by their UTF-8 bytes, so the {@link WebsiteReader}
+ * only has to decode a word the first time it reads it. The lookup is an open
+ * addressing hash table of term IDs, so there are no boxed integers.
+ *
+ * Every dictionary is owned by whatever builds the websites, like a
+ * {@link WebsiteReader}, so it is freed together with its websites.
+ *
+ * Interning is synchronized, but lookups take no lock. A new term is written
+ * completely before the size is increased, and the size is volatile, so a
+ * lookup only looks at the term IDs below the size it read first. The arrays
+ * are replaced rather than changed when they grow, and they are volatile too.
+ * Getting the word of a term ID is safe from other threads as long as the term
+ * ID was handed to them after it was interned, for example inside a website
+ * passed to a worker of the parallel build.
+ *
+ * @author CodeUnicorns
+ */
+public class TermDictionary {
+
+    /**
+     * The initial number of terms the arrays can hold.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The words, indexed by term ID. The array is replaced when it grows,
+     * so it is volatile for the threads that only read it.
+     */
+    private volatile String[] terms;
+
+    /**
+     * The hashes of the UTF-8 bytes of the words, indexed by term ID.
+     */
+    private volatile int[] hashes;
+
+    /**
+     * The hash table. Each slot stores a term ID plus one, or 0 if the slot is empty.
+     * The length is a power of two, and at least twice the number of terms.
+     */
+    private volatile int[] table;
+
+    /**
+     * The number of terms in the dictionary. It is increased after a term is
+     * written, so the terms below it can be read without the lock.
+     */
+    private volatile int size;
+
+    /**
+     * Creates an empty term dictionary.
+     */
+    public TermDictionary() {
+        this.terms = new String[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.size = 0;
+    }
+
+    /**
+     * Gets the term ID of a word, adding the word if it is new.
+     *
+     * @param term the word
+     * @return the term ID
+     */
+    public int intern(String term) {
+        byte[] data = term.getBytes(StandardCharsets.UTF_8);
+        return intern(data, 0, data.length);
+    }
+
+    /**
+     * Gets the term ID of a word given as UTF-8 bytes, adding the word if it is new.
+     * The bytes are only decoded into a String if the word is new.
+     *
+     * @param data the array containing the bytes
+     * @param offset the position of the first byte
+     * @param length the number of bytes
+     * @return the term ID
+     */
+    public synchronized int intern(byte[] data, int offset, int length) {
+        int hash = hash(data, offset, length);
+        int termId = this.size;
+        int slot = find(this.table, this.hashes, this.terms, termId, hash, data, offset, length);
+        if (this.table[slot] != 0) {
+            return this.table[slot] - 1;
+        }
+
+        if (termId == this.terms.length) {
+            this.hashes = Arrays.copyOf(this.hashes, termId * 2);
+            this.terms = Arrays.copyOf(this.terms, termId * 2);
+        }
+
+        this.hashes[termId] = hash;
+        this.terms[termId] = new String(data, offset, length, StandardCharsets.UTF_8);
+        this.table[slot] = termId + 1;
+        // Publish the term to the lookups.
+        this.size = termId + 1;
+
+        // Keep the table at most half full.
+        if (this.size * 2 > this.table.length) {
+            rehash();
+        }
+
+        return termId;
+    }
+
+    /**
+     * Gets the term ID of a word, without adding it. The lookup takes no lock,
+     * and finds every word interned before it started.
+     *
+     * @param term the word
+     * @return the term ID, or -1 if the word is null or not in the dictionary
+     */
+    public int getTermId(String term) {
+        if (term == null) {
+            return -1;
+        }
+
+        // Read the size first, so the arrays contain at least this many terms.
+        int size = this.size;
+        int[] table = this.table;
+        byte[] data = term.getBytes(StandardCharsets.UTF_8);
+        int slot = find(table, this.hashes, this.terms, size, hash(data, 0, data.length), data, 0, data.length);
+        int termId = table[slot] - 1;
+        return termId < size ? termId : -1;
+    }
+
+    /**
+     * Gets the word of a term ID.
+     *
+     * @param termId the term ID
+     * @return the word
+     */
+    public String getTerm(int termId) {
+        return this.terms[termId];
+    }
+
+    /**
+     * Gets the number of words in the dictionary.
+     *
+     * @return the number of distinct words
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the slot of a word in the hash table, which is either the slot
+     * storing its term ID or the empty slot for adding it. Slots storing a
+     * term ID of at least the size were filled by a concurrent intern; they
+     * end the search like an empty slot, because the terms below the size
+     * never come after them in the probe sequence.
+     *
+     * @param table the hash table
+     * @param hashes the hashes of the words
+     * @param terms the words
+     * @param size the number of terms to look at
+     * @param hash the hash of the bytes
+     * @param data the array containing the bytes
+     * @param offset the position of the first byte
+     * @param length the number of bytes
+     * @return the slot
+     */
+    private static int find(int[] table, int[] hashes, String[] terms, int size,
+                            int hash, byte[] data, int offset, int length) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0 && table[slot] <= size) {
+            int termId = table[slot] - 1;
+            if (hashes[termId] == hash && matches(terms[termId], data, offset, length)) {
+                return slot;
+            }
+            // Linear probing.
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Doubles the hash table and inserts the term IDs again.
+     */
+    private void rehash() {
+        int[] table = new int[this.table.length * 2];
+        int mask = table.length - 1;
+        for (int termId = 0; termId < this.size; termId++) {
+            int slot = this.hashes[termId] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = termId + 1;
+        }
+        this.table = table;
+    }
+
+    /**
+     * Hashes UTF-8 bytes.
+     *
+     * @param data the array containing the bytes
+     * @param offset the position of the first byte
+     * @param length the number of bytes
+     * @return the hash
+     */
+    private static int hash(byte[] data, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + data[i];
+        }
+
+        // Spread the high bits, because the table uses the low bits.
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Checks whether a word equals UTF-8 bytes. ASCII bytes are compared to the
+     * characters directly; anything else is decoded first.
+     *
+     * @param term the word
+     * @param data the array containing the bytes
+     * @param offset the position of the first byte
+     * @param length the number of bytes
+     * @return true if the bytes encode the word
+     */
+    private static boolean matches(String term, byte[] data, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = data[offset + i];
+            if (b < 0) {
+                return term.equals(new String(data, offset, length, StandardCharsets.UTF_8));
+            }
+            if (i >= term.length() || term.charAt(i) != b) {
+                return false;
+            }
+        }
+
+        return term.length() == length;
+    }
+}
@@ -0,0 +1,41 @@
+package searchengine;
+
+/**
+ * A term scorer calculates the scores of a single query word. It is created
+ * once per query word by {@link Score#getTermScorer(String, int, Index)}, so values
+ * depending only on the word (like idf) are computed once and not for every website.
+ *
+ * @author CodeUnicorns
+ */
+public interface TermScorer {
+
+    /**
+     * Calculates the score of the word on a website.
+     *
+     * @param docId the document ID of the website
+     * @param frequency the number of times the word occurs on the website
+     * @return the score of the word on the website
+     */
+    double score(int docId, int frequency);
+
+    /**
+     * Calculates the scores of the word on a block of websites, and adds them
+     * to the scores of the websites. Scoring a block in one call lets the
+     * scorer run a tight loop over primitive arrays, instead of one call per website.
+     *
+     * @param docIds the document IDs of the websites, in increasing order
+     * @param frequencies the number of times the word occurs on each website
+     * @param count the number of websites in the block
+     * @param scores the scores of the websites, which the scores of the word are added to
+     */
+    void addScores(int[] docIds, int[] frequencies, int count, double[] scores);
+
+    /**
+     * Calculates an upper bound for the score of the word on any website
+     * where the word occurs at most the given number of times.
+     *
+     * @param maxFrequency the highest frequency of the word, as stored in its postings list
+     * @return the highest possible score of the word
+     */
+    double getMaxScore(int maxFrequency);
+}
@@ -0,0 +1,107 @@
+package searchengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * An index of the words in the titles of the websites, for scores like BM25F
+ * that weigh a word in the title more than a word in the body. A title is split
+ * into words like the body of a website: at spaces, in lower case, and keeping
+ * only letters and digits. Each title word has a postings list with its
+ * frequency in the titles, and the title lengths are stored as {@link LengthNorms}.
+ *
+ * @author CodeUnicorns
+ */
+public class TitleIndex {
+
+    /**
+     * The postings list of each title word, sorted so prefixes are ranges.
+     */
+    private TreeMap<String, ArrayPostingsList> words = new TreeMap<>();
+
+    /**
+     * The lengths of the titles.
+     */
+    private LengthNorms norms;
+
+    /**
+     * Builds the index of titles.
+     *
+     * @param titles the titles of the websites, by document ID
+     */
+    public TitleIndex(List<String> titles) {
+        int[] lengths = new int[titles.size()];
+        for (int docId = 0; docId < lengths.length; docId++) {
+            for (String word: split(titles.get(docId))) {
+                ArrayPostingsList postings = this.words.get(word);
+                if (postings == null) {
+                    postings = new ArrayPostingsList();
+                    this.words.put(word, postings);
+                }
+                // The titles are processed in order, so a repeated word adds to the last frequency.
+                postings.add(docId);
+                lengths[docId]++;
+            }
+        }
+
+        for (ArrayPostingsList postings: this.words.values()) {
+            postings.trimToSize();
+        }
+        this.norms = new LengthNorms(lengths);
+    }
+
+    /**
+     * Gets the postings list of a word in the titles. A word ending with "*" is
+     * a prefix, whose frequency is the sum of the frequencies of its words.
+     *
+     * @param query the word or prefix
+     * @return the postings list, never null
+     */
+    public PostingsList getPostings(String query) {
+        if (query.endsWith("*")) {
+            String prefix = query.replace("*", "");
+            if (! PrefixSearch.isValid(prefix)) {
+                return new ArrayPostingsList();
+            }
+            List<PostingsList> postingsLists = new ArrayList<PostingsList>(
+                    this.words.subMap(prefix, prefix + Character.MAX_VALUE).values());
+            return PrefixSearch.sum(postingsLists, this.norms.size(), Integer.MAX_VALUE);
+        }
+
+        PostingsList postings = this.words.get(query);
+        return postings == null ? new ArrayPostingsList() : postings;
+    }
+
+    /**
+     * Gets the lengths of the titles.
+     *
+     * @return the norms of the title lengths
+     */
+    public LengthNorms getNorms() {
+        return this.norms;
+    }
+
+    /**
+     * Splits a title into words, in lower case, keeping only letters and digits.
+     *
+     * @param title the title
+     * @return the words of the title
+     */
+    static List<String> split(String title) {
+        List<String> result = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= title.length(); i++) {
+            char c = i < title.length() ? title.charAt(i) : ' ';
+            if (c == ' ') {
+                if (word.length() > 0) {
+                    result.add(word.toString());
+                    word.setLength(0);
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            }
+        }
+        return result;
+    }
+}
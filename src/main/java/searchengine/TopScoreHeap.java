@@ -0,0 +1,192 @@
+package searchengine;
+
+/**
+ * A bounded min-heap of document IDs and scores, keeping only the best
+ * documents seen so far. The root is the worst kept document, so a new
+ * document only has to be compared against it. Documents are ranked by
+ * decreasing score, and alphabetically by title if the scores are the same.
+ *
+ * @author CodeUnicorns
+ */
+public class TopScoreHeap {
+
+    /**
+     * The index used to look up the titles of documents with the same score.
+     */
+    private Index index;
+
+    /**
+     * The document IDs, in heap order.
+     */
+    private int[] docIds;
+
+    /**
+     * The scores, parallel to the document IDs.
+     */
+    private double[] scores;
+
+    /**
+     * The number of documents in the heap.
+     */
+    private int size;
+
+    /**
+     * The number of documents offered to the heap, kept or not.
+     */
+    private int totalOffered;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity the maximum number of documents kept
+     * @param index the index used to look up the titles
+     */
+    public TopScoreHeap(int capacity, Index index) {
+        this.index = index;
+        this.docIds = new int[capacity];
+        this.scores = new double[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Offers a document to the heap. It is only kept if the heap is not full,
+     * or if it ranks better than the worst document in the heap.
+     *
+     * @param docId the document ID
+     * @param score the score of the document
+     */
+    public void offer(int docId, double score) {
+        this.totalOffered++;
+        if (this.size < this.docIds.length) {
+            // There is still room, so add it at the bottom and move it up.
+            int position = this.size++;
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (! isWorse(docId, score, this.docIds[parent], this.scores[parent])) {
+                    break;
+                }
+                this.docIds[position] = this.docIds[parent];
+                this.scores[position] = this.scores[parent];
+                position = parent;
+            }
+            this.docIds[position] = docId;
+            this.scores[position] = score;
+        } else if (this.size > 0 && isWorse(this.docIds[0], this.scores[0], docId, score)) {
+            // It is better than the worst one, so it replaces the root.
+            replaceRoot(docId, score);
+        }
+    }
+
+    /**
+     * Checks whether the heap is full, so a new document has to beat the worst one to be kept.
+     *
+     * @return true if the heap is full
+     */
+    public boolean isFull() {
+        return this.size == this.docIds.length;
+    }
+
+    /**
+     * Gets the score of the worst document in the heap.
+     *
+     * @return the lowest score, or negative infinity if the heap is empty
+     */
+    public double getMinScore() {
+        return this.size == 0 ? Double.NEGATIVE_INFINITY : this.scores[0];
+    }
+
+    /**
+     * Gets the number of documents offered to the heap, including those that were not kept.
+     *
+     * @return the number of offered documents
+     */
+    public int getTotalOffered() {
+        return this.totalOffered;
+    }
+
+    /**
+     * Gets the number of documents in the heap.
+     *
+     * @return the size of the heap
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Empties the heap into a scored list, ranked from best to worst.
+     *
+     * @return the documents in the heap, best first
+     */
+    public ScoredDocuments toSortedDocuments() {
+        int count = this.size;
+        int[] sortedDocIds = new int[count];
+        double[] sortedScores = new double[count];
+
+        // Removing the root repeatedly yields the documents from worst to best.
+        for (int i = count - 1; i >= 0; i--) {
+            sortedDocIds[i] = this.docIds[0];
+            sortedScores[i] = this.scores[0];
+            this.size--;
+            if (this.size > 0) {
+                replaceRoot(this.docIds[this.size], this.scores[this.size]);
+            }
+        }
+
+        ScoredDocuments result = new ScoredDocuments(count);
+        for (int i = 0; i < count; i++) {
+            result.add(sortedDocIds[i], sortedScores[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Puts a document at the root and moves it down to its place.
+     *
+     * @param docId the document ID
+     * @param score the score of the document
+     */
+    private void replaceRoot(int docId, double score) {
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= this.size) {
+                break;
+            }
+
+            // Pick the worse of the two children.
+            if (child + 1 < this.size && isWorse(this.docIds[child + 1], this.scores[child + 1], this.docIds[child], this.scores[child])) {
+                child++;
+            }
+
+            if (! isWorse(this.docIds[child], this.scores[child], docId, score)) {
+                break;
+            }
+
+            this.docIds[position] = this.docIds[child];
+            this.scores[position] = this.scores[child];
+            position = child;
+        }
+        this.docIds[position] = docId;
+        this.scores[position] = score;
+    }
+
+    /**
+     * Checks whether the first document ranks worse than the second one.
+     *
+     * @param docId1 the first document ID
+     * @param score1 the score of the first document
+     * @param docId2 the second document ID
+     * @param score2 the score of the second document
+     * @return true if the first document ranks worse
+     */
+    private boolean isWorse(int docId1, double score1, int docId2, double score2) {
+        if (score1 != score2) {
+            return score1 < score2;
+        }
+
+        // If the score is the same, the sites are ordered alphabetically by title.
+        return index.getWebsite(docId1).getTitle().compareTo(index.getWebsite(docId2).getTitle()) > 0;
+    }
+}
@@ -0,0 +1,143 @@
+package searchengine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the urls of the websites, which finds the websites whose url
+ * contains a text, as needed by the "site:" filter. Every url is split into
+ * its overlapping trigrams (three characters), and each trigram has a postings
+ * list of the websites whose url contains it. A url containing the filter
+ * contains all trigrams of the filter, so only the websites in the intersection
+ * of their postings lists have to be checked.
+ *
+ * @author CodeUnicorns
+ */
+public class UrlIndex {
+
+    /**
+     * The number of characters of a gram.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * The urls of the websites, by document ID.
+     */
+    private String[] urls;
+
+    /**
+     * The postings list of each trigram, keyed by its three characters.
+     */
+    private Map<Long, ArrayPostingsList> grams = new HashMap<>();
+
+    /**
+     * Builds the index of urls.
+     *
+     * @param urls the urls of the websites, by document ID
+     */
+    public UrlIndex(List<String> urls) {
+        this.urls = urls.toArray(new String[0]);
+        for (int docId = 0; docId < this.urls.length; docId++) {
+            String url = this.urls[docId];
+            for (int i = 0; i + GRAM_LENGTH <= url.length(); i++) {
+                Long gram = getGram(url, i);
+                ArrayPostingsList postings = this.grams.get(gram);
+                if (postings == null) {
+                    postings = new ArrayPostingsList();
+                    this.grams.put(gram, postings);
+                }
+                // A trigram occurring twice in a url only counts once.
+                if (postings.size() == 0 || postings.getDocId(postings.size() - 1) != docId) {
+                    postings.add(docId, 1);
+                }
+            }
+        }
+
+        for (ArrayPostingsList postings: this.grams.values()) {
+            postings.trimToSize();
+        }
+    }
+
+    /**
+     * Gets the websites whose url contains a text.
+     *
+     * @param urlFilter the text
+     * @return the postings list of the websites, with a frequency of 1
+     */
+    public PostingsList getPostings(String urlFilter) {
+        ArrayPostingsList result = new ArrayPostingsList();
+
+        // A filter shorter than a trigram has to be checked against every url.
+        if (urlFilter.length() < GRAM_LENGTH) {
+            for (int docId = 0; docId < this.urls.length; docId++) {
+                if (this.urls[docId].contains(urlFilter)) {
+                    result.add(docId, 1);
+                }
+            }
+            return result;
+        }
+
+        PostingsList[] lists = new PostingsList[urlFilter.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = this.grams.get(getGram(urlFilter, i));
+            if (lists[i] == null) {
+                return result;
+            }
+        }
+
+        // Intersect the trigrams starting from the rarest.
+        Arrays.sort(lists, new Comparator<PostingsList>() {
+            @Override
+            public int compare(PostingsList o1, PostingsList o2) {
+                return Integer.compare(o1.size(), o2.size());
+            }
+        });
+        PostingsIterator[] iterators = new PostingsIterator[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            iterators[i] = lists[i].iterator();
+        }
+
+        int docId = iterators[0].nextDoc();
+        while (docId != PostingsIterator.NO_MORE_DOCS) {
+            int nextDocId = docId;
+            for (int i = 1; i < iterators.length && nextDocId == docId; i++) {
+                nextDocId = iterators[i].advance(docId);
+            }
+
+            if (nextDocId == docId) {
+                // The trigrams may be in other places, so the url has to be checked.
+                if (this.urls[docId].contains(urlFilter)) {
+                    result.add(docId, 1);
+                }
+                docId = iterators[0].nextDoc();
+            } else {
+                docId = iterators[0].advance(nextDocId);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the number of distinct trigrams of the urls.
+     *
+     * @return the number of trigrams
+     */
+    public int getGramCount() {
+        return this.grams.size();
+    }
+
+    /**
+     * Packs the three characters at a position into a key.
+     *
+     * @param text the text
+     * @param position the position of the first character
+     * @return the key of the trigram
+     */
+    private static Long getGram(String text, int position) {
+        return ((long) text.charAt(position) << 32) | ((long) text.charAt(position + 1) << 16) | text.charAt(position + 2);
+    }
+}
@@ -0,0 +1,64 @@
+package searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The variable-byte codec stores 7 bits of a value per byte, starting with
+ * the lowest bits. The highest bit of a byte is set if more bytes follow,
+ * so small values like most document ID gaps only take a single byte.
+ *
+ * @author CodeUnicorns
+ */
+public class VByteCodec implements PostingsCodec {
+
+    /**
+     * Encodes the values and appends them to the output.
+     *
+     * @param values the values to encode, all non-negative
+     * @param count the number of values to encode
+     * @param out the output the encoded bytes are written to
+     */
+    @Override
+    public void encode(int[] values, int count, ByteArrayOutputStream out) {
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    /**
+     * Decodes the values.
+     *
+     * @param data the encoded bytes
+     * @param offset the position of the first encoded byte
+     * @param values the array the decoded values are written to
+     * @param count the number of values to decode
+     * @return the position right after the decoded bytes
+     */
+    @Override
+    public int decode(ByteBuffer data, int offset, int[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(offset++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            values[i] = value;
+        }
+
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return "VByteCodec";
+    }
+}
@@ -9,7 +9,8 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 // Other Imports.
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 /**
  * Turns our search engine into a Web application, using Spring
@@ -28,6 +29,16 @@ public class WebApplication {
     // Search Engine instance.
     public static SearchEngine searchengine;
 
+    /**
+     * The number of websites on a page of results, if the request doesn't say.
+     */
+    private static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * The maximum number of websites on a page of results.
+     */
+    private static final int MAX_LIMIT = 1000;
+
     /**
      * Starts a web server that serves our search engine to the
      * Web. It reads the list of websites from the input file given as
@@ -39,11 +50,7 @@ public class WebApplication {
     public static void main(String[] args) {
         System.out.println("Welcome to the SearchEngine!");
 
-        System.out.println("Reading database...");
-        List<Website> sites = FileHelper.parseFile(args);
-
-        System.out.println("Building the search engine...");
-        searchengine = new SearchEngine(sites);
+        searchengine = FileHelper.loadSearchEngine(args);
 
         System.out.println("Search engine is ready to receive queries.");
         System.out.println("Starting web server:");
@@ -53,23 +60,35 @@ public class WebApplication {
     }
 
     /**
-     * Uses the search engine to search for the list of websites
+     * Uses the search engine to search for one page of the websites
      * matching the given query. This method is invoked by the web
      * server whenever it receives an HTTP request to "/search".
+     * The page is written as JSON straight into the response, see
+     * {@link SearchResponse}.
      *
      * @param query the query string
-     * @return the list of websites that matches the query
+     * @param offset the number of best ranked websites to skip
+     * @param limit the maximum number of websites on the page, at most 1000
+     * @param response the HTTP response the page is written to
+     * @throws IOException if writing the response fails
      */
     @CrossOrigin(origins = "*")
     @RequestMapping("/search")
-    public List<ScoredWebsite> search(@RequestParam(value="query", defaultValue="") String query) {
+    public void search(@RequestParam(value="query", defaultValue="") String query,
+                       @RequestParam(value="offset", defaultValue="0") int offset,
+                       @RequestParam(value="limit", defaultValue="" + DEFAULT_LIMIT) int limit,
+                       HttpServletResponse response) throws IOException {
 
         System.out.println("Handling request for query word \"" + query + "\"");
 
-        List<ScoredWebsite> resultList = searchengine.search(query);
+        offset = Math.max(0, offset);
+        limit = Math.max(0, Math.min(limit, MAX_LIMIT));
+        SearchResult result = searchengine.search(query, limit, offset);
 
-        System.out.println("Found " + resultList.size() + " websites.");
+        System.out.println("Found " + result.getTotalHits() + " websites.");
 
-        return resultList;
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        new SearchResponse(query, offset, limit, result).write(response.getWriter());
     }
 }
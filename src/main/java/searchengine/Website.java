@@ -1,5 +1,7 @@
 package searchengine;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -20,22 +22,70 @@ public class Website {
     private String url;
 
     /**
-     * a list of words storing the words on the website
+     * the term IDs of the words on the website, in the order of the words
      */
-    private List<String> words;
+    private int[] termIds;
+
+    /**
+     * the dictionary of the term IDs
+     */
+    private TermDictionary dictionary;
 
     /**
      * Creates a {@code Website} object from a url, a title, and a list of words
-     * that are contained on the website.
+     * that are contained on the website. The words are interned in a new
+     * {@link TermDictionary} of this website alone, while the websites read
+     * by a {@link WebsiteReader} share the dictionary of the reader.
      *
      * @param url the website's url
      * @param title the website's title
      * @param words the website's list of words
      */
     public Website(String url, String title, List<String> words) {
+        this(url, title, new TermDictionary(), words);
+    }
+
+    /**
+     * Creates a {@code Website} object whose words are interned in the given dictionary.
+     *
+     * @param url the website's url
+     * @param title the website's title
+     * @param dictionary the dictionary the words are interned in
+     * @param words the website's list of words
+     */
+    private Website(String url, String title, TermDictionary dictionary, List<String> words) {
+        this(url, title, intern(words, dictionary), dictionary);
+    }
+
+    /**
+     * Creates a {@code Website} object from a url, a title, and the term IDs
+     * of the words that are contained on the website.
+     *
+     * @param url the website's url
+     * @param title the website's title
+     * @param termIds the term IDs of the website's words
+     * @param dictionary the dictionary of the term IDs
+     */
+    public Website(String url, String title, int[] termIds, TermDictionary dictionary) {
         this.url = url;
         this.title = title;
-        this.words = words;
+        this.termIds = termIds;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Interns a list of words.
+     *
+     * @param words the words
+     * @param dictionary the dictionary
+     * @return the term IDs of the words
+     */
+    private static int[] intern(List<String> words, TermDictionary dictionary) {
+        int[] termIds = new int[words.size()];
+        for (int i = 0; i < termIds.length; i++) {
+            termIds[i] = dictionary.intern(words.get(i));
+        }
+        return termIds;
     }
 
     /**
@@ -57,12 +107,41 @@ public class Website {
     }
 
     /**
-     * Returns the website's words.
+     * Returns the website's words, as a read-only view of the term IDs.
      *
      * @return the website's words.
      */
     public List<String> getWords() {
-        return words;
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return dictionary.getTerm(termIds[index]);
+            }
+
+            @Override
+            public int size() {
+                return termIds.length;
+            }
+        };
+    }
+
+    /**
+     * Returns the term IDs of the website's words, in the order of the words.
+     * The array must not be modified.
+     *
+     * @return the website's term IDs.
+     */
+    public int[] getTermIds() {
+        return termIds;
+    }
+
+    /**
+     * Returns the dictionary of the website's term IDs.
+     *
+     * @return the term dictionary.
+     */
+    public TermDictionary getTermDictionary() {
+        return dictionary;
     }
 
     /**
@@ -72,13 +151,24 @@ public class Website {
      * @return True, if the word is present on the website
      */
     public boolean containsWord(String word) {
-        return words.contains(word);
+        int termId = dictionary.getTermId(word);
+        // Words that are not in the dictionary aren't on any website.
+        if (termId < 0) {
+            return false;
+        }
+
+        for (int id: termIds) {
+            if (id == termId) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Because the contains method from ArrayList uses the inner's object
      * equals method, we have to make sure only the title, url and words
-     * are checked (ignoring the score in case the website is a ScoredWebsite).
+     * are checked.
      *
      * @param object the object to check
      * @return true if the object is equal, false otherwise
@@ -86,9 +176,16 @@ public class Website {
     @Override
     public boolean equals(Object object) {
         if (object instanceof Website) {
-            return this.title.equals(((Website) object).getTitle())
-                    && this.url.equals(((Website) object).getUrl())
-                    && this.words.equals(((Website) object).getWords());
+            Website website = (Website) object;
+            if (! this.title.equals(website.getTitle()) || ! this.url.equals(website.getUrl())) {
+                return false;
+            }
+
+            // Term IDs of the same dictionary can be compared directly.
+            if (this.dictionary == website.getTermDictionary()) {
+                return Arrays.equals(this.termIds, website.getTermIds());
+            }
+            return this.getWords().equals(website.getWords());
         }
 
         return false;
@@ -99,7 +196,7 @@ public class Website {
         return "Website{" +
                 "title='" + title + '\'' +
                 ", url='" + url + '\'' +
-                ", words=" + words +
+                ", words=" + getWords() +
                 '}';
     }
 }
@@ -0,0 +1,337 @@
+package searchengine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the websites of a database file one at a time, so the websites can
+ * be indexed while the file is read, without building a list of all of them.
+ * The file format is described in {@link FileHelper#parseFile(String)}.
+ *
+ * The file is read in large chunks from a file channel, and lines are found
+ * by looking for the newline byte, so there are no regular expressions
+ * involved like in {@code Scanner}. Only complete lines are decoded from UTF-8.
+ *
+ * The reader always reads one website ahead, so {@link #hasNext()} knows
+ * whether another complete website follows, even if the file ends with
+ * websites that are skipped.
+ *
+ * @author CodeUnicorns
+ */
+public class WebsiteReader implements Iterator<Website>, Closeable {
+
+    /**
+     * The size of the chunks read from the file.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The bytes of "*PAGE:", which starts a new website.
+     */
+    private static final byte[] PAGE_MARKER = "*PAGE:".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The channel of the database file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The bytes read from the file but not processed yet are in buffer[start, end).
+     */
+    private byte[] buffer;
+
+    /**
+     * The position of the first unprocessed byte in the buffer.
+     */
+    private int start;
+
+    /**
+     * The position after the last byte read into the buffer.
+     */
+    private int end;
+
+    /**
+     * True if the whole file was read into the buffer.
+     */
+    private boolean endOfFile;
+
+    /**
+     * The url of the next "*PAGE:" line, or null if there is none.
+     */
+    private String nextUrl;
+
+    /**
+     * The next website, which is read ahead, or null if there is none.
+     */
+    private Website next;
+
+    /**
+     * The dictionary the words are interned in.
+     */
+    private TermDictionary dictionary;
+
+    /**
+     * The term IDs of the website being read. The array is reused for all websites.
+     */
+    private int[] termIds = new int[64];
+
+    /**
+     * Opens a database file with a new term dictionary, and skips any
+     * lines before the first website.
+     *
+     * @param filename the path of the database file
+     * @throws IOException if the file can't be opened
+     */
+    public WebsiteReader(String filename) throws IOException {
+        this(filename, new TermDictionary());
+    }
+
+    /**
+     * Opens a database file, and skips any lines before the first website.
+     *
+     * @param filename the path of the database file
+     * @param dictionary the dictionary the words are interned in
+     * @throws IOException if the file can't be opened
+     */
+    public WebsiteReader(String filename, TermDictionary dictionary) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        this.buffer = new byte[CHUNK_SIZE];
+        this.dictionary = dictionary;
+        this.nextUrl = findNextUrl();
+        this.next = readWebsite();
+    }
+
+    /**
+     * Checks whether there is another website in the file.
+     *
+     * @return true if there is another website
+     */
+    @Override
+    public boolean hasNext() {
+        return this.next != null;
+    }
+
+    /**
+     * Gets the next website, and reads the one after it.
+     *
+     * @return the next website
+     * @throws NoSuchElementException if there are no more websites
+     * @throws UncheckedIOException if reading the file fails
+     */
+    @Override
+    public Website next() {
+        if (this.next == null) {
+            throw new NoSuchElementException();
+        }
+
+        Website website = this.next;
+        try {
+            this.next = readWebsite();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return website;
+    }
+
+    /**
+     * Reads the next website. Websites without a title or without any
+     * words are skipped, like in {@link FileHelper#parseFile(String)}.
+     *
+     * @return the next website, or null if there are no more websites
+     * @throws IOException if reading the file fails
+     */
+    private Website readWebsite() throws IOException {
+        while (this.nextUrl != null) {
+            String url = this.nextUrl;
+            this.nextUrl = null;
+
+            // The line after "*PAGE:" is the title.
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0 || isPageLine(lineEnd)) {
+                // The website has no title, so it is skipped.
+                this.nextUrl = lineEnd < 0 ? null : readPageUrl(lineEnd);
+                continue;
+            }
+            String title = readLine(lineEnd);
+
+            // The following lines are the words, until the next "*PAGE:" line.
+            int wordCount = 0;
+            while ((lineEnd = findLineEnd()) >= 0) {
+                if (isPageLine(lineEnd)) {
+                    this.nextUrl = readPageUrl(lineEnd);
+                    break;
+                }
+
+                int termId = readTermId(lineEnd);
+                // Empty lines can't be searched for anyway.
+                if (termId >= 0) {
+                    if (wordCount == this.termIds.length) {
+                        this.termIds = Arrays.copyOf(this.termIds, wordCount * 2);
+                    }
+                    this.termIds[wordCount++] = termId;
+                }
+            }
+
+            if (wordCount > 0) {
+                return new Website(url, title, Arrays.copyOf(this.termIds, wordCount), this.dictionary);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Closes the database file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Skips lines until the first "*PAGE:" line.
+     *
+     * @return the url of the first website, or null if there is none
+     * @throws IOException if reading fails
+     */
+    private String findNextUrl() throws IOException {
+        int lineEnd;
+        while ((lineEnd = findLineEnd()) >= 0) {
+            if (isPageLine(lineEnd)) {
+                return readPageUrl(lineEnd);
+            }
+            this.start = lineEnd + 1;
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the end of the next line, reading more of the file if needed.
+     * The last line of the file doesn't need to end with a newline.
+     *
+     * @return the position of the newline (or of the end of the last line), or -1 at the end of the file
+     * @throws IOException if reading fails
+     */
+    private int findLineEnd() throws IOException {
+        int position = this.start;
+        while (true) {
+            for (; position < this.end; position++) {
+                if (this.buffer[position] == '\n') {
+                    return position;
+                }
+            }
+
+            if (this.endOfFile) {
+                // The last line has no newline, unless the file is done.
+                return this.start < this.end ? this.end : -1;
+            }
+
+            // Keep the unprocessed bytes, and read the next chunk after them.
+            position -= this.start;
+            fill();
+        }
+    }
+
+    /**
+     * Moves the unprocessed bytes to the front of the buffer, and reads the next chunk.
+     *
+     * @throws IOException if reading fails
+     */
+    private void fill() throws IOException {
+        int remaining = this.end - this.start;
+        if (this.start > 0) {
+            System.arraycopy(this.buffer, this.start, this.buffer, 0, remaining);
+        } else if (remaining == this.buffer.length) {
+            // A line longer than the buffer.
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+        }
+        this.start = 0;
+        this.end = remaining;
+
+        int read = this.channel.read(ByteBuffer.wrap(this.buffer, this.end, this.buffer.length - this.end));
+        if (read < 0) {
+            this.endOfFile = true;
+        } else {
+            this.end += read;
+        }
+    }
+
+    /**
+     * Checks whether the next line starts with "*PAGE:".
+     *
+     * @param lineEnd the end of the line
+     * @return true if the line starts a new website
+     */
+    private boolean isPageLine(int lineEnd) {
+        if (lineEnd - this.start < PAGE_MARKER.length) {
+            return false;
+        }
+
+        for (int i = 0; i < PAGE_MARKER.length; i++) {
+            if (this.buffer[this.start + i] != PAGE_MARKER[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes the url of a "*PAGE:" line, and moves past the line.
+     *
+     * @param lineEnd the end of the line
+     * @return the url
+     */
+    private String readPageUrl(int lineEnd) {
+        this.start += PAGE_MARKER.length;
+        return readLine(lineEnd);
+    }
+
+    /**
+     * Interns the next line as a word, and moves past it. The line is
+     * only decoded if the dictionary doesn't contain it yet.
+     *
+     * @param lineEnd the end of the line
+     * @return the term ID, or -1 if the line is empty
+     */
+    private int readTermId(int lineEnd) {
+        int length = lineEnd - this.start;
+        if (length > 0 && this.buffer[lineEnd - 1] == '\r') {
+            length--;
+        }
+
+        int termId = length > 0 ? this.dictionary.intern(this.buffer, this.start, length) : -1;
+        this.start = lineEnd + 1;
+        return termId;
+    }
+
+    /**
+     * Decodes the next line, and moves past it. A carriage return
+     * before the newline is not part of the line.
+     *
+     * @param lineEnd the end of the line
+     * @return the line
+     */
+    private String readLine(int lineEnd) {
+        int length = lineEnd - this.start;
+        if (length > 0 && this.buffer[lineEnd - 1] == '\r') {
+            length--;
+        }
+
+        String line = new String(this.buffer, this.start, length, StandardCharsets.UTF_8);
+        this.start = lineEnd + 1;
+        return line;
+    }
+}
@@ -0,0 +1,181 @@
+package searchengine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache that is safe to use from several threads. Both the number
+ * of entries and their total weight are limited, and every entry has a weight
+ * given when it is put, for example the number of websites in a result.
+ *
+ * The least recently used entries are evicted to make room. A new entry is only
+ * admitted if it is seen more often than every entry it would evict, using a
+ * {@link FrequencySketch} of recent lookups (the TinyLFU admission policy), so
+ * entries that are only used once don't push the popular entries out.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author CodeUnicorns
+ */
+public class WeightedCache<K, V> {
+
+    /**
+     * The entries with their weights, from least to most recently used.
+     */
+    private LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated frequencies of recently looked up keys.
+     */
+    private FrequencySketch sketch;
+
+    /**
+     * The maximum number of entries.
+     */
+    private int maxEntries;
+
+    /**
+     * The maximum total weight of the entries.
+     */
+    private long maxWeight;
+
+    /**
+     * The total weight of the entries.
+     */
+    private long weight;
+
+    // The statistics.
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long rejectionCount;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param maxWeight the maximum total weight of the entries
+     * @throws IllegalArgumentException if a maximum is less than 1
+     */
+    public WeightedCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache limits must be at least 1: " + maxEntries + ", " + maxWeight);
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * Gets the value of a key, and marks it as recently used.
+     *
+     * @param key the key
+     * @return the value, or null if the key is not in the cache
+     */
+    public synchronized V get(K key) {
+        this.sketch.increment(key);
+
+        Entry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            this.missCount++;
+            return null;
+        }
+
+        this.hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Puts a value into the cache, if it is admitted. Entries that are heavier
+     * than the maximum weight are never admitted. If the value is rejected, the
+     * cache is left unchanged, including a previous value of the key.
+     *
+     * @param key the key
+     * @param value the value
+     * @param weight the weight of the entry, at least 1
+     * @return true if the value was admitted
+     * @throws IllegalArgumentException if the weight is less than 1
+     */
+    public synchronized boolean put(K key, V value, long weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Cache entry weight must be at least 1: " + weight);
+        }
+
+        if (weight > this.maxWeight) {
+            this.rejectionCount++;
+            return false;
+        }
+
+        // The previous value is replaced, so it makes room. Getting it also makes
+        // it the most recently used entry, so it is never one of the victims.
+        Entry<V> previous = this.entries.get(key);
+        int size = this.entries.size();
+        long totalWeight = this.weight;
+        if (previous != null) {
+            size--;
+            totalWeight -= previous.weight;
+        }
+
+        // Find the least recently used entries that have to be evicted, before
+        // changing anything. The new entry has to be more popular than each of them.
+        int frequency = this.sketch.estimate(key);
+        int victims = 0;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = this.entries.entrySet().iterator();
+        while (size >= this.maxEntries || totalWeight + weight > this.maxWeight) {
+            Map.Entry<K, Entry<V>> victim = eldest.next();
+            if (frequency <= this.sketch.estimate(victim.getKey())) {
+                this.rejectionCount++;
+                return false;
+            }
+            size--;
+            totalWeight -= victim.getValue().weight;
+            victims++;
+        }
+
+        eldest = this.entries.entrySet().iterator();
+        for (int i = 0; i < victims; i++) {
+            eldest.next();
+            eldest.remove();
+            this.evictionCount++;
+        }
+
+        this.entries.put(key, new Entry<>(value, weight));
+        this.weight = totalWeight + weight;
+        return true;
+    }
+
+    /**
+     * Removes all entries, for example because the data they were computed from
+     * changed. The statistics and the frequencies are kept.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    /**
+     * Gets a snapshot of the statistics.
+     *
+     * @return the statistics
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(this.hitCount, this.missCount, this.evictionCount, this.rejectionCount,
+                this.entries.size(), this.weight);
+    }
+
+    /**
+     * A value with its weight.
+     *
+     * @param <V> the type of the value
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the array postings list.
+ * It should test that the document IDs are stored in order and without duplicates.
+ *
+ * {@link ArrayPostingsList}
+ * @author CodeUnicorns
+ */
+class ArrayPostingsListTest {
+
+    private ArrayPostingsList postings;
+
+    @BeforeEach
+    void setUp() {
+        postings = new ArrayPostingsList();
+    }
+
+    @Test
+    void testAdd() {
+        postings.add(0);
+        postings.add(3);
+        postings.add(7);
+        assertEquals(3, postings.size());
+        assertEquals(0, postings.getDocId(0));
+        assertEquals(3, postings.getDocId(1));
+        assertEquals(7, postings.getDocId(2));
+    }
+
+    @Test
+    void testDuplicates() {
+        postings.add(1);
+        postings.add(1);
+        postings.add(2);
+        postings.add(2);
+        postings.add(2);
+        assertEquals(2, postings.size());
+        assertEquals("ArrayPostingsList{docIds=[1, 2], frequencies=[2, 3]}", postings.toString());
+    }
+
+    @Test
+    void testIterator() {
+        for (int i = 0; i < 100; i += 3) {
+            postings.add(i);
+        }
+        PostingsIterator iterator = postings.iterator();
+        assertEquals(-1, iterator.docId());
+        assertEquals(0, iterator.nextDoc());
+        assertEquals(3, iterator.nextDoc());
+        // Skipping ahead lands on the first ID that is at least the target.
+        assertEquals(12, iterator.advance(10));
+        assertEquals(12, iterator.advance(12));
+        // The iterator never moves backwards.
+        assertEquals(12, iterator.advance(5));
+        assertEquals(90, iterator.advance(90));
+        assertEquals(93, iterator.nextDoc());
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.advance(200));
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.nextDoc());
+    }
+
+    @Test
+    void testGrowAndTrim() {
+        for (int i = 0; i < 100; i++) {
+            postings.add(i);
+        }
+        postings.trimToSize();
+        assertEquals(100, postings.size());
+        assertEquals(99, postings.getDocId(99));
+    }
+
+    @Test
+    void testAddAll() {
+        postings.add(1, 2);
+        ArrayPostingsList other = new ArrayPostingsList();
+        for (int i = 10; i < 20; i++) {
+            other.add(i, i);
+        }
+
+        postings.addAll(other);
+        assertEquals(11, postings.size());
+        assertEquals(1, postings.getDocId(0));
+        assertEquals(2, postings.getFrequency(0));
+        assertEquals(19, postings.getDocId(10));
+        assertEquals(19, postings.getMaxFrequency());
+    }
+}
@@ -0,0 +1,191 @@
+package searchengine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the BM25 and BM25F scores and the length norms they use.
+ * It should test that the scores are calculated correctly, that all ways of
+ * calculating them agree, and that the upper bounds hold.
+ *
+ * {@link BM25Score}
+ * {@link BM25FScore}
+ * {@link LengthNorms}
+ * @author CodeUnicorns
+ */
+class BM25ScoreTest {
+
+    private Index index;
+    private Website site1;
+    private Website site2;
+    private Website site3;
+
+    @BeforeEach
+    void setUp() {
+        List<Website> sites = new ArrayList<Website>();
+        site1 = new Website("example1.com", "Word1 example", Arrays.asList("word1", "word2", "word1"));
+        site2 = new Website("example2.com", "example2", Arrays.asList("word2", "word3"));
+        site3 = new Website("example3.com", "word3, word1 and Word3", Arrays.asList("word1", "word3", "word4", "word5", "word6", "word7"));
+        sites.add(site1);
+        sites.add(site2);
+        sites.add(site3);
+
+        index = new InvertedIndexHashMap();
+        index.build(sites);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index = null;
+        site1 = null;
+        site2 = null;
+        site3 = null;
+    }
+
+    @Test
+    void testLengthNorms() {
+        LengthNorms norms = index.getLengthNorms();
+        assertEquals(3, norms.size());
+        assertEquals(3, norms.getNorm(0));
+        assertEquals(2, norms.getNorm(1));
+        assertEquals(6, norms.getNorm(2));
+        assertEquals(2, norms.getMinNorm());
+        assertEquals(11.0 / 3, norms.getAverageLength(), 1e-12);
+
+        // Short lengths are exact, long lengths are within a few percent.
+        assertEquals(127, LengthNorms.decode(LengthNorms.encode(127)));
+        for (int length = 128; length < 100000000; length = length * 3 / 2) {
+            assertEquals(1, LengthNorms.decode(LengthNorms.encode(length)) / length, 0.07);
+        }
+        assertEquals(255, LengthNorms.encode(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void checkBM25Scores() {
+        BM25Score score = new BM25Score();
+        double average = 11.0 / 3;
+        // Each of these words is on two of the three websites.
+        double idf = Math.log(1 + (3 - 2 + 0.5) / (2 + 0.5));
+        assertEquals(idf * 2 * 2.2 / (2 + 1.2 * (0.25 + 0.75 * 3 / average)), score.getScore("word1", site1, index), 1e-9);
+        assertEquals(idf * 2.2 / (1 + 1.2 * (0.25 + 0.75 * 2 / average)), score.getScore("word2", site2, index), 1e-9);
+        assertEquals(idf * 2.2 / (1 + 1.2 * (0.25 + 0.75 * 6 / average)), score.getScore("word3", site3, index), 1e-9);
+        assertEquals(0.0, score.getScore("word3", site1, index));
+        assertEquals(0.0, score.getScore("word8", site1, index));
+
+        // A word on fewer websites is worth more.
+        assertTrue(score.getScore("word4", site3, index) > score.getScore("word1", site3, index));
+        // The same word is worth more on a shorter website.
+        assertTrue(score.getScore("word2", site2, index) > score.getScore("word2", site1, index));
+    }
+
+    @Test
+    void checkTermScorers() {
+        checkTermScorers(new BM25Score());
+        checkTermScorers(new BM25FScore());
+        checkTermScorers(new BM25Score(2.0, 0.0));
+        checkTermScorers(new BM25FScore(1.2, 5.0, 1.0, 1.0));
+    }
+
+    @Test
+    void checkBM25FScores() {
+        BM25Score bm25 = new BM25Score();
+        BM25FScore bm25f = new BM25FScore();
+        // Without the word in the title, a website scores like BM25.
+        assertEquals(bm25.getScore("word2", site2, index), bm25f.getScore("word2", site2, index), 1e-9);
+        // With the word in the title, it scores higher.
+        assertTrue(bm25f.getScore("word1", site1, index) > bm25.getScore("word1", site1, index));
+        assertTrue(bm25f.getScore("word3", site3, index) > bm25.getScore("word3", site3, index));
+        // Titles are split into lower case words of letters and digits.
+        assertEquals(2, index.getTitleIndex().getPostings("word3").getFrequency(0));
+        assertEquals(Arrays.asList(0, 2), docIds(index.getTitleIndex().getPostings("word1")));
+        assertEquals(Arrays.asList(0, 1), docIds(index.getTitleIndex().getPostings("ex*")));
+        assertEquals(0, index.getTitleIndex().getPostings("word3,").size());
+        assertEquals(4, index.getTitleIndex().getNorms().getNorm(2));
+
+        // A title weight of 0 ignores the titles.
+        BM25FScore noTitles = new BM25FScore(1.2, 0.0, 0.75, 0.75);
+        assertEquals(bm25.getScore("word1", site1, index), noTitles.getScore("word1", site1, index), 1e-9);
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BM25Score(-1, 0.75));
+        assertThrows(IllegalArgumentException.class, () -> new BM25Score(1.2, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> new BM25FScore(1.2, -1, 0.75, 0.75));
+        assertThrows(IllegalArgumentException.class, () -> new BM25FScore(1.2, 2, 0.75, -0.5));
+    }
+
+    @Test
+    void testSearchEngine() {
+        List<Website> sites = Arrays.asList(site1, site2, site3);
+        SearchEngine searchEngine = new SearchEngine(sites.iterator(), new BM25FScore());
+        List<ScoredWebsite> result = searchEngine.search("word1");
+        assertEquals(2, result.size());
+        assertEquals("example1.com", result.get(0).getUrl());
+        assertEquals(new BM25FScore().getScore("word1", site1, index), result.get(0).getScore(), 1e-9);
+    }
+
+    /**
+     * Checks that the term scorers, the scores of a fresh scorer for each website
+     * and the scores from the websites agree, and that no score exceeds its upper bound.
+     *
+     * @param score the score
+     */
+    private void checkTermScorers(Score score) {
+        for (String word: Arrays.asList("word1", "word2", "word3", "word7", "word*")) {
+            PostingsList postings = index.getPostings(word);
+            TermScorer scorer = score.getTermScorer(word, index);
+            double maxScore = scorer.getMaxScore(postings.getMaxFrequency());
+            for (int i = 0; i < postings.size(); i++) {
+                int docId = postings.getDocId(i);
+                int frequency = postings.getFrequency(i);
+                double expected = score.getTermScorer(word, index).score(docId, frequency);
+                assertEquals(expected, scorer.score(docId, frequency), 1e-9);
+                if (! word.endsWith("*")) {
+                    assertEquals(expected, score.getScore(word, index.getWebsite(docId), index), 1e-9);
+                }
+                assertTrue(expected <= maxScore);
+            }
+            // Scoring all websites as a block gives the same scores, added to the block.
+            int[] docIds = new int[postings.size()];
+            int[] frequencies = new int[postings.size()];
+            double[] scores = new double[postings.size()];
+            for (int i = 0; i < postings.size(); i++) {
+                docIds[i] = postings.getDocId(i);
+                frequencies[i] = postings.getFrequency(i);
+                scores[i] = 1;
+            }
+            score.getTermScorer(word, index).addScores(docIds, frequencies, docIds.length, scores);
+            for (int i = 0; i < postings.size(); i++) {
+                assertEquals(1 + score.getTermScorer(word, index).score(docIds[i], frequencies[i]), scores[i], 1e-9);
+            }
+
+            // The scorer can go back to an earlier website.
+            if (postings.size() > 0) {
+                assertEquals(score.getTermScorer(word, index).score(postings.getDocId(0), postings.getFrequency(0)),
+                        scorer.score(postings.getDocId(0), postings.getFrequency(0)), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Gets the document IDs of a postings list.
+     *
+     * @param postings the postings list
+     * @return the document IDs
+     */
+    private static List<Integer> docIds(PostingsList postings) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < postings.size(); i++) {
+            result.add(postings.getDocId(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the compressed postings list.
+ * It should test that the postings are read back unchanged with both
+ * codecs, by iterating, by skipping ahead and by random access.
+ *
+ * {@link BlockPostingsList}
+ * @author CodeUnicorns
+ */
+class BlockPostingsListTest {
+
+    private ArrayPostingsList postings;
+
+    @BeforeEach
+    void setUp() {
+        // More than two blocks, with gaps and frequencies of different sizes.
+        Random random = new Random(42);
+        postings = new ArrayPostingsList();
+        int docId = 0;
+        for (int i = 0; i < 300; i++) {
+            docId += 1 + (i % 50 == 0 ? random.nextInt(100000) : random.nextInt(10));
+            postings.add(docId, 1 + random.nextInt(i % 7 == 0 ? 1000 : 3));
+        }
+    }
+
+    @Test
+    void testIterateVByte() {
+        checkIterate(new BlockPostingsList(postings, new VByteCodec()));
+    }
+
+    @Test
+    void testIterateSimple8b() {
+        checkIterate(new BlockPostingsList(postings, new Simple8bCodec()));
+    }
+
+    @Test
+    void testAdvance() {
+        BlockPostingsList compressed = new BlockPostingsList(postings, new Simple8bCodec());
+        assertEquals(postings.size(), compressed.size());
+        assertEquals(postings.getMaxFrequency(), compressed.getMaxFrequency());
+
+        // Skip to each 10th posting, also across blocks.
+        PostingsIterator iterator = compressed.iterator();
+        for (int i = 5; i < postings.size(); i += 10) {
+            assertEquals(postings.getDocId(i), iterator.advance(postings.getDocId(i - 1) + 1));
+            assertEquals(postings.getFrequency(i), iterator.frequency());
+        }
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.advance(postings.getDocId(postings.size() - 1) + 1));
+
+        // Random access decodes the right block.
+        assertEquals(postings.getDocId(0), compressed.getDocId(0));
+        assertEquals(postings.getDocId(200), compressed.getDocId(200));
+        assertEquals(postings.getFrequency(299), compressed.getFrequency(299));
+    }
+
+    @Test
+    void testEmpty() {
+        BlockPostingsList compressed = new BlockPostingsList(new ArrayPostingsList(), new Simple8bCodec());
+        assertEquals(0, compressed.size());
+        assertEquals(PostingsIterator.NO_MORE_DOCS, compressed.iterator().nextDoc());
+        assertEquals(PostingsIterator.NO_MORE_DOCS, compressed.iterator().advance(3));
+    }
+
+    private void checkIterate(BlockPostingsList compressed) {
+        PostingsIterator iterator = compressed.iterator();
+        for (int i = 0; i < postings.size(); i++) {
+            assertEquals(postings.getDocId(i), iterator.nextDoc());
+            assertEquals(postings.getFrequency(i), iterator.frequency());
+        }
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.nextDoc());
+    }
+}
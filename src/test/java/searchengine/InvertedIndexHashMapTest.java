@@ -81,4 +81,65 @@ class InvertedIndexHashMapTest {
         // Corner case.
         assertEquals(0, invertedIndexHashMap.lookup("$#$!@#!*").size());
     }
+
+    @Test
+    void testParallelBuild() {
+        // Enough websites for several batches.
+        List<Website> sites = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            sites.add(new Website("example" + i + ".com", "example" + i,
+                    Arrays.asList("word" + (i % 7), "word" + (i % 13), "word" + (i % 7), "common")));
+        }
+
+        InvertedIndexHashMap sequential = new InvertedIndexHashMap();
+        sequential.build(sites);
+        InvertedIndexHashMap parallel = new InvertedIndexHashMap();
+        parallel.setParallelism(4);
+        parallel.build(sites);
+
+        assertEquals(sequential.getWords(), parallel.getWords());
+        assertEquals(3000, parallel.getDatabaseSize());
+        for (String word: sequential.getWords()) {
+            PostingsList expected = sequential.getPostings(word);
+            PostingsList actual = parallel.getPostings(word);
+            assertEquals(expected.size(), actual.size());
+            for (int position = 0; position < expected.size(); position++) {
+                assertEquals(expected.getDocId(position), actual.getDocId(position));
+                assertEquals(expected.getFrequency(position), actual.getFrequency(position));
+            }
+        }
+        assertEquals(sequential.lookup("word1*"), parallel.lookup("word1*"));
+    }
+
+    @Test
+    void testSharedAndOwnDictionaries() {
+        // Websites sharing a dictionary with many words, between websites with their own dictionary.
+        TermDictionary dictionary = new TermDictionary();
+        List<Website> sites = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int[] termIds = new int[1000];
+            for (int j = 0; j < termIds.length; j++) {
+                termIds[j] = dictionary.intern("word" + (i * 500 + j));
+            }
+            sites.add(new Website("shared" + i + ".com", "shared" + i, termIds, dictionary));
+            sites.add(new Website("own" + i + ".com", "own" + i, Arrays.asList("word500", "word500")));
+        }
+
+        InvertedIndexHashMap index = new InvertedIndexHashMap();
+        index.build(sites);
+
+        // The first two shared websites contain word500 once, the own websites twice.
+        PostingsList postings = index.getPostings("word500");
+        assertEquals(12, postings.size());
+        assertEquals(0, postings.getDocId(0));
+        assertEquals(1, postings.getFrequency(0));
+        assertEquals(2, postings.getDocId(2));
+        assertEquals(1, postings.getFrequency(2));
+        for (int i = 0; i < 10; i++) {
+            int position = i < 2 ? 2 * i + 1 : i + 2;
+            assertEquals(2 * i + 1, postings.getDocId(position));
+            assertEquals(2, postings.getFrequency(position));
+        }
+        assertEquals(5500, index.getWords().size());
+    }
 }
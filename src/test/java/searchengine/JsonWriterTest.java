@@ -0,0 +1,67 @@
+package searchengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the streaming JSON writer and the search response.
+ * It should test that the written JSON is valid, and that a response
+ * only contains the page of results.
+ *
+ * {@link JsonWriter}
+ * {@link SearchResponse}
+ * @author CodeUnicorns
+ */
+class JsonWriterTest {
+
+    @Test
+    void testNesting() throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).beginObject()
+                .name("a").beginArray().value(1).value("b").beginObject().endObject().beginArray().endArray().endArray()
+                .name("c").value(true)
+                .name("d").value((String) null)
+                .endObject();
+        assertEquals("{\"a\":[1,\"b\",{},[]],\"c\":true,\"d\":null}", out.toString());
+    }
+
+    @Test
+    void testValues() throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).beginArray()
+                .value(1.5).value(2.0).value(-0.25).value(1e20).value(Double.NaN).value(Double.POSITIVE_INFINITY)
+                .value(Long.MAX_VALUE).value(false)
+                .endArray();
+        assertEquals("[1.5,2,-0.25,1.0E20,null,null,9223372036854775807,false]", out.toString());
+    }
+
+    @Test
+    void testEscaping() throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).value("say \"hi\" \\ to\nall\t\u0001  of Ørsted");
+        assertEquals("\"say \\\"hi\\\" \\\\ to\\nall\\t\\u0001\\u2028 of Ørsted\"", out.toString());
+    }
+
+    @Test
+    void testInvalidNesting() {
+        assertThrows(IllegalStateException.class, () -> new JsonWriter(new StringWriter()).endObject());
+        assertThrows(IllegalStateException.class, () -> new JsonWriter(new StringWriter()).beginObject().name("a").endObject());
+    }
+
+    @Test
+    void testSearchResponse() throws IOException {
+        SearchResult result = new SearchResult(Arrays.asList(
+                new ScoredWebsite("1.com", "example \"1\"", 2.5),
+                new ScoredWebsite("2.com", "example2", 1.0)), 7, false);
+        StringWriter out = new StringWriter();
+        new SearchResponse("word1 OR word2", 2, 2, result).write(out);
+        assertEquals("{\"query\":\"word1 OR word2\",\"offset\":2,\"limit\":2,\"totalHits\":7,\"totalHitsExact\":false,\"phraseMatchExact\":true,"
+                + "\"results\":[{\"url\":\"1.com\",\"title\":\"example \\\"1\\\"\",\"score\":2.5},"
+                + "{\"url\":\"2.com\",\"title\":\"example2\",\"score\":1}]}", out.toString());
+    }
+}
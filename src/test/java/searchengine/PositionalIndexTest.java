@@ -0,0 +1,63 @@
+package searchengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the positions of the words.
+ *
+ * {@link PositionalIndex}
+ * @author CodeUnicorns
+ */
+class PositionalIndexTest {
+
+    @Test
+    void testGetPositions() {
+        List<String> longWords = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            longWords.add(i % 150 == 0 ? "word1" : "filler");
+        }
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("1.com", "example1", Arrays.asList("word1", "word2", "word1")));
+        sites.add(new Website("2.com", "example2", Arrays.asList("word2")));
+        sites.add(new Website("3.com", "example3", longWords));
+        InvertedIndex index = new InvertedIndexHashMap();
+        index.build(sites);
+
+        assertArrayEquals(new int[] {0, 2}, index.getPositions("word1", 0));
+        assertArrayEquals(new int[] {1}, index.getPositions("word2", 0));
+        assertArrayEquals(new int[] {0}, index.getPositions("word2", 1));
+        assertArrayEquals(new int[0], index.getPositions("word1", 1));
+        assertArrayEquals(new int[0], index.getPositions("word3", 1));
+
+        // Gaps of more than 127 words take more than one byte.
+        assertArrayEquals(new int[] {0, 150}, index.getPositions("word1", 2));
+        assertEquals(298, index.getPositions("filler", 2).length);
+    }
+
+    @Test
+    void testGetPositionsIntoArray() {
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("1.com", "example1", Arrays.asList("word1", "word2", "word1", "word1")));
+        sites.add(new Website("2.com", "example2", Arrays.asList("word2")));
+        InvertedIndex index = new InvertedIndexHashMap();
+        index.build(sites);
+        assertTrue(index.hasPositions());
+
+        int[] positions = new int[4];
+        assertEquals(3, index.getPositions("word1", 0, positions));
+        assertArrayEquals(new int[] {0, 2, 3}, Arrays.copyOf(positions, 3));
+        assertEquals(0, index.getPositions("word1", 1, positions));
+        assertEquals(0, index.getPositions("word3", 0, positions));
+
+        // Decoding stops when the array is full.
+        positions = new int[2];
+        assertEquals(2, index.getPositions("word1", 0, positions));
+        assertArrayEquals(new int[] {0, 2}, positions);
+    }
+}
@@ -0,0 +1,85 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the cache of postings lists.
+ *
+ * {@link PostingsCache}
+ * @author CodeUnicorns
+ */
+class PostingsCacheTest {
+
+    private Index index;
+    private PostingsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("example1.com", "example1", Arrays.asList("denmark", "copenhagen", "copenhagen")));
+        sites.add(new Website("example2.com", "example2", Arrays.asList("denmark", "dentist")));
+        sites.add(new Website("example3.com", "example3", Arrays.asList("copenhagen", "denmark", "denmark")));
+        sites.add(new Website("example4.com", "example4", Arrays.asList("copenhagen")));
+        index = new InvertedIndexHashMap();
+        index.build(sites);
+        cache = new PostingsCache(index, 1024 * 1024);
+        cache.setMinIntersectionSize(1);
+    }
+
+    @Test
+    void testPrefix() {
+        PostingsList first = cache.getPostings("den*");
+        assertSame(first, cache.getPostings("den*"));
+        assertEquals(3, cache.getDocumentFrequency("den*"));
+        assertEquals(2, cache.getStatistics().getHitCount());
+
+        // Words are not cached, as the index stores their lists anyway.
+        assertEquals(3, cache.getPostings("denmark").size());
+        assertEquals(1, cache.getStatistics().getSize());
+    }
+
+    @Test
+    void testIntersection() {
+        PostingsList[] postings = cache.getPostings(new String[] {"denmark", "copenhagen"});
+        assertEquals(2, postings[0].size());
+        assertEquals(0, postings[0].getDocId(0));
+        assertEquals(1, postings[0].getFrequency(0));
+        assertEquals(2, postings[0].getFrequency(1));
+        assertEquals(2, postings[1].size());
+        assertEquals(2, postings[1].getFrequency(0));
+        assertEquals(1, postings[1].getFrequency(1));
+
+        // The other order of the words uses the same intersection.
+        PostingsList[] swapped = cache.getPostings(new String[] {"copenhagen", "denmark"});
+        assertSame(postings[0], swapped[1]);
+        assertSame(postings[1], swapped[0]);
+        assertEquals(1, cache.getStatistics().getHitCount());
+    }
+
+    @Test
+    void testSameAnswers() {
+        QueryHandler cached = new QueryHandler(index, new TFIDFScore());
+        cached.setPostingsCache(1024 * 1024);
+        QueryHandler uncached = new QueryHandler(index, new TFIDFScore());
+
+        for (String query: new String[] {"denmark copenhagen", "den* copenhagen OR dentist", "den* cop*", "cop* cop*"}) {
+            for (int round = 0; round < 2; round++) {
+                List<ScoredWebsite> expected = uncached.getMatchingWebsites(query);
+                List<ScoredWebsite> actual = cached.getMatchingWebsites(query);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getUrl(), actual.get(i).getUrl());
+                    assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), 1e-9);
+                }
+            }
+        }
+        assertTrue(cached.getPostingsCacheStatistics().getHitCount() > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the prefix search.
+ *
+ * {@link PrefixSearch}
+ * @author CodeUnicorns
+ */
+class PrefixSearchTest {
+
+    private List<PostingsList> postingsLists;
+
+    @BeforeEach
+    void setUp() {
+        ArrayPostingsList first = new ArrayPostingsList();
+        first.add(1, 2);
+        first.add(5, 1);
+        ArrayPostingsList second = new ArrayPostingsList();
+        second.add(0, 1);
+        second.add(5, 3);
+        second.add(9, 1);
+        ArrayPostingsList third = new ArrayPostingsList();
+        third.add(5, 1);
+        postingsLists = Arrays.<PostingsList>asList(first, second, third);
+    }
+
+    @Test
+    void testIsValid() {
+        assertTrue(PrefixSearch.isValid("co"));
+        assertTrue(PrefixSearch.isValid("Co19"));
+        assertFalse(PrefixSearch.isValid(""));
+        assertFalse(PrefixSearch.isValid("c-o"));
+        assertFalse(PrefixSearch.isValid("cø"));
+        assertFalse(PrefixSearch.isValid("$#$!@#!"));
+    }
+
+    @Test
+    void testSum() {
+        // A large database is merged, a small one is added up in an array.
+        for (int databaseSize: new int[] {1000000, 10}) {
+            PostingsList sum = PrefixSearch.sum(postingsLists, databaseSize, Integer.MAX_VALUE);
+            assertEquals(4, sum.size());
+            assertEquals(0, sum.getDocId(0));
+            assertEquals(1, sum.getDocId(1));
+            assertEquals(2, sum.getFrequency(1));
+            assertEquals(5, sum.getDocId(2));
+            assertEquals(5, sum.getFrequency(2));
+            assertEquals(9, sum.getDocId(3));
+            assertEquals(5, sum.getMaxFrequency());
+        }
+    }
+
+    @Test
+    void testMaxExpansion() {
+        // Only the word on the most websites is used.
+        PostingsList sum = PrefixSearch.sum(postingsLists, 10, 1);
+        assertSame(postingsLists.get(1), sum);
+
+        assertEquals(4, PrefixSearch.sum(postingsLists, 10, 2).size());
+        assertEquals(0, PrefixSearch.sum(Arrays.<PostingsList>asList(), 10, 2).size());
+    }
+}
@@ -76,6 +76,37 @@ class QueryHandlerTest {
         assertEquals("example3", qh.getMatchingWebsites("   word4    word3     word5   ").get(0).getTitle());
     }
 
+    // Pruning must not change the ranked websites.
+    @Test
+    void testDynamicPruning() {
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("1.com","example1", Arrays.asList("word1", "word1", "word1", "word2")));
+        sites.add(new Website("2.com","example2", Arrays.asList("word1", "word3")));
+        sites.add(new Website("3.com","example3", Arrays.asList("word2", "word3", "word3")));
+        sites.add(new Website("4.com","example4", Arrays.asList("word3")));
+        Index idx = new InvertedIndexHashMap();
+        idx.build(sites);
+        QueryHandler exhaustive = new QueryHandler(idx, new TFIDFScore());
+        QueryHandler pruning = new QueryHandler(idx, new TFIDFScore());
+        pruning.setDynamicPruning(true);
+
+        for (String query: Arrays.asList("word1 OR word3", "word3 OR word2 word3 OR word1", "word2 OR word1")) {
+            for (int limit = 0; limit <= 4; limit++) {
+                List<ScoredWebsite> expected = exhaustive.getMatchingWebsites(query, limit, 0).getWebsites();
+                List<ScoredWebsite> actual = pruning.getMatchingWebsites(query, limit, 0).getWebsites();
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getTitle(), actual.get(i).getTitle());
+                    assertEquals(expected.get(i).getScore(), actual.get(i).getScore());
+                }
+            }
+        }
+
+        // Without pruning, the total number of hits is always exact.
+        assertTrue(exhaustive.getMatchingWebsites("word1 OR word3", 1, 0).isTotalHitsExact());
+        assertEquals(4, exhaustive.getMatchingWebsites("word1 OR word3", 1, 0).getTotalHits());
+    }
+
     // Test url filter.
     @Test
     void testUrlFilter() {
@@ -88,4 +119,28 @@ class QueryHandlerTest {
         // One corner case for the url filter, nothing after ":".
         assertEquals(2, qh.getMatchingWebsites("site: word2").size());
     }
+
+    @Test
+    void testPhraseQueries() {
+        assertEquals(1, qh.getMatchingWebsites("\"word1 word2\"").size());
+        assertEquals("example1", qh.getMatchingWebsites("\"word1 word2\"").get(0).getTitle());
+        assertEquals(0, qh.getMatchingWebsites("\"word2 word1\"").size());
+        assertEquals(0, qh.getMatchingWebsites("\"word3 word5\"").size());
+        assertEquals(2, qh.getMatchingWebsites("\"word2 word3\" OR word1").size());
+
+        // The simple index finds the positions in the words of the websites.
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("1.com","example1", Arrays.asList("word1", "word2", "word1")));
+        Index simple = new SimpleIndex();
+        simple.build(sites);
+        assertEquals(1, new QueryHandler(simple).getMatchingWebsites("\"word2 word1\"").size());
+    }
+
+    @Test
+    void testNearQueries() {
+        assertEquals(1, qh.getMatchingWebsites("word3 NEAR/2 word5").size());
+        assertEquals(1, qh.getMatchingWebsites("word5 NEAR/2 word3").size());
+        assertEquals(0, qh.getMatchingWebsites("word3 NEAR/1 word5").size());
+        assertEquals(0, qh.getMatchingWebsites("word1 NEAR/5 word3").size());
+    }
 }
@@ -0,0 +1,81 @@
+package searchengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the query parser.
+ *
+ * {@link QueryParser}
+ * {@link Query}
+ * @author CodeUnicorns
+ */
+class QueryParserTest {
+
+    @Test
+    void testParse() {
+        Query expected = Query.or(Arrays.asList(
+                Query.and(Arrays.asList(Query.term("word1"), Query.prefix("wo"))),
+                Query.and(Arrays.asList(Query.term("word3")))));
+        assertEquals(expected, QueryParser.parse("word1 wo* OR word3"));
+        assertEquals(Query.Type.PREFIX, expected.getChildren().get(0).getChildren().get(1).getType());
+        assertEquals("wo*", expected.getChildren().get(0).getChildren().get(1).getText());
+    }
+
+    @Test
+    void testSite() {
+        Query query = QueryParser.parse("site:example.com word1");
+        assertEquals(Query.Type.SITE, query.getType());
+        assertEquals("example.com", query.getText());
+        assertEquals("word1", query.getChildren().get(0).toString());
+
+        // A filter without words matches nothing.
+        assertTrue(QueryParser.parse("site:example.com").getChildren().get(0).getChildren().isEmpty());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("word1 word2 OR word3", QueryParser.parse("word1  word2 OR  OR word3 ").toString());
+        assertEquals("site:example.com word1", QueryParser.parse("site:example.com  word1").toString());
+        assertEquals("word1", QueryParser.parse("word1").toString());
+        assertEquals("wo*", QueryParser.parse("w*o*").toString());
+        assertEquals("", QueryParser.parse(" OR ").toString());
+    }
+
+    @Test
+    void testPhrase() {
+        Query phrase = QueryParser.parse("\"new york\" city").getChildren().get(0).getChildren().get(0);
+        assertEquals(Query.Type.PHRASE, phrase.getType());
+        assertEquals(Arrays.asList(Query.term("new"), Query.term("york")), phrase.getChildren());
+
+        // The separator of subqueries is part of a phrase in quotes.
+        assertEquals(1, QueryParser.parse("\"war OR peace\"").getChildren().size());
+        assertEquals("\"war OR peace\" OR word1", QueryParser.parse("\"war  OR peace\" OR word1").toString());
+        assertEquals("\"new york\"", QueryParser.parse("\"new york").toString());
+        assertEquals("york", QueryParser.parse("\"york\"").toString());
+        assertEquals("", QueryParser.parse("\"\"").toString());
+    }
+
+    @Test
+    void testNear() {
+        Query near = QueryParser.parse("new NEAR/3 york").getChildren().get(0).getChildren().get(0);
+        assertEquals(Query.Type.NEAR, near.getType());
+        assertEquals(3, near.getDistance());
+        assertEquals("new NEAR/3 york", near.toString());
+
+        // Without a word on both sides, or a valid distance, it is just a word.
+        assertEquals(2, QueryParser.parse("NEAR/3 york").getChildren().get(0).getChildren().size());
+        assertEquals(Query.Type.TERM, QueryParser.parse("new NEAR/0 york").getChildren().get(0).getChildren().get(1).getType());
+        assertEquals("new NEAR/3", QueryParser.parse("new NEAR/3").toString());
+        assertEquals(Query.Type.TERM, QueryParser.parse("new NEAR/3 yo*").getChildren().get(0).getChildren().get(1).getType());
+    }
+
+    @Test
+    void testImmutable() {
+        Query query = QueryParser.parse("word1 word2");
+        assertThrows(UnsupportedOperationException.class, () -> query.getChildren().clear());
+    }
+}
@@ -0,0 +1,75 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the query planner.
+ *
+ * {@link QueryPlanner}
+ * @author CodeUnicorns
+ */
+class QueryPlannerTest {
+
+    private Index index;
+    private QueryPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("example1.com", "example1", Arrays.asList("word1", "word2")));
+        sites.add(new Website("example2.com", "example2", Arrays.asList("word1", "word3")));
+        sites.add(new Website("example3.com", "example3", Arrays.asList("word1", "word2")));
+        index = new InvertedIndexHashMap();
+        index.build(sites);
+        planner = new QueryPlanner(index);
+    }
+
+    @Test
+    void testOrderAndWeights() {
+        QueryPlan plan = planner.getPlan("word1 word3 word1");
+        assertEquals(1, plan.getSubqueryCount());
+        assertArrayEquals(new String[] {"word3", "word1"}, plan.getWords(0));
+        assertArrayEquals(new int[] {1, 2}, plan.getWeights(0));
+        assertNull(plan.getUrlFilter());
+    }
+
+    @Test
+    void testDocumentFrequencies() {
+        QueryPlan plan = planner.getPlan("word* word3 OR word2 word*");
+        assertArrayEquals(new String[] {"word3", "word*"}, plan.getWords(0));
+        assertArrayEquals(new int[] {1, 3}, plan.getDocumentFrequencies(0));
+        assertArrayEquals(new String[] {"word2", "word*"}, plan.getWords(1));
+        assertArrayEquals(new int[] {2, 3}, plan.getDocumentFrequencies(1));
+    }
+
+    @Test
+    void testRemovedSubqueries() {
+        // Missing words, and the same words in another order, add nothing.
+        QueryPlan plan = planner.getPlan("site:example word1 word2 OR word2 word1 OR word1 word4");
+        assertEquals(1, plan.getSubqueryCount());
+        assertEquals("example", plan.getUrlFilter());
+    }
+
+    @Test
+    void testPlanCache() {
+        QueryPlan plan = planner.getPlan("word1 word2");
+        assertSame(plan, planner.getPlan("word1 word2"));
+        assertEquals(1, planner.getStatistics().getHitCount());
+    }
+
+    @Test
+    void testWeightedScores() {
+        QueryHandler queryHandler = new QueryHandler(index, new TFIDFScore());
+        List<ScoredWebsite> single = queryHandler.getMatchingWebsites("word2");
+        List<ScoredWebsite> repeated = queryHandler.getMatchingWebsites("word2 word2");
+        assertEquals(2, repeated.size());
+        assertEquals(2 * single.get(0).getScore(), repeated.get(0).getScore(), 1e-9);
+    }
+}
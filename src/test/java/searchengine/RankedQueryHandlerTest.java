@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * The unit tests for the ranking functionality of the query handler.
@@ -44,4 +45,30 @@ class RankedQueryHandlerTest {
         assertEquals("example1", qh.getMatchingWebsites("word2").get(1).getTitle());
         assertEquals("example2", qh.getMatchingWebsites("word2").get(2).getTitle());
     }
+
+    @Test
+    void testTopWebsites() {
+        SearchResult result = qh.getMatchingWebsites("word2", 2, 0);
+        assertEquals(3, result.getTotalHits());
+        assertEquals(2, result.getWebsites().size());
+        assertEquals("example3", result.getWebsites().get(0).getTitle());
+        assertEquals("example1", result.getWebsites().get(1).getTitle());
+        // The second page only contains the last website.
+        result = qh.getMatchingWebsites("word2", 2, 2);
+        assertEquals(3, result.getTotalHits());
+        assertEquals(1, result.getWebsites().size());
+        assertEquals("example2", result.getWebsites().get(0).getTitle());
+        // Pages past the end are empty.
+        assertEquals(0, qh.getMatchingWebsites("word2", 2, 4).getWebsites().size());
+        assertEquals(0, qh.getMatchingWebsites("word2", 0, 0).getWebsites().size());
+    }
+
+    @Test
+    void testImmutableResults() {
+        SearchResult result = qh.getMatchingWebsites("word2", 2, 0);
+        // The results only hold the url, the title and the score.
+        assertEquals(new ScoredWebsite("3.com", "example3", 2.0), result.getWebsites().get(0));
+        assertEquals(new ScoredWebsite("1.com", "example1", 1.0), result.getWebsites().get(1));
+        assertThrows(UnsupportedOperationException.class, () -> result.getWebsites().remove(0));
+    }
 }
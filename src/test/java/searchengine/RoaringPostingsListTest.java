@@ -0,0 +1,89 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the bitmap-based postings list.
+ * It should test that the postings are read back unchanged from both
+ * kinds of containers, by iterating, by skipping ahead and by random access.
+ *
+ * {@link RoaringPostingsList}
+ * @author CodeUnicorns
+ */
+class RoaringPostingsListTest {
+
+    private static final int DATABASE_SIZE = 200000;
+
+    private ArrayPostingsList postings;
+
+    @BeforeEach
+    void setUp() {
+        // A dense first chunk, a sparse second chunk, and an empty third chunk
+        // before a dense last one, with a few large frequencies.
+        Random random = new Random(42);
+        postings = new ArrayPostingsList();
+        for (int docId = 0; docId < DATABASE_SIZE; docId++) {
+            boolean isDense = docId < 65536 || docId >= 3 * 65536;
+            if (random.nextInt(isDense ? 2 : 1000) == 0 && (docId < 2 * 65536 || docId >= 3 * 65536)) {
+                postings.add(docId, random.nextInt(100) == 0 ? 1000 : 1 + random.nextInt(3));
+            }
+        }
+    }
+
+    @Test
+    void testContainers() {
+        RoaringPostingsList roaring = new RoaringPostingsList(postings, DATABASE_SIZE);
+        assertEquals(postings.size(), roaring.size());
+        assertEquals(postings.getMaxFrequency(), roaring.getMaxFrequency());
+        assertEquals(2, roaring.getBitmapCount());
+        assertEquals("RoaringPostingsList{size=" + postings.size() + ", containers=3, bitmaps=2}", roaring.toString());
+    }
+
+    @Test
+    void testIterate() {
+        PostingsIterator iterator = new RoaringPostingsList(postings, DATABASE_SIZE).iterator();
+        assertEquals(-1, iterator.docId());
+        for (int i = 0; i < postings.size(); i++) {
+            assertEquals(postings.getDocId(i), iterator.nextDoc());
+            assertEquals(postings.getFrequency(i), iterator.frequency());
+        }
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.nextDoc());
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.nextDoc());
+    }
+
+    @Test
+    void testAdvance() {
+        RoaringPostingsList roaring = new RoaringPostingsList(postings, DATABASE_SIZE);
+
+        // Skip to each 100th posting, also across containers.
+        PostingsIterator iterator = roaring.iterator();
+        for (int i = 50; i < postings.size(); i += 100) {
+            assertEquals(postings.getDocId(i), iterator.advance(postings.getDocId(i - 1) + 1));
+            assertEquals(postings.getFrequency(i), iterator.frequency());
+        }
+
+        // The empty chunk is skipped.
+        iterator = roaring.iterator();
+        assertTrue(iterator.advance(2 * 65536 + 10) >= 3 * 65536);
+        assertEquals(PostingsIterator.NO_MORE_DOCS, iterator.advance(DATABASE_SIZE));
+
+        // Random access finds the right container and bit.
+        for (int i = 0; i < postings.size(); i += 997) {
+            assertEquals(postings.getDocId(i), roaring.getDocId(i));
+            assertEquals(postings.getFrequency(i), roaring.getFrequency(i));
+        }
+    }
+
+    @Test
+    void testEmpty() {
+        RoaringPostingsList roaring = new RoaringPostingsList(new ArrayPostingsList(), DATABASE_SIZE);
+        assertEquals(0, roaring.size());
+        assertEquals(PostingsIterator.NO_MORE_DOCS, roaring.iterator().nextDoc());
+        assertEquals(PostingsIterator.NO_MORE_DOCS, roaring.iterator().advance(5));
+    }
+}
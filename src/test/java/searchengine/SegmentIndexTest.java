@@ -0,0 +1,133 @@
+package searchengine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the index segment.
+ * It should test that an index written by the segment writer
+ * answers lookups like the index it was written from.
+ *
+ * {@link SegmentIndex}
+ * @author CodeUnicorns
+ */
+class SegmentIndexTest {
+
+    private File file;
+    private SegmentIndex segmentIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<Website> sites = new ArrayList<Website>();
+        sites.add(new Website("example1.com", "example1", Arrays.asList("word1", "word2", "word1")));
+        sites.add(new Website("example2.com", "exämple2", Arrays.asList("word2", "word3")));
+        InvertedIndex index = new InvertedIndexHashMap();
+        index.build(sites);
+
+        file = File.createTempFile("index", SegmentIndex.FILE_EXTENSION);
+        SegmentWriter.write(index, file.getPath(), new Simple8bCodec());
+        segmentIndex = SegmentIndex.open(file.getPath());
+    }
+
+    @AfterEach
+    void tearDown() {
+        segmentIndex = null;
+        file.delete();
+    }
+
+    @Test
+    void lookupSegmentIndex() {
+        assertEquals(2, segmentIndex.getDatabaseSize());
+        assertEquals(1, segmentIndex.lookup("word1").size());
+        assertEquals("example1", segmentIndex.lookup("word1").get(0).getTitle());
+        assertEquals(2, segmentIndex.lookup("word2").size());
+        assertEquals("example1.com", segmentIndex.lookup("word2").get(0).getUrl());
+        assertEquals("exämple2", segmentIndex.lookup("word2").get(1).getTitle());
+        assertEquals(0, segmentIndex.lookup("word4").size());
+        assertEquals(0, segmentIndex.lookup("a").size());
+        assertEquals(2, segmentIndex.getPostings("word1").getFrequency(0));
+    }
+
+    @Test
+    void testSearchWithoutSnippets() {
+        // A segment doesn't keep the words of the websites, so there are no snippets.
+        List<ScoredWebsite> websites = new SearchEngine(segmentIndex).search("word2");
+        assertEquals(2, websites.size());
+        assertNull(websites.get(0).getSnippet());
+    }
+
+    @Test
+    void testPhraseQuery() {
+        // Without positions, a phrase or a NEAR only requires all of its words.
+        assertFalse(segmentIndex.hasPositions());
+        SearchEngine searchEngine = new SearchEngine(segmentIndex);
+        assertEquals(1, searchEngine.search("\"word1 word2\"").size());
+        assertEquals(1, searchEngine.search("\"word2 word1\"").size());
+        assertEquals(1, searchEngine.search("word2 NEAR/1 word3").size());
+        assertEquals(0, searchEngine.search("\"word1 word3\"").size());
+        assertEquals(0, segmentIndex.getPositions("word1", 0).length);
+        assertEquals(0, segmentIndex.getPositions("word1", 0, new int[4]));
+
+        // The results tell that the phrases only required their words.
+        assertFalse(searchEngine.search("\"word1 word2\"", 10, 0).isPhraseMatchExact());
+        assertFalse(searchEngine.search("word1 OR word2 NEAR/1 word3", 10, 0).isPhraseMatchExact());
+        assertTrue(searchEngine.search("word1 word2", 10, 0).isPhraseMatchExact());
+        SearchEngine withPositions = new SearchEngine(Arrays.asList(
+                new Website("example1.com", "example1", Arrays.asList("word1", "word2"))));
+        assertTrue(withPositions.search("\"word1 word2\"", 10, 0).isPhraseMatchExact());
+    }
+
+    @Test
+    void testCornerCases() {
+        assertEquals(new ArrayList<>(), segmentIndex.lookup(null));
+        assertEquals(new ArrayList<>(), segmentIndex.lookup(""));
+        assertEquals(new ArrayList<>(), segmentIndex.lookup("           "));
+        assertThrows(IOException.class, () -> SegmentIndex.open("data/test-file.txt"));
+    }
+
+    @Test
+    void testPrefixSearch() {
+        assertEquals(2, segmentIndex.lookup("wo*").size());
+        assertEquals(2, segmentIndex.lookup("word*").size());
+        assertEquals(1, segmentIndex.lookup("word1*").size());
+        assertEquals(1, segmentIndex.lookup("word3*").size());
+        assertEquals(0, segmentIndex.lookup("a*").size());
+        assertEquals(0, segmentIndex.lookup("x*").size());
+        // Corner case.
+        assertEquals(0, segmentIndex.lookup("$#$!@#!*").size());
+    }
+
+    @Test
+    void testDocumentFrequency() {
+        assertEquals(1, segmentIndex.getDocumentFrequency("word1"));
+        assertEquals(2, segmentIndex.getDocumentFrequency("word2"));
+        assertEquals(2, segmentIndex.getDocumentFrequency("word*"));
+        assertEquals(0, segmentIndex.getDocumentFrequency("word4"));
+    }
+
+    @Test
+    void testUrlPostings() {
+        assertEquals(2, segmentIndex.getUrlPostings("example").size());
+        assertEquals(1, segmentIndex.getUrlPostings("example2.com").getDocId(0));
+        assertEquals(0, segmentIndex.getUrlPostings("example3").size());
+    }
+
+    @Test
+    void testLengthNorms() {
+        assertEquals(3, segmentIndex.getLengthNorms().getNorm(0));
+        assertEquals(2, segmentIndex.getLengthNorms().getNorm(1));
+        assertEquals(2.5, segmentIndex.getLengthNorms().getAverageLength());
+        // The title index is built from the stored titles.
+        assertEquals(1, segmentIndex.getTitleIndex().getPostings("exämple2").getDocId(0));
+        assertEquals(0, segmentIndex.getTitleIndex().getPostings("example2").size());
+    }
+}
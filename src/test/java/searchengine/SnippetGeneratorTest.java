@@ -0,0 +1,133 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the snippets of the websites.
+ * It should test that the window is placed around the query words,
+ * and that the query words in it are highlighted.
+ *
+ * {@link SnippetGenerator}
+ * {@link Snippet}
+ * @author CodeUnicorns
+ */
+class SnippetGeneratorTest {
+
+    private InvertedIndex index;
+    private SnippetGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("1.com", "example1",
+                Arrays.asList("a", "word1", "b", "c", "d", "e", "f", "g", "word1", "word2", "h", "i", "j", "k")));
+        sites.add(new Website("2.com", "example2", Arrays.asList("word2", "wordy", "b")));
+        sites.add(new Website("3.com", "example3", Arrays.asList("a", "b", "c", "d", "e", "f", "word3")));
+        index = new InvertedIndexHashMap();
+        index.build(sites);
+        generator = new SnippetGenerator(index, 5);
+    }
+
+    private Snippet getSnippet(int docId, String... words) {
+        return generator.getSnippet(docId, index.getWebsite(docId), words);
+    }
+
+    @Test
+    void testWindow() {
+        // The window with both words wins over the earlier occurrence of word1.
+        assertEquals("... g [word1] [word2] h i ...", getSnippet(0, "word1", "word2").toString());
+        // Without word2, the first occurrence of word1 is in the window.
+        assertEquals("a [word1] b c d ...", getSnippet(0, "word1").toString());
+        // The window doesn't go past the end of the website.
+        assertEquals("... c d e f [word3]", getSnippet(2, "word3").toString());
+    }
+
+    @Test
+    void testShortWebsite() {
+        assertEquals("[word2] wordy b", getSnippet(1, "word2").toString());
+        assertEquals("word2 wordy b", getSnippet(1, "word4").toString());
+    }
+
+    @Test
+    void testPrefix() {
+        assertEquals("[word2] [wordy] b", getSnippet(1, "word*").toString());
+        assertEquals("... g [word1] [word2] h i ...", getSnippet(0, "word2", "word*").toString());
+    }
+
+    @Test
+    void testHighlights() {
+        Snippet snippet = getSnippet(0, "word2");
+        assertEquals(1, snippet.getHighlightCount());
+        assertEquals("word2", snippet.getText().substring(snippet.getHighlightStart(0), snippet.getHighlightEnd(0)));
+        assertEquals("... g word1 <b>word2</b> h i ...", snippet.mark("<b>", "</b>"));
+    }
+
+    @Test
+    void testPositions() {
+        // The positions read from the index give the same snippets as the scan.
+        for (String[] words: Arrays.asList(new String[] {"word1", "word2"}, new String[] {"word1"}, new String[] {"word2", "word*"})) {
+            assertEquals(getSnippet(0, words), generator.getSnippet(0, index.getWebsite(0), words, true));
+        }
+    }
+
+    @Test
+    void testLongWebsite() {
+        // The words are far behind the part of the website that is scanned.
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < SnippetGenerator.MAX_SCAN_LENGTH + 100; i++) {
+            words.add("filler");
+        }
+        words.add("word5");
+        words.add("word6");
+        InvertedIndex longIndex = new InvertedIndexHashMap();
+        longIndex.build(Arrays.asList(new Website("4.com", "example4", words)));
+        SnippetGenerator longGenerator = new SnippetGenerator(longIndex, 3);
+
+        Website website = longIndex.getWebsite(0);
+        assertEquals("filler filler filler ...", longGenerator.getSnippet(0, website, new String[] {"word5"}).toString());
+        assertEquals("... filler [word5] [word6]",
+                longGenerator.getSnippet(0, website, new String[] {"word5", "word6"}, true).toString());
+
+        // Only a phrase query, which needs the positions anyway, reads them for its snippets.
+        QueryHandler queryHandler = new QueryHandler(longIndex);
+        queryHandler.setSnippets(3);
+        assertEquals("filler filler filler ...",
+                queryHandler.getMatchingWebsites("word5 word6").get(0).getSnippet().toString());
+        assertEquals("... filler [word5] [word6]",
+                queryHandler.getMatchingWebsites("\"word5 word6\"").get(0).getSnippet().toString());
+    }
+
+    @Test
+    void testInvalidLength() {
+        assertThrows(IllegalArgumentException.class, () -> new SnippetGenerator(index, 0));
+    }
+
+    @Test
+    void testSearchResults() throws IOException {
+        QueryHandler queryHandler = new QueryHandler(index);
+        assertNull(queryHandler.getMatchingWebsites("word2").get(0).getSnippet());
+
+        queryHandler.setSnippets(3);
+        List<ScoredWebsite> websites = queryHandler.getMatchingWebsites("word2 OR word3");
+        assertEquals(3, websites.size());
+        for (ScoredWebsite website: websites) {
+            assertNotNull(website.getSnippet());
+        }
+        // The snippet is not part of the identity of a result.
+        assertEquals(new ScoredWebsite("3.com", "example3", websites.get(2).getScore()), websites.get(2));
+
+        StringWriter out = new StringWriter();
+        SearchResult result = new SearchResult(websites.subList(2, 3), 3);
+        new SearchResponse("word3", 2, 1, result).write(out);
+        assertTrue(out.toString().endsWith("\"snippet\":{\"text\":\"... e f word3\",\"highlights\":[[8,13]]}}]}"), out.toString());
+    }
+}
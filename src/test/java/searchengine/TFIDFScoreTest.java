@@ -54,4 +54,24 @@ class TFIDFScoreTest {
         assertEquals(1.0 * 0.0, tfidfScore.getScore("word2", site2, index));
         assertEquals(1.0 * 1.0, tfidfScore.getScore("word3", site2, index));
     }
+
+    @Test
+    void checkTermScorers() {
+        // Document IDs are 0 for site1 and 1 for site2.
+        assertEquals(2.0 * 1.0, tfidfScore.getTermScorer("word1", index).score(0, 2));
+        assertEquals(1.0 * 0.0, tfidfScore.getTermScorer("word2", index).score(1, 1));
+        assertEquals(1.0 * 1.0, tfidfScore.getTermScorer("word3", index).score(1, 1));
+        assertEquals(1, index.getDocumentFrequency("word1"));
+        assertEquals(2, index.getDocumentFrequency("word2"));
+        assertEquals(0, index.getDocumentFrequency("word4"));
+    }
+
+    @Test
+    void checkBlockScores() {
+        double[] scores = {0.5, 0.5};
+        tfidfScore.getTermScorer("word2", index).addScores(new int[] {0, 1}, new int[] {1, 1}, 2, scores);
+        assertArrayEquals(new double[] {0.5, 0.5}, scores);
+        tfidfScore.getTermScorer("word1", index).addScores(new int[] {0, 1}, new int[] {2, 3}, 1, scores);
+        assertArrayEquals(new double[] {2.5, 0.5}, scores);
+    }
 }
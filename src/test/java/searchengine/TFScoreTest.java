@@ -53,4 +53,18 @@ class TFScoreTest {
         assertEquals(1.0, tfScore.getScore("word2", site2, index));
         assertEquals(1.0, tfScore.getScore("word3", site2, index));
     }
+
+    @Test
+    void checkTFScoresFromPostings() {
+        PostingsList postings = index.getPostings("word1");
+        assertEquals(1, postings.size());
+        assertEquals(2.0, tfScore.getTermScorer("word1", index).score(postings.getDocId(0), postings.getFrequency(0)));
+        postings = index.getPostings("word2");
+        assertEquals(1.0, tfScore.getTermScorer("word2", index).score(postings.getDocId(0), postings.getFrequency(0)));
+        assertEquals(1.0, tfScore.getTermScorer("word2", index).score(postings.getDocId(1), postings.getFrequency(1)));
+        // The frequency of a prefix is the sum of the frequencies of the matching words.
+        postings = index.getPostings("word*");
+        assertEquals(3.0, tfScore.getTermScorer("word*", index).score(postings.getDocId(0), postings.getFrequency(0)));
+        assertEquals(2.0, tfScore.getTermScorer("word*", index).score(postings.getDocId(1), postings.getFrequency(1)));
+    }
 }
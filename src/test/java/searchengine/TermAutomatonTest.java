@@ -0,0 +1,93 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the term automaton.
+ *
+ * {@link TermAutomaton}
+ * @author CodeUnicorns
+ */
+class TermAutomatonTest {
+
+    private TermAutomaton automaton;
+
+    @BeforeEach
+    void setUp() {
+        automaton = TermAutomaton.build(Arrays.asList("Cat", "car", "cat", "cats", "dog", "døg"));
+    }
+
+    @Test
+    void testGetTermId() {
+        assertEquals(6, automaton.size());
+        assertEquals(0, automaton.getTermId("Cat"));
+        assertEquals(2, automaton.getTermId("cat"));
+        assertEquals(5, automaton.getTermId("døg"));
+        // Prefixes of words are not words.
+        assertEquals(-1, automaton.getTermId("ca"));
+        assertEquals(-1, automaton.getTermId("cow"));
+        assertEquals(-1, automaton.getTermId(""));
+    }
+
+    @Test
+    void testGetWord() {
+        assertEquals(Arrays.asList("Cat", "car", "cat", "cats", "dog", "døg"), automaton.getWords());
+        assertEquals("cats", automaton.getWord(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> automaton.getWord(6));
+    }
+
+    @Test
+    void testPrefixSearch() {
+        assertEquals(1, automaton.getFirstTermId("ca"));
+        assertEquals(4, automaton.getEndTermId("ca"));
+        assertEquals(2, automaton.getFirstTermId("cat"));
+        assertEquals(4, automaton.getEndTermId("cat"));
+        assertEquals(automaton.getFirstTermId("x"), automaton.getEndTermId("x"));
+        assertEquals(0, automaton.getFirstTermId(""));
+        assertEquals(6, automaton.getEndTermId(""));
+    }
+
+    @Test
+    void testMinimal() {
+        // The words share their suffixes, so the automaton has one state per position.
+        TermAutomaton suffixes = TermAutomaton.build(Arrays.asList("bat", "cat", "hat", "mat", "rat"));
+        assertEquals(4, suffixes.getStateCount());
+        assertEquals(2, suffixes.getTermId("hat"));
+    }
+
+    @Test
+    void testSortedWords() {
+        // Words are sorted by code point, which puts the supplementary character last.
+        List<String> words = new ArrayList<>(Arrays.asList("😀", "ａ", "a"));
+        Collections.sort(words, TermAutomaton.WORD_ORDER);
+        assertEquals(Arrays.asList("a", "ａ", "😀"), words);
+        assertEquals(words, TermAutomaton.build(words).getWords());
+
+        assertThrows(IllegalArgumentException.class, () -> TermAutomaton.build(Arrays.asList("b", "a")));
+        assertThrows(IllegalArgumentException.class, () -> TermAutomaton.build(Arrays.asList("a", "a")));
+        assertEquals(0, TermAutomaton.build(Collections.<String>emptyList()).size());
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[3]);
+        automaton.write(new DataOutputStream(bytes));
+
+        TermAutomaton read = TermAutomaton.read(ByteBuffer.wrap(bytes.toByteArray()), 3);
+        assertEquals(automaton.getWords(), read.getWords());
+        assertEquals(5, read.getTermId("døg"));
+    }
+}
@@ -0,0 +1,101 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the term dictionary.
+ *
+ * {@link TermDictionary}
+ * @author CodeUnicorns
+ */
+class TermDictionaryTest {
+
+    private TermDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new TermDictionary();
+    }
+
+    @Test
+    void testIntern() {
+        int word1 = dictionary.intern("word1");
+        int word2 = dictionary.intern("word2");
+        assertNotEquals(word1, word2);
+        assertEquals(word1, dictionary.intern("word1"));
+        assertEquals(2, dictionary.size());
+
+        // Both Strings and bytes map to the same term, which is only stored once.
+        byte[] data = "xxword2xx".getBytes(StandardCharsets.UTF_8);
+        assertEquals(word2, dictionary.intern(data, 2, 5));
+        assertSame(dictionary.getTerm(word1), dictionary.getTerm(dictionary.intern(new String("word1"))));
+
+        // Prefixes are different words.
+        assertNotEquals(word1, dictionary.intern("word"));
+    }
+
+    @Test
+    void testGetTermId() {
+        int word = dictionary.intern("wörd");
+        assertEquals(word, dictionary.getTermId("wörd"));
+        assertEquals("wörd", dictionary.getTerm(word));
+        assertEquals(-1, dictionary.getTermId("word"));
+        assertEquals(-1, dictionary.getTermId(null));
+    }
+
+    @Test
+    void testGrow() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.intern("word" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.getTermId("word" + i));
+        }
+        assertEquals(1000, dictionary.size());
+    }
+
+    @Test
+    void testWebsiteWords() {
+        Website site = new Website("example.com", "example", Arrays.asList("word1", "word2", "word1"));
+        assertEquals(Arrays.asList("word1", "word2", "word1"), site.getWords());
+        assertEquals(site.getTermIds()[0], site.getTermIds()[2]);
+        assertTrue(site.containsWord("word2"));
+        assertFalse(site.containsWord("word3"));
+
+        // Websites with different dictionaries compare their words.
+        int[] termIds = {dictionary.intern("word1"), dictionary.intern("word2"), dictionary.intern("word1")};
+        assertEquals(site, new Website("example.com", "example", termIds, dictionary));
+
+        // Websites created from words don't share a dictionary.
+        Website other = new Website("example.com", "example", Arrays.asList("word1"));
+        assertNotSame(site.getTermDictionary(), other.getTermDictionary());
+        assertEquals(1, other.getTermDictionary().size());
+    }
+
+    @Test
+    void testLookupsWhileInterning() throws InterruptedException {
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100000; i++) {
+                dictionary.intern("word" + i);
+            }
+        });
+        writer.start();
+
+        // Every word counted by the size can be looked up without a lock.
+        while (writer.isAlive()) {
+            int size = dictionary.size();
+            if (size > 0) {
+                assertEquals(size - 1, dictionary.getTermId("word" + (size - 1)));
+                assertEquals("word" + (size - 1), dictionary.getTerm(size - 1));
+            }
+        }
+        writer.join();
+        assertEquals(99999, dictionary.getTermId("word99999"));
+    }
+}
@@ -0,0 +1,55 @@
+package searchengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the index of urls.
+ *
+ * {@link UrlIndex}
+ * @author CodeUnicorns
+ */
+class UrlIndexTest {
+
+    private UrlIndex urlIndex;
+
+    @BeforeEach
+    void setUp() {
+        urlIndex = new UrlIndex(Arrays.asList(
+                "https://en.wikipedia.org/wiki/Denmark",
+                "https://example.com/denmark",
+                "https://en.wikipedia.org/wiki/Copenhagen",
+                "https://example.com/wiki/Den/mark",
+                "https://example.com/aaab"));
+    }
+
+    @Test
+    void testGetPostings() {
+        PostingsList postings = urlIndex.getPostings("wiki/Den");
+        assertEquals(2, postings.size());
+        assertEquals(0, postings.getDocId(0));
+        assertEquals(3, postings.getDocId(1));
+        assertEquals(1, postings.getFrequency(1));
+
+        assertEquals(2, urlIndex.getPostings("wikipedia.org").size());
+        assertEquals(0, urlIndex.getPostings("wikipedia.org/wiki/Aarhus").size());
+    }
+
+    @Test
+    void testAllTrigramsButNoMatch() {
+        // The last url contains all trigrams of "aaaab", but not the text.
+        assertEquals(0, urlIndex.getPostings("aaaab").size());
+        assertEquals(1, urlIndex.getPostings("aaab").size());
+    }
+
+    @Test
+    void testShortFilter() {
+        assertEquals(5, urlIndex.getPostings("/").size());
+        assertEquals(4, urlIndex.getPostings("en").size());
+        assertEquals(5, urlIndex.getPostings("").size());
+    }
+}
@@ -0,0 +1,111 @@
+package searchengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the website reader.
+ *
+ * {@link WebsiteReader}
+ * @author CodeUnicorns
+ */
+class WebsiteReaderTest {
+
+    @Test
+    void readBadFile() throws IOException {
+        List<Website> sites = new ArrayList<>();
+        try (WebsiteReader reader = new WebsiteReader("data/test-file-errors.txt")) {
+            while (reader.hasNext()) {
+                sites.add(reader.next());
+            }
+        }
+
+        assertEquals(2, sites.size());
+        assertEquals("http://page1.com", sites.get(0).getUrl());
+        assertEquals(Arrays.asList("word1", "word2"), sites.get(0).getWords());
+        assertEquals("http://page2.com", sites.get(1).getUrl());
+        assertEquals(Arrays.asList("word1", "word3"), sites.get(1).getWords());
+    }
+
+    @Test
+    void readLongLinesAndLineEndings() throws IOException {
+        // A word longer than the read buffer, and Windows line endings.
+        char[] longWord = new char[100000];
+        Arrays.fill(longWord, 'ø');
+        String content = "*PAGE:http://page1.com\r\ntitle ü\r\n" + new String(longWord) + "\r\nword\r\n";
+
+        Path file = Files.createTempFile("websites", ".txt");
+        try {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            try (WebsiteReader reader = new WebsiteReader(file.toString())) {
+                assertTrue(reader.hasNext());
+                Website website = reader.next();
+                assertEquals("http://page1.com", website.getUrl());
+                assertEquals("title ü", website.getTitle());
+                assertEquals(Arrays.asList(new String(longWord), "word"), website.getWords());
+                assertFalse(reader.hasNext());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void readMalformedLastPages() throws IOException {
+        // The file ends with a website without words and one without a title.
+        String content = "*PAGE:http://page1.com\ntitle1\nword1\n"
+                + "*PAGE:http://page2.com\ntitle2\n"
+                + "*PAGE:http://page3.com\n";
+
+        List<Website> sites = readAll(content);
+        assertEquals(1, sites.size());
+        assertEquals("http://page1.com", sites.get(0).getUrl());
+    }
+
+    @Test
+    void readMalformedMiddlePages() throws IOException {
+        // The websites in the middle have no title or no words.
+        String content = "*PAGE:http://page1.com\ntitle1\nword1\n"
+                + "*PAGE:http://page2.com\n"
+                + "*PAGE:http://page3.com\ntitle3\n"
+                + "*PAGE:http://page4.com\ntitle4\nword4\n";
+
+        List<Website> sites = readAll(content);
+        assertEquals(2, sites.size());
+        assertEquals("http://page1.com", sites.get(0).getUrl());
+        assertEquals("http://page4.com", sites.get(1).getUrl());
+        assertEquals(Arrays.asList("word4"), sites.get(1).getWords());
+    }
+
+    /**
+     * Writes the content to a temporary file and reads all websites of it,
+     * checking that hasNext() agrees with next() along the way.
+     */
+    private static List<Website> readAll(String content) throws IOException {
+        Path file = Files.createTempFile("websites", ".txt");
+        try {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            List<Website> sites = new ArrayList<>();
+            try (WebsiteReader reader = new WebsiteReader(file.toString())) {
+                while (reader.hasNext()) {
+                    sites.add(reader.next());
+                }
+                assertFalse(reader.hasNext());
+                assertThrows(NoSuchElementException.class, reader::next);
+            }
+            return sites;
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
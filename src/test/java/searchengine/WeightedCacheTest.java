@@ -0,0 +1,161 @@
+package searchengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The unit tests for the query cache.
+ *
+ * {@link WeightedCache}
+ * {@link SearchEngine}
+ * @author CodeUnicorns
+ */
+class WeightedCacheTest {
+
+    @Test
+    void testGetAndPut() {
+        WeightedCache<String, Integer> cache = new WeightedCache<>(10, 100);
+        assertNull(cache.get("a"));
+        assertTrue(cache.put("a", 1, 1));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertTrue(cache.put("a", 2, 3));
+        assertEquals(Integer.valueOf(2), cache.get("a"));
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getSize());
+        assertEquals(3, statistics.getWeight());
+
+        cache.clear();
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getStatistics().getWeight());
+    }
+
+    @Test
+    void testEviction() {
+        WeightedCache<String, Integer> cache = new WeightedCache<>(2, 100);
+        cache.get("a");
+        cache.put("a", 1, 1);
+        cache.get("b");
+        cache.put("b", 2, 1);
+
+        // "a" is now the most recently used, and "c" is asked for more often than "b".
+        cache.get("a");
+        cache.get("c");
+        cache.get("c");
+        assertTrue(cache.put("c", 3, 1));
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void testAdmission() {
+        WeightedCache<String, Integer> cache = new WeightedCache<>(1, 100);
+        for (int i = 0; i < 5; i++) {
+            cache.get("popular");
+        }
+        cache.put("popular", 1, 1);
+
+        // A query that is only asked once doesn't push out a popular one.
+        assertFalse(cache.put("rare", 2, 1));
+        assertEquals(Integer.valueOf(1), cache.get("popular"));
+
+        // Entries heavier than the whole cache are never admitted.
+        assertFalse(cache.put("heavy", 3, 101));
+        assertEquals(2, cache.getStatistics().getRejectionCount());
+    }
+
+    @Test
+    void testAdmissionAgainstAllVictims() {
+        WeightedCache<String, Integer> cache = new WeightedCache<>(10, 4);
+        cache.put("rare", 1, 2);
+        cache.put("popular", 2, 2);
+        for (int i = 0; i < 5; i++) {
+            cache.get("popular");
+        }
+
+        // "new" is asked for more often than the least recently used entry, but it
+        // would evict "popular" too, which is asked for more often than "new".
+        cache.get("new");
+        cache.get("new");
+        assertFalse(cache.put("new", 3, 4));
+        assertEquals(Integer.valueOf(1), cache.get("rare"));
+        assertEquals(Integer.valueOf(2), cache.get("popular"));
+        assertEquals(0, cache.getStatistics().getEvictionCount());
+        assertEquals(4, cache.getStatistics().getWeight());
+    }
+
+    @Test
+    void testRejectedUpdateKeepsPreviousValue() {
+        WeightedCache<String, Integer> cache = new WeightedCache<>(10, 10);
+        cache.put("a", 1, 1);
+        cache.put("b", 2, 1);
+        for (int i = 0; i < 5; i++) {
+            cache.get("b");
+        }
+
+        // The heavier value of "a" would evict "b", which is more popular.
+        assertFalse(cache.put("a", 3, 10));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertFalse(cache.put("a", 4, 11));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(2, cache.getStatistics().getSize());
+        assertEquals(2, cache.getStatistics().getWeight());
+    }
+
+    @Test
+    void testWeightLimit() {
+        WeightedCache<String, Integer> cache = new WeightedCache<>(10, 10);
+        cache.put("a", 1, 4);
+        cache.put("b", 2, 4);
+        for (int i = 0; i < 5; i++) {
+            cache.get("c");
+        }
+        assertTrue(cache.put("c", 3, 8));
+        assertEquals(1, cache.getStatistics().getSize());
+        assertEquals(8, cache.getStatistics().getWeight());
+    }
+
+    @Test
+    void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedCache<String, Integer>(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedCache<String, Integer>(10, 0));
+
+        WeightedCache<String, Integer> cache = new WeightedCache<>(10, 10);
+        assertThrows(IllegalArgumentException.class, () -> cache.put("a", 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("a", 1, -1));
+    }
+
+    @Test
+    void testSearchEngineCache() {
+        List<Website> sites = new ArrayList<>();
+        sites.add(new Website("example1.com", "example1", Arrays.asList("word1", "word2")));
+        sites.add(new Website("example2.com", "example2", Arrays.asList("word1")));
+        SearchEngine searchEngine = new SearchEngine(sites);
+
+        // The same query, written differently, is answered from the cache.
+        SearchResult first = searchEngine.search("word1", 10, 0);
+        SearchResult second = searchEngine.search("word1 ", 10, 0);
+        assertSame(first, second);
+        assertEquals(2, first.getTotalHits());
+        assertEquals(1, searchEngine.getQueryCacheStatistics().getHitCount());
+        assertThrows(UnsupportedOperationException.class, () -> second.getWebsites().clear());
+
+        // Another page is another answer.
+        assertEquals(1, searchEngine.search("word1", 1, 1).getWebsites().size());
+
+        // The cached answers of the old index are not served after a rebuild.
+        sites.add(new Website("example3.com", "example3", Arrays.asList("word1")));
+        searchEngine.rebuild(sites.iterator());
+        assertEquals(3, searchEngine.search("word1", 10, 0).getTotalHits());
+        assertEquals(3, searchEngine.search("word1").size());
+    }
+}
@@ -1,22 +1,74 @@
 $(document).ready(function() {
     var baseUrl = "http://localhost:8080";
+    var pageSize = 20;
+    var offset = 0;
 
-    $("#searchbutton").click(function() {
+    // Escapes text before it is put into the page.
+    function escapeHtml(text) {
+        return $("<div>").text(text).html();
+    }
+
+    // Escapes the text of a snippet, and puts its highlights in bold.
+    function snippetHtml(snippet) {
+        var html = "";
+        var start = 0;
+        $.each(snippet.highlights, function(index, highlight) {
+            html += escapeHtml(snippet.text.substring(start, highlight[0]));
+            html += "<b>" + escapeHtml(snippet.text.substring(highlight[0], highlight[1])) + "</b>";
+            start = highlight[1];
+        });
+        return html + escapeHtml(snippet.text.substring(start));
+    }
+
+    function search() {
         console.log("Sending request to server.");
         $.ajax({
             method: "GET",
             url: baseUrl + "/search",
-            data: {query: $('#searchbox').val()}
+            data: {query: $('#searchbox').val(), offset: offset, limit: pageSize}
         }).success( function (data) {
             console.log("Received response " + data);
-            $("#responsesize").html("<p>" + data.length + " websites retrieved</p>");
-            var buffer = "<ul>\n";
-            $.each(data, function(index, value) {
+            // The total may be a lower bound, if the search engine skipped websites that could not make it to the page.
+            var total = data.totalHits + (data.totalHitsExact ? "" : "+");
+            var buffer = "<p>" + total + " websites retrieved";
+            if (data.results.length > 0) {
+                buffer += ", showing " + (data.offset + 1) + " to " + (data.offset + data.results.length);
+            }
+            buffer += "</p>";
+            if (data.offset > 0) {
+                buffer += "<button id=\"previousbutton\">Previous</button> ";
+            }
+            if (data.offset + data.results.length < data.totalHits) {
+                buffer += "<button id=\"nextbutton\">Next</button>";
+            }
+            $("#responsesize").html(buffer);
+
+            buffer = "<ul>\n";
+            $.each(data.results, function(index, value) {
                 // value.score displays the score.
-                buffer += "<center><ul><a href=\"" + value.url + "\">" + value.title + "</a>" + "<br />" + value.score.toFixed(2) + "</ul><br />";
+                buffer += "<center><ul><a href=\"" + escapeHtml(value.url) + "\">" + escapeHtml(value.title) + "</a>" + "<br />";
+                if (value.snippet) {
+                    buffer += snippetHtml(value.snippet) + "<br />";
+                }
+                buffer += value.score.toFixed(2) + "</ul><br />";
             });
             buffer += "</ul>";
             $("#urllist").html(buffer);
         });
+    }
+
+    $("#searchbutton").click(function() {
+        offset = 0;
+        search();
+    });
+
+    $("#responsesize").on("click", "#previousbutton", function() {
+        offset = Math.max(0, offset - pageSize);
+        search();
+    });
+
+    $("#responsesize").on("click", "#nextbutton", function() {
+        offset += pageSize;
+        search();
     });
-});
\ No newline at end of file
+});